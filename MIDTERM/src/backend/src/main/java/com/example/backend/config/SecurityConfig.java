@@ -34,9 +34,12 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                     .requestMatchers("/api/images/**", "/uploads/**").permitAll()
+                    .requestMatchers("/actuator/health").permitAll()
+                    .requestMatchers("/actuator/**").hasAnyAuthority("MANAGER", "ADMIN")
                     // Public endpoints (không cần đăng nhập)
                     .requestMatchers(
                         "/api/auth/login", 
+                        "/api/auth/logout",
                         "/api/menu", 
                         "/api/menu/visible",
                         "/api/tables/number/**",
@@ -51,12 +54,14 @@ public class SecurityConfig {
                     ).permitAll()
                     // Kitchen Staff endpoints
                     .requestMatchers("/api/orders/active", "/api/orders/{orderId}/status").hasAnyAuthority("KITCHEN_STAFF", "MANAGER", "CASHIER")
+                    .requestMatchers("/api/kitchen/**").hasAnyAuthority("KITCHEN_STAFF", "MANAGER")
                     // Waiter và Manager endpoints
                     .requestMatchers("/api/tables/{id}/occupy",
                                      "/api/tables/{id}/close",
                                      "/api/orderItems/{orderItemId}/status").hasAnyAuthority("WAITER", "MANAGER", "CASHIER")
                     // Kitchen Staff, Waiter, Manager và Cashier endpoints (quản lý trạng thái món)
-                    .requestMatchers("/api/menu/{id}/toggle-availability",
+                    .requestMatchers("/api/orderItems/status",
+                                     "/api/menu/{id}/toggle-availability",
                                      "/api/menu/{id}/toggle-visibility").hasAnyAuthority("KITCHEN_STAFF", "WAITER", "MANAGER", "CASHIER")
                     // Manager endpoints
                     .requestMatchers("/api/payments/**", "/api/menu", "/api/menu/{id}").hasAnyAuthority("MANAGER", "CASHIER")
@@ -1,14 +1,17 @@
 package com.example.backend.controller;
 
 import com.example.backend.dto.LoginRequest;
-import com.example.backend.dto.LoginResponse;
-import com.example.backend.service.UserService;
+import com.example.backend.security.JwtUtil;
+import com.example.backend.service.LoginService;
+import com.example.backend.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -16,17 +19,40 @@ import java.util.Optional;
 public class AuthController {
     
     @Autowired
-    private UserService userService;
+    private LoginService loginService;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    @Autowired
+    private JwtUtil jwtUtil;
+    
+    // Trả về CompletableFuture để luồng Tomcat được giải phóng trong lúc kiểm tra mật khẩu
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
-        Optional<LoginResponse> response = userService.authenticate(loginRequest);
-        
-        if (response.isPresent()) {
-            return ResponseEntity.ok(response.get());
-        } else {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Invalid email or password");
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest,
+                                                      HttpServletRequest request) {
+        return loginService.login(loginRequest, request.getRemoteAddr())
+                .thenApply(response -> {
+                    if (response.isPresent()) {
+                        return ResponseEntity.ok(response.get());
+                    } else {
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                                .body("Invalid email or password");
+                    }
+                });
+    }
+    
+    // Thu hồi token hiện tại; token không hợp lệ thì không cần làm gì
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            try {
+                Claims claims = jwtUtil.extractAllClaims(authHeader.substring(7));
+                tokenRevocationService.revokeToken(claims.getId());
+            } catch (Exception e) {
+                // Token sai chữ ký hoặc sai định dạng
+            }
         }
+        return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+}
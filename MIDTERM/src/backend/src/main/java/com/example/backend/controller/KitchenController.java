@@ -0,0 +1,44 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.KitchenTicket;
+import com.example.backend.model.enums.KitchenType;
+import com.example.backend.service.KitchenTicketService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/kitchen")
+public class KitchenController {
+
+    private final KitchenTicketService kitchenTicketService;
+
+    @GetMapping("/{kitchenType}/tickets")
+    public ResponseEntity<List<KitchenTicket>> getActiveTickets(@PathVariable KitchenType kitchenType) {
+        return ResponseEntity.ok(kitchenTicketService.getActiveTickets(kitchenType));
+    }
+
+    @GetMapping(value = "/{kitchenType}/tickets/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTickets(
+            @PathVariable KitchenType kitchenType,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return kitchenTicketService.subscribe(kitchenType, lastEventId);
+    }
+
+    @PostMapping("/{kitchenType}/tickets/{orderItemId}/ack")
+    public ResponseEntity<KitchenTicket> acknowledge(@PathVariable KitchenType kitchenType,
+                                                     @PathVariable Long orderItemId) {
+        return ResponseEntity.ok(kitchenTicketService.acknowledge(kitchenType, orderItemId));
+    }
+
+    @PostMapping("/{kitchenType}/tickets/{orderItemId}/bump")
+    public ResponseEntity<KitchenTicket> bump(@PathVariable KitchenType kitchenType,
+                                              @PathVariable Long orderItemId) {
+        return ResponseEntity.ok(kitchenTicketService.bump(kitchenType, orderItemId));
+    }
+}
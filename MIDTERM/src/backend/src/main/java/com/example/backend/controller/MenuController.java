@@ -1,13 +1,14 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.MenuSnapshot.Representation;
 import com.example.backend.model.MenuItem;
 import com.example.backend.service.MenuService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
-import java.util.Set;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api")
@@ -16,18 +17,33 @@ public class MenuController {
     private final MenuService menuService;
     
     @GetMapping("/menu")
-    public ResponseEntity<List<MenuItem>> getAllMenuItems() {
-        return ResponseEntity.ok(menuService.getAllMenuItems());
+    public ResponseEntity<byte[]> getAllMenuItems(WebRequest request) {
+        return serve(menuService.getSnapshot().allItemsJson(), request);
     }
     
     @GetMapping("/categories")
-    public ResponseEntity<Set<String>> getAllCategories() {
-        return ResponseEntity.ok(menuService.getAllCategories());
+    public ResponseEntity<byte[]> getAllCategories(WebRequest request) {
+        return serve(menuService.getSnapshot().categoriesJson(), request);
     }
     
     @GetMapping("/menu/visible")
-    public ResponseEntity<List<MenuItem>> getVisibleMenuItems() {
-        return ResponseEntity.ok(menuService.getVisibleMenuItems());
+    public ResponseEntity<byte[]> getVisibleMenuItems(WebRequest request) {
+        return serve(menuService.getSnapshot().visibleItemsJson(), request);
+    }
+    
+    /**
+     * Trả về JSON đã tuần tự hóa sẵn trong ảnh chụp; nếu If-None-Match khớp ETag thì trả 304 không kèm nội dung.
+     * no-cache để điện thoại luôn hỏi lại máy chủ nhưng chỉ tải lại khi thực đơn đã đổi.
+     */
+    private ResponseEntity<byte[]> serve(Representation representation, WebRequest request) {
+        if (request.checkNotModified(representation.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(representation.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(representation.body());
     }
     
     @PostMapping("/menu")
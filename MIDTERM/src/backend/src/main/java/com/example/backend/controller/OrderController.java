@@ -1,5 +1,6 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.CursorPage;
 import com.example.backend.dto.OrderRequest;
 import com.example.backend.dto.OrderResponse;
 import com.example.backend.dto.StatusUpdateRequest;
@@ -7,28 +8,47 @@ import com.example.backend.model.Order;
 import com.example.backend.model.OrderItem;
 import com.example.backend.model.enums.OrderStatus;
 import com.example.backend.service.OrderService;
+import com.example.backend.service.OrderStreamService;
+import com.example.backend.service.OrderSubmissionService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
     private final OrderService orderService;
+    private final OrderStreamService orderStreamService;
+    private final OrderSubmissionService orderSubmissionService;
     
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderStreamService orderStreamService,
+                           OrderSubmissionService orderSubmissionService) {
         this.orderService = orderService;
+        this.orderStreamService = orderStreamService;
+        this.orderSubmissionService = orderSubmissionService;
     }
     
     @GetMapping
     @PreAuthorize("hasAnyRole('WAITER', 'KITCHEN_STAFF', 'MANAGER')")
-    public ResponseEntity<List<Order>> getAllOrders() {
+    public ResponseEntity<List<OrderResponse>> getAllOrders() {
         return ResponseEntity.ok(orderService.getAllOrders());
     }
     
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyAuthority('MANAGER', 'CASHIER')")
+    public ResponseEntity<CursorPage<OrderResponse>> getOrderPage(
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) String tableNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(orderService.getOrderPage(status, tableNumber, cursor, size));
+    }
+    
     @GetMapping("/active")
-    public ResponseEntity<List<Order>> getActiveOrders() {
+    public ResponseEntity<List<OrderResponse>> getActiveOrders() {
         return ResponseEntity.ok(orderService.getActiveOrders());
     }
     
@@ -41,8 +61,9 @@ public class OrderController {
     @PostMapping("/customer/{tableNumber}")
     public ResponseEntity<OrderResponse> createCustomerOrder(
             @PathVariable String tableNumber,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody OrderRequest request) {
-        return ResponseEntity.ok(orderService.createCustomerOrder(tableNumber, request));
+        return ResponseEntity.ok(orderSubmissionService.submitCustomerOrder(tableNumber, request, idempotencyKey));
     }
     
     @GetMapping("/customer/{tableNumber}")
@@ -54,6 +75,13 @@ public class OrderController {
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping(value = "/customer/{tableNumber}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCurrentOrderForTable(
+            @PathVariable String tableNumber,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return orderStreamService.subscribe(tableNumber, lastEventId);
+    }
+    
     @PutMapping("/{orderId}/status")
     public ResponseEntity<Order> updateOrderStatus(
             @PathVariable Long orderId,
@@ -89,6 +117,12 @@ public class OrderController {
         return ResponseEntity.ok(orderService.cancelOrder(orderId));
     }
     
+    @PostMapping("/{orderId}/reconcile-total")
+    @PreAuthorize("hasAnyAuthority('MANAGER', 'CASHIER')")
+    public ResponseEntity<Order> reconcileOrderTotal(@PathVariable Long orderId) {
+        return ResponseEntity.ok(orderService.reconcileOrderTotal(orderId));
+    }
+    
     @PutMapping("/{orderId}/assistance")
     public ResponseEntity<Order> requestAssistance(
             @PathVariable Long orderId,
@@ -1,5 +1,7 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.BulkStatusUpdateRequest;
+import com.example.backend.dto.OrderItemResponse;
 import com.example.backend.dto.StatusUpdateRequest;
 import com.example.backend.model.OrderItem;
 import com.example.backend.model.enums.OrderItemStatus;
@@ -8,6 +10,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/orderItems")
@@ -15,11 +19,18 @@ public class OrderItemController {
 
     private final OrderService orderService;
 
+    @PutMapping("/status")
+    public ResponseEntity<List<OrderItemResponse>> updateOrderItemStatuses(
+            @RequestBody BulkStatusUpdateRequest request) {
+        OrderItemStatus status = OrderItemStatus.from(request.getStatus());
+        return ResponseEntity.ok(orderService.updateOrderItemStatuses(request.getOrderItemIds(), status));
+    }
+
     @PutMapping("/{orderItemId}/status")
     public ResponseEntity<OrderItem> updateOrderItemStatus(
             @PathVariable Long orderItemId,
             @RequestBody StatusUpdateRequest request) {
-        OrderItemStatus status = OrderItemStatus.valueOf(request.getStatus());
+        OrderItemStatus status = OrderItemStatus.from(request.getStatus());
         return ResponseEntity.ok(orderService.updateOrderItemStatus(orderItemId, status));
     }
 } 
\ No newline at end of file
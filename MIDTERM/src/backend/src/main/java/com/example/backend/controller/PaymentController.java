@@ -1,10 +1,12 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.CursorPage;
 import com.example.backend.dto.PaymentDateRangeRequest;
 import com.example.backend.dto.PaymentRequest;
 import com.example.backend.dto.PaymentResponse;
 import com.example.backend.model.Order;
 import com.example.backend.model.Payment;
+import com.example.backend.model.enums.PaymentMethod;
 import com.example.backend.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -50,6 +52,15 @@ public class PaymentController {
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<PaymentResponse>> getPaymentPage(
+            @RequestParam(required = false) PaymentMethod paymentMethod,
+            @RequestParam(required = false) String tableNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(paymentService.getPaymentPage(paymentMethod, tableNumber, cursor, size));
+    }
+
     @GetMapping("/by-date-range")
     public ResponseEntity<List<PaymentResponse>> getPaymentsByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
@@ -1,16 +1,39 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.BestSellerItem;
+import com.example.backend.dto.BestSellerWindow;
 import com.example.backend.dto.DateRangeRequest;
+import com.example.backend.dto.ReportComparisonDTO;
 import com.example.backend.dto.ReportDTO;
+import com.example.backend.dto.ReportExportFormat;
+import com.example.backend.dto.ReportJobStatus;
+import com.example.backend.dto.ReportSliceDTO;
+import com.example.backend.dto.ReportSliceDimension;
+import com.example.backend.exception.Exceptions;
+import com.example.backend.service.BestSellerService;
+import com.example.backend.service.PaymentFactStore;
+import com.example.backend.service.ReportExportService;
+import com.example.backend.service.ReportJobService;
+import com.example.backend.service.ReportRollupService;
 import com.example.backend.service.ReportService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -19,6 +42,15 @@ import java.time.temporal.TemporalAdjusters;
 public class ReportController {
 
     private final ReportService reportService;
+    private final ReportRollupService reportRollupService;
+    private final ReportExportService reportExportService;
+    private final BestSellerService bestSellerService;
+    private final ReportJobService reportJobService;
+    private final PaymentFactStore paymentFactStore;
+
+    // Chỉ áp dụng cho endpoint xuất file; các request bất đồng bộ khác giữ thời hạn mặc định
+    @Value("${reports.export.timeout-ms:600000}")
+    private long exportTimeoutMillis;
 
     @GetMapping("/today")
     public ResponseEntity<ReportDTO> getTodayReport() {
@@ -40,6 +72,60 @@ public class ReportController {
         return ResponseEntity.ok(reportService.getReportForCurrentMonth());
     }
     
+    /**
+     * So sánh một kỳ với kỳ liền trước trong một yêu cầu:
+     * today/yesterday, last7days/7 ngày trước đó, this-month/last-month,
+     * hoặc startDate..endDate với khoảng cùng số ngày ngay trước đó
+     */
+    @GetMapping("/compare")
+    public ResponseEntity<ReportComparisonDTO> compareReports(
+            @RequestParam(defaultValue = "today") String period,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate) {
+        
+        LocalDate today = LocalDate.now();
+        LocalDate currentStart;
+        LocalDate currentEnd;
+        LocalDate referenceStart;
+        LocalDate referenceEnd;
+        if (startDate != null && endDate != null) {
+            currentStart = LocalDate.parse(startDate);
+            currentEnd = LocalDate.parse(endDate);
+            if (currentEnd.isBefore(currentStart)) {
+                throw Exceptions.invalidDateRange();
+            }
+            long days = ChronoUnit.DAYS.between(currentStart, currentEnd) + 1;
+            referenceStart = currentStart.minusDays(days);
+            referenceEnd = currentStart.minusDays(1);
+        } else {
+            switch (period) {
+                case "today" -> {
+                    currentStart = today;
+                    currentEnd = today;
+                    referenceStart = today.minusDays(1);
+                    referenceEnd = today.minusDays(1);
+                }
+                case "last7days" -> {
+                    currentStart = today.minusDays(6);
+                    currentEnd = today;
+                    referenceStart = today.minusDays(13);
+                    referenceEnd = today.minusDays(7);
+                }
+                case "this-month" -> {
+                    currentStart = today.withDayOfMonth(1);
+                    currentEnd = today.with(TemporalAdjusters.lastDayOfMonth());
+                    referenceStart = currentStart.minusMonths(1);
+                    referenceEnd = referenceStart.with(TemporalAdjusters.lastDayOfMonth());
+                }
+                default -> throw Exceptions.invalidDateRange();
+            }
+        }
+        
+        return ResponseEntity.ok(reportService.compareReports(
+                currentStart.atStartOfDay(), currentEnd.atTime(LocalTime.MAX),
+                referenceStart.atStartOfDay(), referenceEnd.atTime(LocalTime.MAX)));
+    }
+    
     @GetMapping("/last-month")
     public ResponseEntity<ReportDTO> getLastMonthReport() {
         LocalDate today = LocalDate.now();
@@ -93,8 +179,95 @@ public class ReportController {
         return ResponseEntity.ok(reportService.getReport(startDateTime, endDateTime));
     }
 
+    /**
+     * Món bán chạy nhất trong một giờ gần nhất hoặc hôm nay, tính hoàn toàn trong bộ nhớ
+     */
+    @GetMapping("/top-items/live")
+    public ResponseEntity<List<BestSellerItem>> getLiveTopItems(
+            @RequestParam(defaultValue = "hour") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bestSellerService.getTopItems(BestSellerWindow.from(window), Math.max(1, Math.min(limit, 50))));
+    }
+
+    /**
+     * Gom nhóm thanh toán theo ngày, giờ, phương thức, bàn hoặc nhân viên từ kho dữ kiện trong bộ nhớ
+     */
+    @GetMapping("/slices")
+    public ResponseEntity<List<ReportSliceDTO>> getSlice(
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "day") String groupBy) {
+        if (!paymentFactStore.isReady()) {
+            throw Exceptions.paymentFactsNotReady();
+        }
+        LocalDateTime start = LocalDateTime.parse(startDate);
+        LocalDateTime end = LocalDateTime.parse(endDate);
+        return ResponseEntity.ok(paymentFactStore.slice(start, end, ReportSliceDimension.from(groupBy)));
+    }
+
+    /**
+     * Xuất danh sách đơn hàng của khoảng thời gian dạng CSV hoặc NDJSON, ghi trực tiếp ra response
+     */
+    @GetMapping("/custom-range/export")
+    public ResponseEntity<StreamingResponseBody> exportCustomRangeOrders(
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletRequest request) {
+        
+        LocalDate start = LocalDate.parse(startDate);
+        LocalDate end = LocalDate.parse(endDate);
+        ReportExportFormat exportFormat = ReportExportFormat.from(format);
+        
+        LocalDateTime startDateTime = start.atStartOfDay();
+        LocalDateTime endDateTime = end.atTime(23, 59, 59);
+        
+        String fileName = "orders_" + start + "_" + end + "." + exportFormat.getFileExtension();
+        StreamingResponseBody body = out -> reportExportService.exportOrders(startDateTime, endDateTime, exportFormat, out);
+        // Thời hạn phải được đặt trước khi Spring bắt đầu xử lý bất đồng bộ cho StreamingResponseBody
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeoutMillis);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    /**
+     * Dựng lại bảng tổng hợp doanh thu cho một khoảng ngày (ví dụ sau khi sửa dữ liệu thanh toán)
+     */
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasAuthority('MANAGER')")
+    public ResponseEntity<Void> rebuildRollups(
+            @RequestParam String startDate,
+            @RequestParam String endDate) {
+        reportRollupService.rebuild(LocalDate.parse(startDate), LocalDate.parse(endDate));
+        reportService.invalidateCache();
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/date-range")
     public ResponseEntity<ReportDTO> getReportByDateRange(@RequestBody DateRangeRequest request) {
         return ResponseEntity.ok(reportService.getReport(request.getStartDate(), request.getEndDate()));
     }
+
+    /**
+     * Gửi yêu cầu tính báo cáo chạy nền cho khoảng thời gian dài, trả về ngay mã job
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<ReportJobStatus> submitReportJob(@RequestBody DateRangeRequest request) {
+        ReportJobStatus status = reportJobService.submit(request.getStartDate(), request.getEndDate());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reports/jobs/" + status.getJobId()))
+                .body(status);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ReportJobStatus> getReportJobStatus(@PathVariable String jobId) {
+        return ResponseEntity.ok(reportJobService.getStatus(jobId));
+    }
+
+    @GetMapping("/jobs/{jobId}/result")
+    public ResponseEntity<ReportDTO> getReportJobResult(@PathVariable String jobId) {
+        return ResponseEntity.ok(reportJobService.getResult(jobId));
+    }
 } 
\ No newline at end of file
@@ -1,12 +1,10 @@
 package com.example.backend.controller;
+import com.example.backend.logging.AsyncLogPipeline;
 import com.example.backend.model.Table;
 import com.example.backend.service.TableService;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -14,9 +12,11 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/tables")
 @RequiredArgsConstructor
-@Slf4j
 public class TableController {
+    private static final String CATEGORY = "tables";
+
     private final TableService tableService;
+    private final AsyncLogPipeline logs;
     
     @GetMapping
     public ResponseEntity<List<Table>> getAllTables() {
@@ -44,20 +44,16 @@ public class TableController {
     
     @PostMapping("/{id}/open")
     public ResponseEntity<Void> openTable(@PathVariable Long id) {
-        log.info("Opening table with ID: " + id);
-        
         // Tìm user có vai trò WAITER để làm waiter mặc định
         try {
             // Giả sử có một repository để truy vấn user
             Long defaultWaiterId = 6L; // ID của waiter1@example.com trong database
-            log.info("Using default waiter ID: " + defaultWaiterId);
-            
             tableService.openTable(id, defaultWaiterId);
-            log.info("Table opened successfully");
+            logs.info(CATEGORY, "Table opened", "tableId", id, "waiterId", defaultWaiterId);
             
             return ResponseEntity.ok().build();
         } catch (Exception e) {
-            log.error("Error opening table: " + e.getMessage());
+            logs.warn(CATEGORY, "Error opening table", "tableId", id, "error", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
@@ -65,12 +61,8 @@ public class TableController {
     @PostMapping("/{id}/occupy")
     @PreAuthorize("hasAnyAuthority('WAITER', 'MANAGER')")
     public ResponseEntity<Void> occupyTable(@PathVariable Long id) {
-        log.info("Changing table state to OCCUPIED for ID: " + id);
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        log.info("User: " + auth.getName() + ", Authorities: " + auth.getAuthorities());
-        
         tableService.occupyTable(id);
-        log.info("Table state changed to OCCUPIED successfully");
+        logs.info(CATEGORY, "Table occupied", "tableId", id);
         
         return ResponseEntity.ok().build();
     }
@@ -78,12 +70,8 @@ public class TableController {
     @PostMapping("/{id}/close")
     @PreAuthorize("hasAnyAuthority('WAITER', 'MANAGER')")
     public ResponseEntity<Void> closeTable(@PathVariable Long id) {
-        log.info("Closing table with ID: " + id);
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        log.info("User: " + auth.getName() + ", Authorities: " + auth.getAuthorities());
-        
         tableService.closeTable(id);
-        log.info("Table closed successfully");
+        logs.info(CATEGORY, "Table closed", "tableId", id);
         
         return ResponseEntity.ok().build();
     }
@@ -91,12 +79,8 @@ public class TableController {
     @PostMapping("/{id}/assign/{waiterId}")
     @PreAuthorize("hasAnyAuthority('WAITER', 'MANAGER')")
     public ResponseEntity<Void> assignWaiter(@PathVariable Long id, @PathVariable Long waiterId) {
-        log.info("Assigning waiter ID: " + waiterId + " to table ID: " + id);
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        log.info("User: " + auth.getName() + ", Authorities: " + auth.getAuthorities());
-        
         tableService.assignWaiter(id, waiterId);
-        log.info("Waiter assigned successfully");
+        logs.info(CATEGORY, "Waiter assigned", "tableId", id, "waiterId", waiterId);
         
         return ResponseEntity.ok().build();
     }
@@ -106,28 +90,27 @@ public class TableController {
     @GetMapping("/all")
     @PreAuthorize("hasAuthority('MANAGER')")
     public ResponseEntity<List<Table>> getAllTablesIncludingHidden() {
-        log.info("Getting all tables including hidden ones");
         return ResponseEntity.ok(tableService.getAllTablesIncludingHidden());
     }
     
     @PostMapping
     @PreAuthorize("hasAuthority('MANAGER')")
     public ResponseEntity<Table> createTable(@RequestBody Table table) {
-        log.info("Creating new table: " + table.getTableNumber());
+        logs.info(CATEGORY, "Creating table", "tableNumber", table.getTableNumber());
         return ResponseEntity.ok(tableService.createTable(table));
     }
     
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('MANAGER')")
     public ResponseEntity<Table> updateTable(@PathVariable Long id, @RequestBody Table table) {
-        log.info("Updating table with ID: " + id);
+        logs.info(CATEGORY, "Updating table", "tableId", id);
         return ResponseEntity.ok(tableService.updateTable(id, table));
     }
     
     @PostMapping("/{id}/hide")
     @PreAuthorize("hasAuthority('MANAGER')")
     public ResponseEntity<Void> hideTable(@PathVariable Long id) {
-        log.info("Hiding table with ID: " + id);
+        logs.info(CATEGORY, "Hiding table", "tableId", id);
         tableService.hideTable(id);
         return ResponseEntity.ok().build();
     }
@@ -135,7 +118,7 @@ public class TableController {
     @PostMapping("/{id}/show")
     @PreAuthorize("hasAuthority('MANAGER')")
     public ResponseEntity<Void> showTable(@PathVariable Long id) {
-        log.info("Showing table with ID: " + id);
+        logs.info(CATEGORY, "Showing table", "tableId", id);
         tableService.showTable(id);
         return ResponseEntity.ok().build();
     }
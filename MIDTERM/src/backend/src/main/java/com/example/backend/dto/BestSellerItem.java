@@ -0,0 +1,17 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Một món trong bảng xếp hạng bán chạy theo thời gian thực
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BestSellerItem {
+    private Long menuItemId;
+    private String menuItemName;
+    private String category;
+    private long quantity;      // Số lượng ước tính, không nhỏ hơn số lượng thực
+    private long maxError;      // Số lượng thực nằm trong [quantity - maxError, quantity]
+}
@@ -0,0 +1,18 @@
+package com.example.backend.dto;
+
+import com.example.backend.exception.Exceptions;
+
+public enum BestSellerWindow {
+    LAST_HOUR,
+    TODAY;
+
+    public static BestSellerWindow from(String value) {
+        if ("hour".equalsIgnoreCase(value) || LAST_HOUR.name().equalsIgnoreCase(value)) {
+            return LAST_HOUR;
+        }
+        if (TODAY.name().equalsIgnoreCase(value)) {
+            return TODAY;
+        }
+        throw Exceptions.invalidBestSellerWindow();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.backend.dto;
+
+import com.example.backend.model.enums.KitchenType;
+import com.example.backend.model.enums.OrderItemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Một món trên màn hình của từng khu bếp
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KitchenTicket {
+    private Long id;
+    private Long orderId;
+    private String tableNumber;
+    private Long menuItemId;
+    private String menuItemName;
+    private KitchenType kitchenType;
+    private Boolean isSpicy;
+    private Integer quantity;
+    private String note;
+    private OrderItemStatus status;
+    private LocalDateTime orderAt;
+}
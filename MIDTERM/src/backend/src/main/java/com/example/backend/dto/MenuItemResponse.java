@@ -0,0 +1,25 @@
+package com.example.backend.dto;
+
+import com.example.backend.model.MenuItem;
+import com.example.backend.model.enums.KitchenType;
+
+import java.math.BigDecimal;
+
+// Bản sao bất biến của một món trong ảnh chụp thực đơn, cùng dạng JSON với MenuItem
+public record MenuItemResponse(Long id,
+                               String name,
+                               String description,
+                               BigDecimal price,
+                               String category,
+                               Boolean isAvailable,
+                               String imageUrl,
+                               Boolean isSpicy,
+                               Boolean isHidden,
+                               KitchenType kitchenType) {
+
+    public static MenuItemResponse from(MenuItem item) {
+        return new MenuItemResponse(item.getId(), item.getName(), item.getDescription(), item.getPrice(),
+                item.getCategory(), item.getIsAvailable(), item.getImageUrl(), item.getIsSpicy(),
+                item.getIsHidden(), item.getKitchenType());
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.backend.dto;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ảnh chụp bất biến của thực đơn tại một phiên bản.
+ * Mỗi endpoint công khai có sẵn nội dung JSON đã tuần tự hóa và ETag mạnh tính từ chính nội dung đó,
+ * nên ETag không đổi sau khi khởi động lại nếu thực đơn không đổi.
+ * Các món được chép sang MenuItemResponse để người gọi không thể sửa entity dùng chung.
+ */
+public record MenuSnapshot(long version,
+                           List<MenuItemResponse> allItems,
+                           List<MenuItemResponse> visibleItems,
+                           Set<String> categories,
+                           Representation allItemsJson,
+                           Representation visibleItemsJson,
+                           Representation categoriesJson) {
+
+    public record Representation(String etag, byte[] body) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.backend.dto;
 
+import com.example.backend.model.enums.KitchenType;
 import com.example.backend.model.enums.OrderItemStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -20,4 +21,6 @@ public class OrderItemResponse {
     private OrderItemStatus status;
     private BigDecimal price;
     private LocalDateTime orderAt;
+    private KitchenType kitchenType;
+    private Boolean isSpicy;
 } 
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// So sánh kỳ hiện tại với kỳ tham chiếu (ví dụ hôm nay với hôm qua)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportComparisonDTO {
+    private LocalDateTime currentStart;
+    private LocalDateTime currentEnd;
+    private LocalDateTime referenceStart;
+    private LocalDateTime referenceEnd;
+    private MetricComparisonDTO revenue;
+    private MetricComparisonDTO orders;
+    private MetricComparisonDTO averageOrderValue;
+    private List<MixComparisonDTO> categorySales;
+    private List<MixComparisonDTO> paymentMethods;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MetricComparisonDTO {
+        private BigDecimal current;
+        private BigDecimal reference;
+        private BigDecimal delta;
+        private BigDecimal growthPercent;   // null khi kỳ tham chiếu bằng 0
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MixComparisonDTO {
+        private String key;
+        private BigDecimal currentAmount;
+        private BigDecimal referenceAmount;
+        private BigDecimal delta;
+        private BigDecimal growthPercent;
+        private BigDecimal currentShare;    // Tỉ trọng trong tổng doanh thu kỳ hiện tại (%)
+        private BigDecimal referenceShare;
+    }
+}
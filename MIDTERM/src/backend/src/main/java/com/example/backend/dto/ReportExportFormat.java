@@ -0,0 +1,24 @@
+package com.example.backend.dto;
+
+import com.example.backend.exception.Exceptions;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum ReportExportFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String mediaType;
+    private final String fileExtension;
+
+    public static ReportExportFormat from(String value) {
+        for (ReportExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw Exceptions.invalidExportFormat();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Trạng thái của một yêu cầu tính báo cáo chạy nền
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobStatus {
+    private String jobId;
+    private State state;
+    private int progress;           // Phần trăm hoàn thành
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+    private String error;
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Một nhóm trong phép cắt dữ liệu thanh toán theo chiều tùy chọn
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportSliceDTO {
+    private String key;
+    private int paymentCount;
+    private BigDecimal amount;
+}
@@ -0,0 +1,20 @@
+package com.example.backend.dto;
+
+import com.example.backend.exception.Exceptions;
+
+public enum ReportSliceDimension {
+    DAY,
+    HOUR,
+    PAYMENT_METHOD,
+    TABLE,
+    WAITER;
+
+    public static ReportSliceDimension from(String value) {
+        for (ReportSliceDimension dimension : values()) {
+            if (dimension.name().equalsIgnoreCase(value)) {
+                return dimension;
+            }
+        }
+        throw Exceptions.invalidSliceDimension();
+    }
+}
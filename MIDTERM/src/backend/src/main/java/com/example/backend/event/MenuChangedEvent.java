@@ -0,0 +1,16 @@
+package com.example.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Phát ra khi thực đơn thay đổi (thêm, sửa, bật/tắt món hoặc ẩn/hiện món).
+ * Các listener nhận sự kiện sau khi transaction đã commit.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class MenuChangedEvent {
+    private final Long menuItemId;
+}
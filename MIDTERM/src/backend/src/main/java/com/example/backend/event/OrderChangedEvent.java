@@ -0,0 +1,24 @@
+package com.example.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Phát ra khi trạng thái của một đơn hàng hoặc các món trong đơn thay đổi.
+ * Các listener nhận sự kiện sau khi transaction đã commit.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class OrderChangedEvent {
+    private final Long orderId;
+    private final Collection<Long> changedItemIds; // Các OrderItem bị ảnh hưởng, rỗng nếu chỉ thay đổi đơn hàng
+
+    public OrderChangedEvent(Long orderId) {
+        this(orderId, List.of());
+    }
+}
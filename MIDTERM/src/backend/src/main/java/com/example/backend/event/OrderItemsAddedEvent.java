@@ -0,0 +1,20 @@
+package com.example.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Phát ra khi có món mới được gọi. Listener nhận sự kiện sau khi transaction đã commit.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class OrderItemsAddedEvent {
+    private final List<Sale> sales;
+
+    public record Sale(Long menuItemId, String menuItemName, String category, int quantity) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.backend.event;
+
+import com.example.backend.model.enums.PaymentMethod;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Phát ra khi một thanh toán được lưu. Listener nhận sự kiện sau khi transaction đã commit.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PaymentRecordedEvent {
+    private final Long paymentId;
+    private final LocalDateTime paymentTime;
+    private final BigDecimal amount;
+    private final PaymentMethod paymentMethod;
+    private final Long tableId;
+    private final Long waiterId;
+}
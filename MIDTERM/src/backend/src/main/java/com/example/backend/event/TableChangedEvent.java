@@ -0,0 +1,16 @@
+package com.example.backend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Phát ra khi thông tin một bàn thay đổi (tạo mới, đổi số bàn, đóng bàn).
+ * Các listener nhận sự kiện sau khi transaction đã commit.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TableChangedEvent {
+    private final Long tableId;
+}
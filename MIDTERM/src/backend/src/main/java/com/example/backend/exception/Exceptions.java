@@ -72,4 +72,72 @@ public class Exceptions {
     public static InvalidOperationException tableNotClosed() {
         return new InvalidOperationException("Chỉ có thể ẩn bàn khi bàn đã đóng");
     }
-} 
\ No newline at end of file
+    
+    public static InvalidOperationException wrongKitchenStation() {
+        return new InvalidOperationException("Món này không thuộc khu bếp hiện tại");
+    }
+    
+    public static InvalidOperationException invalidOrderItemStatus() {
+        return new InvalidOperationException("Trạng thái món không hợp lệ");
+    }
+
+    public static InvalidOperationException invalidOrderItemTransition() {
+        return new InvalidOperationException("Không thể chuyển món sang trạng thái này");
+    }
+    
+    public static InvalidOperationException invalidCursor() {
+        return new InvalidOperationException("Con trỏ phân trang không hợp lệ");
+    }
+    
+    public static InvalidOperationException invalidIdempotencyKey() {
+        return new InvalidOperationException("Idempotency-Key không hợp lệ");
+    }
+    
+    public static UnprocessableRequestException idempotencyKeyReused() {
+        return new UnprocessableRequestException("Idempotency-Key đã được dùng cho bàn khác");
+    }
+    
+    public static UnprocessableRequestException idempotencyKeyPayloadMismatch() {
+        return new UnprocessableRequestException("Idempotency-Key đã được dùng cho một danh sách món khác");
+    }
+
+    public static InvalidOperationException invalidExportFormat() {
+        return new InvalidOperationException("Định dạng xuất không được hỗ trợ");
+    }
+
+    public static InvalidOperationException invalidBestSellerWindow() {
+        return new InvalidOperationException("Khoảng thời gian xếp hạng không hợp lệ");
+    }
+
+    public static ResourceNotFoundException reportJobNotFound() {
+        return new ResourceNotFoundException("Không tìm thấy yêu cầu báo cáo hoặc kết quả đã hết hạn");
+    }
+
+    public static InvalidOperationException reportJobNotReady() {
+        return new InvalidOperationException("Báo cáo chưa tính xong");
+    }
+
+    public static TooManyRequestsException reportJobQueueFull() {
+        return new TooManyRequestsException("Có quá nhiều báo cáo đang chờ xử lý, vui lòng thử lại sau", 30);
+    }
+
+    public static InvalidOperationException invalidDateRange() {
+        return new InvalidOperationException("Khoảng thời gian không hợp lệ");
+    }
+
+    public static InvalidOperationException invalidSliceDimension() {
+        return new InvalidOperationException("Chiều phân tích không được hỗ trợ");
+    }
+
+    public static InvalidOperationException paymentFactsNotReady() {
+        return new InvalidOperationException("Dữ liệu phân tích đang được nạp, vui lòng thử lại sau");
+    }
+
+    public static TooManyRequestsException loginQueueFull() {
+        return new TooManyRequestsException("Hệ thống đang xử lý nhiều lượt đăng nhập, vui lòng thử lại sau", 5);
+    }
+
+    public static TooManyRequestsException loginThrottled(long retryAfterSeconds) {
+        return new TooManyRequestsException("Đăng nhập quá nhiều lần, vui lòng thử lại sau", retryAfterSeconds);
+    }
+}
\ No newline at end of file
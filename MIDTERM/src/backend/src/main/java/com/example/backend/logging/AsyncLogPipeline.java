@@ -0,0 +1,192 @@
+package com.example.backend.logging;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ghi log có cấu trúc (mỗi dòng một đối tượng JSON) ở luồng nền.
+ * Luồng gọi chỉ lấy mẫu và đưa sự kiện vào bộ đệm vòng; việc định dạng và ghi ra console do một luồng riêng đảm nhận.
+ * Khi bộ đệm đầy sự kiện bị bỏ và được đếm lại, không bao giờ chờ.
+ * Tỉ lệ lấy mẫu cấu hình theo từng nhóm (category); WARN và ERROR luôn được ghi.
+ */
+@Component
+public class AsyncLogPipeline {
+
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final LogRingBuffer<LogEvent> buffer;
+    private final Map<String, Double> samplingRates;
+    private final double defaultSamplingRate;
+    private final AtomicLong dropped = new AtomicLong();
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    private long reportedDrops;
+
+    public AsyncLogPipeline(MeterRegistry meterRegistry,
+                            @Value("${logs.async.buffer-size:8192}") int bufferSize,
+                            @Value("#{${logs.async.sampling:{:}}}") Map<String, Double> samplingRates,
+                            @Value("${logs.async.default-sampling:1.0}") double defaultSamplingRate) {
+        this.buffer = new LogRingBuffer<>(bufferSize);
+        this.samplingRates = Map.copyOf(samplingRates);
+        this.defaultSamplingRate = defaultSamplingRate;
+
+        FunctionCounter.builder("logs.async.dropped", dropped, AtomicLong::get)
+                .description("Số sự kiện log bị bỏ do bộ đệm đầy")
+                .register(meterRegistry);
+
+        this.writerThread = Thread.ofPlatform().name("async-log-writer").daemon().start(this::drain);
+    }
+
+    public void debug(String category, String message, Object... fields) {
+        log(Level.DEBUG, category, message, null, fields);
+    }
+
+    public void info(String category, String message, Object... fields) {
+        log(Level.INFO, category, message, null, fields);
+    }
+
+    public void warn(String category, String message, Object... fields) {
+        log(Level.WARN, category, message, null, fields);
+    }
+
+    public void error(String category, String message, Throwable error, Object... fields) {
+        log(Level.ERROR, category, message, error, fields);
+    }
+
+    /**
+     * @param fields Các cặp khóa/giá trị xen kẽ; chỉ được chuyển thành chuỗi ở luồng ghi
+     */
+    public void log(Level level, String category, String message, Throwable error, Object... fields) {
+        if (level.compareTo(Level.WARN) < 0) {
+            double rate = samplingRates.getOrDefault(category, defaultSamplingRate);
+            if (rate <= 0 || (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate)) {
+                return;
+            }
+        }
+        LogEvent event = new LogEvent(System.currentTimeMillis(), level, category, Thread.currentThread().getName(),
+                message, error, fields);
+        if (!buffer.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void drain() {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024);
+        while (true) {
+            boolean wrote = false;
+            LogEvent event;
+            while ((event = buffer.poll()) != null) {
+                write(out, event);
+                wrote = true;
+            }
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                write(out, new LogEvent(System.currentTimeMillis(), Level.WARN, "logging", "async-log-writer",
+                        "Log events dropped because the buffer was full", null,
+                        new Object[]{"dropped", drops - reportedDrops, "capacity", buffer.capacity()}));
+                reportedDrops = drops;
+                wrote = true;
+            }
+            if (wrote) {
+                flush(out);
+            } else if (!running) {
+                flush(out);
+                return;
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void write(Writer out, LogEvent event) {
+        try {
+            JsonGenerator json = jsonFactory.createGenerator(out);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeStringField("ts", Instant.ofEpochMilli(event.timestamp()).toString());
+            json.writeStringField("level", event.level().name());
+            json.writeStringField("category", event.category());
+            json.writeStringField("thread", event.thread());
+            json.writeStringField("msg", event.message());
+            Object[] fields = event.fields();
+            if (fields != null) {
+                for (int i = 0; i + 1 < fields.length; i += 2) {
+                    json.writeFieldName(String.valueOf(fields[i]));
+                    writeValue(json, fields[i + 1]);
+                }
+            }
+            if (event.error() != null) {
+                json.writeStringField("error", event.error().toString());
+                // Toàn bộ stack trace kèm các nguyên nhân (Caused by) và ngoại lệ bị nén,
+                // được dựng trên luồng ghi nên không làm chậm luồng gọi
+                StringWriter stack = new StringWriter();
+                event.error().printStackTrace(new PrintWriter(stack));
+                json.writeStringField("stack", stack.toString());
+            }
+            json.writeEndObject();
+            json.close();
+            out.write('\n');
+        } catch (IOException e) {
+            // Không thể ghi ra console thì cũng không còn nơi nào khác để báo
+        }
+    }
+
+    private void writeValue(JsonGenerator json, Object value) throws IOException {
+        if (value == null) {
+            json.writeNull();
+        } else if (value instanceof Number number) {
+            json.writeNumber(number.toString());
+        } else if (value instanceof Boolean bool) {
+            json.writeBoolean(bool);
+        } else {
+            json.writeString(value.toString());
+        }
+    }
+
+    private void flush(Writer out) {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            // Bỏ qua, lần ghi sau sẽ thử lại
+        }
+    }
+
+    private record LogEvent(long timestamp, Level level, String category, String thread,
+                            String message, Throwable error, Object[] fields) {
+    }
+}
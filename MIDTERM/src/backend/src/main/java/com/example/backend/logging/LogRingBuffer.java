@@ -0,0 +1,56 @@
+package com.example.backend.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bộ đệm vòng không khóa, nhiều luồng ghi - một luồng đọc.
+ * Luồng ghi giành chỗ bằng CAS trên tail rồi đặt phần tử vào ô; khi đầy thì offer trả về false ngay
+ * thay vì chờ, nên luồng xử lý request không bao giờ bị chặn.
+ */
+class LogRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Chỉ luồng đọc ghi vào head
+    private volatile long head;
+
+    LogRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    boolean offer(E element) {
+        while (true) {
+            long claimed = tail.get();
+            if (claimed - head >= slots.length()) {
+                return false;
+            }
+            if (tail.compareAndSet(claimed, claimed + 1)) {
+                slots.set((int) (claimed & mask), element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return Phần tử kế tiếp, hoặc null nếu rỗng hoặc luồng ghi chưa đặt xong phần tử vào ô
+     */
+    E poll() {
+        long current = head;
+        int index = (int) (current & mask);
+        E element = slots.get(index);
+        if (element == null) {
+            return null;
+        }
+        slots.set(index, null);
+        head = current + 1;
+        return element;
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Số lượng và doanh số của từng món theo ngày thanh toán.
+ * Tên món và danh mục được lưu lại tại thời điểm bán; doanh số theo danh mục được cộng từ bảng này.
+ */
+@Entity
+@jakarta.persistence.Table(name = "item_sales_rollups", uniqueConstraints = @UniqueConstraint(
+        name = "uk_item_sales_rollups_bucket", columnNames = {"sales_date", "menu_item_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemSalesRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "menu_item_id", nullable = false)
+    private Long menuItemId;
+
+    @Column(name = "menu_item_name")
+    private String menuItemName;
+
+    private String category;
+
+    @Column(nullable = false)
+    private Long quantity;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+}
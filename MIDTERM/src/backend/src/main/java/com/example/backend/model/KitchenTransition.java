@@ -0,0 +1,30 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một lượt chuyển trạng thái bếp đang chờ đến hạn (PENDING -> COOKING/SERVING).
+ * Được lưu lại để có thể khôi phục bộ hẹn giờ sau khi khởi động lại.
+ */
+@Entity
+@jakarta.persistence.Table(name = "kitchen_transitions",
+        indexes = @Index(name = "idx_kitchen_transitions_due_at", columnList = "due_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KitchenTransition {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+    
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+}
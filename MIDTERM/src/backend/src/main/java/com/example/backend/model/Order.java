@@ -13,7 +13,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 @Entity
-@jakarta.persistence.Table(name = "orders")
+@jakarta.persistence.Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_order_time_id", columnList = "order_time, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,13 +34,18 @@ public class Order {
     @Column(name = "waiter_id")
     private Long waiterId;
     
+    @Column(name = "order_time")
     private LocalDateTime orderTime;
     
     @Enumerated(EnumType.STRING)
     private OrderStatus status = OrderStatus.PENDING; // Mặc định là PENDING khi tạo mới
     
     private Boolean isPaid;
-    private BigDecimal totalAmount;
+    private BigDecimal totalAmount; // Cập nhật theo delta khi thêm/xóa món, được bảo vệ bởi version
+    
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
     
     private Boolean needAssistance = false; // Trường mới để theo dõi yêu cầu hỗ trợ
     
@@ -0,0 +1,42 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lượt gửi đơn của khách theo Idempotency-Key.
+ * Ràng buộc unique trên idempotency_key đảm bảo mỗi key chỉ tạo đơn một lần, kể cả giữa nhiều instance.
+ */
+@Entity
+@jakarta.persistence.Table(name = "order_submissions",
+        uniqueConstraints = @UniqueConstraint(name = "uk_order_submissions_key", columnNames = "idempotency_key"),
+        indexes = @Index(name = "idx_order_submissions_created_at", columnList = "created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSubmission {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    private String tableNumber;
+
+    @Column(name = "request_hash", length = 64)
+    private String requestHash; // SHA-256 của danh sách món đã chuẩn hóa
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(columnDefinition = "TEXT")
+    private String responseJson; // OrderResponse đã trả về lần đầu
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
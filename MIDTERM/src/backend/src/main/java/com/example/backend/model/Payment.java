@@ -9,6 +9,9 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@jakarta.persistence.Table(indexes = {
+    @Index(name = "idx_payment_payment_time_id", columnList = "payment_time, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,6 +25,7 @@ public class Payment {
     private Order order;
     
     private BigDecimal amount;
+    @Column(name = "payment_time")
     private LocalDateTime paymentTime = LocalDateTime.now();
     
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,41 @@
+package com.example.backend.model;
+
+import com.example.backend.model.enums.PaymentMethod;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Doanh thu cộng dồn theo (ngày, giờ, phương thức thanh toán), tính theo thời điểm thanh toán
+ */
+@Entity
+@jakarta.persistence.Table(name = "revenue_rollups", uniqueConstraints = @UniqueConstraint(
+        name = "uk_revenue_rollups_bucket", columnNames = {"sales_date", "sales_hour", "payment_method"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Column(name = "sales_hour", nullable = false)
+    private Integer salesHour;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", nullable = false)
+    private PaymentMethod paymentMethod;
+
+    @Column(name = "payment_count", nullable = false)
+    private Long paymentCount;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+}
@@ -0,0 +1,35 @@
+package com.example.backend.model;
+
+import com.example.backend.model.enums.RevocationType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Nhật ký thu hồi token. Với loại TOKEN, subject là jti của token;
+ * với loại USER, subject là email và mọi token cấp trước revokedAt đều bị từ chối.
+ */
+@Entity
+@jakarta.persistence.Table(name = "token_revocations",
+        indexes = @Index(name = "idx_token_revocations_subject", columnList = "type, subject"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RevocationType type;
+    
+    @Column(nullable = false)
+    private String subject;
+    
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+}
@@ -1,5 +1,6 @@
 package com.example.backend.model.enums;
 
+import com.example.backend.exception.Exceptions;
 import lombok.Getter;
 
 @Getter
@@ -8,5 +9,29 @@ public enum OrderItemStatus {
     COOKING,        // Đang nấu/chế biến
     READY,          // Đã sẵn sàng để phục vụ
     SERVED,         // Đã phục vụ
-    CANCELLED,      // Đã hủy
+    CANCELLED;      // Đã hủy
+
+    /**
+     * Đọc trạng thái từ request, ném lỗi 400 nếu giá trị thiếu hoặc không tồn tại
+     */
+    public static OrderItemStatus from(String value) {
+        for (OrderItemStatus status : values()) {
+            if (status.name().equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        throw Exceptions.invalidOrderItemStatus();
+    }
+
+    /**
+     * Kiểm tra một món có được phép chuyển sang trạng thái mới hay không
+     */
+    public boolean canTransitionTo(OrderItemStatus target) {
+        return switch (this) {
+            case PENDING -> target == COOKING || target == READY || target == CANCELLED;
+            case COOKING -> target == READY || target == CANCELLED;
+            case READY -> target == SERVED;
+            case SERVED, CANCELLED -> false;
+        };
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.example.backend.model.enums;
+
+public enum RevocationType {
+    TOKEN, // Thu hồi một token theo jti
+    USER   // Thu hồi mọi token của người dùng được cấp trước thời điểm thu hồi
+}
@@ -0,0 +1,50 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.ItemSalesRollup;
+import com.example.backend.repository.projection.ItemSalesView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ItemSalesRollupRepository extends JpaRepository<ItemSalesRollup, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO item_sales_rollups (sales_date, menu_item_id, menu_item_name, category, quantity, amount) " +
+                   "VALUES (:salesDate, :menuItemId, :menuItemName, :category, :quantity, :amount) " +
+                   "ON DUPLICATE KEY UPDATE quantity = quantity + :quantity, amount = amount + :amount",
+           nativeQuery = true)
+    int addSales(@Param("salesDate") LocalDate salesDate,
+                 @Param("menuItemId") Long menuItemId,
+                 @Param("menuItemName") String menuItemName,
+                 @Param("category") String category,
+                 @Param("quantity") long quantity,
+                 @Param("amount") BigDecimal amount);
+
+    // Dựng lại từ các món của những đơn đã thanh toán trong khoảng ngày (dùng khi backfill).
+    // Doanh số món chỉ tính một lần cho mỗi đơn, theo thanh toán đầu tiên của đơn như recordPayment.
+    @Modifying
+    @Query(value = "INSERT INTO item_sales_rollups (sales_date, menu_item_id, menu_item_name, category, quantity, amount) " +
+                   "SELECT DATE(p.payment_time), m.id, MAX(m.name), MAX(m.category), SUM(oi.quantity), SUM(oi.price * oi.quantity) " +
+                   "FROM payment p JOIN order_item oi ON oi.order_id = p.order_id JOIN menu_item m ON m.id = oi.menu_item_id " +
+                   "WHERE p.payment_time >= :start AND p.payment_time < :end " +
+                   "AND p.id = (SELECT MIN(p2.id) FROM payment p2 WHERE p2.order_id = p.order_id) " +
+                   "AND (oi.status IS NULL OR oi.status <> 'CANCELLED') " +
+                   "GROUP BY DATE(p.payment_time), m.id",
+           nativeQuery = true)
+    int rebuildFromPayments(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Modifying
+    @Query("DELETE FROM ItemSalesRollup i WHERE i.salesDate BETWEEN :from AND :to")
+    int deleteBySalesDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT i.menuItemId AS menuItemId, MAX(i.menuItemName) AS menuItemName, MAX(i.category) AS category, " +
+           "SUM(i.quantity) AS quantity, SUM(i.amount) AS amount " +
+           "FROM ItemSalesRollup i WHERE i.salesDate BETWEEN :from AND :to GROUP BY i.menuItemId")
+    List<ItemSalesView> sumByMenuItem(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,7 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.KitchenTransition;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface KitchenTransitionRepository extends JpaRepository<KitchenTransition, Long> {
+}
@@ -2,12 +2,95 @@ package com.example.backend.repository;
 
 import com.example.backend.model.Order;
 import com.example.backend.model.OrderItem;
+import com.example.backend.model.enums.KitchenType;
 import com.example.backend.model.enums.OrderItemStatus;
+import com.example.backend.model.enums.OrderStatus;
+import com.example.backend.repository.projection.CategorySalesView;
+import com.example.backend.repository.projection.DueItemView;
+import com.example.backend.repository.projection.MenuItemSalesView;
+import com.example.backend.repository.projection.OrderItemView;
+import com.example.backend.repository.projection.OrderTotalView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrder(Order order);
     List<OrderItem> findByOrderAndStatus(Order order, OrderItemStatus status);
-}
\ No newline at end of file
+    
+    // Tổng tiền thực tế của một đơn hàng, dùng để đối soát Order.totalAmount
+    @Query("SELECT COALESCE(SUM(oi.price * oi.quantity), 0) FROM OrderItem oi WHERE oi.order.id = :orderId")
+    BigDecimal sumLineTotalsByOrderId(@Param("orderId") Long orderId);
+    
+    // LEFT JOIN từ Order để đơn chưa có món nào vẫn được đối soát với tổng bằng 0
+    @Query("SELECT o.id AS orderId, COALESCE(SUM(oi.price * oi.quantity), 0) AS lineTotal " +
+           "FROM Order o LEFT JOIN OrderItem oi ON oi.order = o WHERE o.status IN :statuses GROUP BY o.id")
+    List<OrderTotalView> sumLineTotalsByOrderStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
+    
+    // Đơn có thanh toán đầu tiên nằm trong khoảng; dùng EXISTS để đơn trả bằng nhiều thanh toán chỉ được tính một lần
+    String FIRST_PAYMENT_IN_RANGE = "SELECT 1 FROM Payment p WHERE p.order = oi.order " +
+            "AND p.paymentTime BETWEEN :start AND :end " +
+            "AND p.id = (SELECT MIN(p2.id) FROM Payment p2 WHERE p2.order = p.order)";
+    
+    // Doanh số theo danh mục của các đơn được thanh toán trong khoảng thời gian, bỏ qua món đã hủy
+    // (cùng định nghĩa với item_sales_rollups)
+    @Query("SELECT m.category AS category, SUM(oi.quantity) AS quantity, SUM(oi.price * oi.quantity) AS amount " +
+           "FROM OrderItem oi JOIN oi.menuItem m WHERE EXISTS (" + FIRST_PAYMENT_IN_RANGE + ") " +
+           "AND (oi.status IS NULL OR oi.status <> :excluded) GROUP BY m.category")
+    List<CategorySalesView> sumSalesByCategory(@Param("start") LocalDateTime start,
+                                               @Param("end") LocalDateTime end,
+                                               @Param("excluded") OrderItemStatus excluded);
+    
+    @Query("SELECT m.id AS menuItemId, m.name AS menuItemName, m.category AS category, m.price AS price, " +
+           "SUM(oi.quantity) AS quantity, SUM(oi.price * oi.quantity) AS amount " +
+           "FROM OrderItem oi JOIN oi.menuItem m WHERE EXISTS (" + FIRST_PAYMENT_IN_RANGE + ") " +
+           "AND (oi.status IS NULL OR oi.status <> :excluded) " +
+           "GROUP BY m.id, m.name, m.category, m.price")
+    List<MenuItemSalesView> sumSalesByMenuItem(@Param("start") LocalDateTime start,
+                                               @Param("end") LocalDateTime end,
+                                               @Param("excluded") OrderItemStatus excluded);
+    
+    // Các món đã chờ đủ thời gian trong bộ hẹn giờ bếp
+    @Query("SELECT oi.id AS id, oi.order.id AS orderId FROM OrderItem oi " +
+           "WHERE oi.status = :from AND oi.order.id IN :orderIds AND oi.orderAt <= :cutoff")
+    List<DueItemView> findDueItems(@Param("orderIds") Collection<Long> orderIds,
+                                   @Param("cutoff") LocalDateTime cutoff,
+                                   @Param("from") OrderItemStatus from);
+    
+    // Chuyển trạng thái hàng loạt, chỉ áp dụng cho các món vẫn còn ở trạng thái cũ
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OrderItem oi SET oi.status = :to WHERE oi.id IN :ids AND oi.status = :from")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids,
+                          @Param("from") OrderItemStatus from,
+                          @Param("to") OrderItemStatus to);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OrderItem oi SET oi.status = :to WHERE oi.order.id = :orderId")
+    int updateStatusByOrderId(@Param("orderId") Long orderId, @Param("to") OrderItemStatus to);
+    
+    // Snapshot màn hình bếp: chỉ các món của một khu bếp ở các trạng thái cần xử lý
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.order o LEFT JOIN FETCH o.table JOIN FETCH oi.menuItem m " +
+           "WHERE m.kitchenType = :kitchenType AND oi.status IN :statuses ORDER BY oi.orderAt, oi.id")
+    List<OrderItem> findKitchenTickets(@Param("kitchenType") KitchenType kitchenType,
+                                       @Param("statuses") Collection<OrderItemStatus> statuses);
+    
+    // Các món của nhiều đơn dạng phẳng, dùng chung với OrderRepository.findSummaries*
+    @Query("SELECT oi.order.id AS orderId, oi.id AS id, m.id AS menuItemId, m.name AS menuItemName, " +
+           "m.kitchenType AS kitchenType, m.isSpicy AS isSpicy, oi.quantity AS quantity, oi.note AS note, " +
+           "oi.status AS status, oi.price AS price, oi.orderAt AS orderAt " +
+           "FROM OrderItem oi JOIN oi.menuItem m WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItemView> findViewsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+    
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.menuItem WHERE oi.order.id IN :orderIds ORDER BY oi.id")
+    List<OrderItem> findByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+    
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.order o LEFT JOIN FETCH o.table JOIN FETCH oi.menuItem " +
+           "WHERE oi.id IN :ids")
+    List<OrderItem> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -3,17 +3,60 @@ package com.example.backend.repository;
 import com.example.backend.model.Order;
 import com.example.backend.model.enums.OrderStatus;
 import com.example.backend.model.Table;
+import com.example.backend.repository.projection.OrderSummaryView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Collection;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    String SUMMARY_SELECT = "SELECT o.id AS id, t.tableNumber AS tableNumber, o.orderTime AS orderTime, o.status AS status, " +
+           "o.totalAmount AS totalAmount, o.isPaid AS isPaid, o.waiterId AS waiterId, u.name AS waiterName, " +
+           "o.needAssistance AS needAssistance " +
+           "FROM Order o LEFT JOIN o.table t LEFT JOIN User u ON u.id = o.waiterId ";
+    
     List<Order> findByStatus(OrderStatus status);
     List<Order> findByStatusIn(Collection<OrderStatus> statuses);
     Order findByTableAndStatus(Table table, OrderStatus status);
     List<Order> findByOrderTimeBetween(LocalDateTime start, LocalDateTime end);
     List<Order> findByTableId(Long tableId);
     Order findByTableAndStatusIn(Table table, List<OrderStatus> of);
+    
+    // Chỉ lấy số bàn của đơn, dùng để định tuyến sự kiện mà không nạp cả entity
+    @Query("SELECT t.tableNumber FROM Order o JOIN o.table t WHERE o.id = :orderId")
+    Optional<String> findTableNumberById(@Param("orderId") Long orderId);
+    
+    // Danh sách đơn dạng phẳng cho API đọc, không nạp entity
+    @Query(SUMMARY_SELECT + "ORDER BY o.orderTime, o.id")
+    List<OrderSummaryView> findAllSummaries();
+    
+    @Query(SUMMARY_SELECT + "WHERE o.status IN :statuses ORDER BY o.orderTime, o.id")
+    List<OrderSummaryView> findSummariesByStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
+    
+    // Phân trang theo (orderTime, id) giảm dần; before* là vị trí cuối của trang trước (null ở trang đầu)
+    @Query(SUMMARY_SELECT +
+           "WHERE (:status IS NULL OR o.status = :status) " +
+           "AND (:tableNumber IS NULL OR t.tableNumber = :tableNumber) " +
+           "AND (:beforeTime IS NULL OR o.orderTime < :beforeTime OR (o.orderTime = :beforeTime AND o.id < :beforeId)) " +
+           "ORDER BY o.orderTime DESC, o.id DESC")
+    List<OrderSummaryView> findSummaryPage(@Param("status") OrderStatus status,
+                                           @Param("tableNumber") String tableNumber,
+                                           @Param("beforeTime") LocalDateTime beforeTime,
+                                           @Param("beforeId") Long beforeId,
+                                           Pageable pageable);
+    
+    // Chuyển trạng thái hàng loạt cho các đơn đã đến hạn trong bộ hẹn giờ bếp
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :to, o.version = o.version + 1 " +
+           "WHERE o.status = :from AND o.id IN :orderIds AND o.orderTime <= :cutoff")
+    int updateDueOrderStatus(@Param("orderIds") Collection<Long> orderIds,
+                             @Param("cutoff") LocalDateTime cutoff,
+                             @Param("from") OrderStatus from,
+                             @Param("to") OrderStatus to);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.OrderSubmission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface OrderSubmissionRepository extends JpaRepository<OrderSubmission, Long> {
+    Optional<OrderSubmission> findByIdempotencyKey(String idempotencyKey);
+
+    @Modifying
+    @Query("DELETE FROM OrderSubmission s WHERE s.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
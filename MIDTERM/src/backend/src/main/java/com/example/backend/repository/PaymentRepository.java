@@ -1,11 +1,89 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.PaymentResponse;
+import com.example.backend.model.Order;
 import com.example.backend.model.Payment;
+import com.example.backend.model.enums.PaymentMethod;
+import com.example.backend.repository.projection.PaymentFactView;
+import com.example.backend.repository.projection.PaymentSummaryView;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByPaymentTimeBetween(LocalDateTime start, LocalDateTime end);
+    
+    // Danh sách thanh toán kèm thông tin đơn dạng phẳng cho báo cáo
+    @Query("SELECT o.id AS orderId, t.tableNumber AS tableNumber, o.orderTime AS orderTime, o.status AS orderStatus, " +
+           "p.amount AS amount, p.paymentMethod AS paymentMethod, p.paymentTime AS paymentTime " +
+           "FROM Payment p JOIN p.order o LEFT JOIN o.table t " +
+           "WHERE p.paymentTime BETWEEN :start AND :end ORDER BY p.paymentTime, p.id")
+    List<PaymentSummaryView> findSummariesByPaymentTimeBetween(@Param("start") LocalDateTime start,
+                                                               @Param("end") LocalDateTime end);
+    
+    // Các thanh toán mới nhất trong khoảng, dùng cho danh sách đơn có giới hạn trong báo cáo
+    @Query("SELECT o.id AS orderId, t.tableNumber AS tableNumber, o.orderTime AS orderTime, o.status AS orderStatus, " +
+           "p.amount AS amount, p.paymentMethod AS paymentMethod, p.paymentTime AS paymentTime " +
+           "FROM Payment p JOIN p.order o LEFT JOIN o.table t " +
+           "WHERE p.paymentTime BETWEEN :start AND :end ORDER BY p.paymentTime DESC, p.id DESC")
+    List<PaymentSummaryView> findLatestSummariesByPaymentTimeBetween(@Param("start") LocalDateTime start,
+                                                                     @Param("end") LocalDateTime end,
+                                                                     Pageable pageable);
+    
+    // Thanh toán đầu tiên của đơn; khóa đọc để các thanh toán đồng thời của cùng đơn thấy nhau
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Payment> findFirstByOrderOrderByIdAsc(Order order);
+    
+    // Cùng truy vấn nhưng đọc từng dòng từ con trỏ của driver, dùng cho xuất dữ liệu lớn
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o.id AS orderId, t.tableNumber AS tableNumber, o.orderTime AS orderTime, o.status AS orderStatus, " +
+           "p.amount AS amount, p.paymentMethod AS paymentMethod, p.paymentTime AS paymentTime " +
+           "FROM Payment p JOIN p.order o LEFT JOIN o.table t " +
+           "WHERE p.paymentTime BETWEEN :start AND :end ORDER BY p.paymentTime, p.id")
+    Stream<PaymentSummaryView> streamSummariesByPaymentTimeBetween(@Param("start") LocalDateTime start,
+                                                                   @Param("end") LocalDateTime end);
+    
+    // Dữ kiện thanh toán cho kho dạng cột: các thanh toán có id lớn hơn snapshot, cộng thêm một khoảng
+    // chồng lấn theo thời gian cho các thanh toán có id nhỏ hơn nhưng commit sau khi snapshot được ghi
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.paymentTime AS paymentTime, p.amount AS amount, p.paymentMethod AS paymentMethod, " +
+           "t.id AS tableId, o.waiterId AS waiterId " +
+           "FROM Payment p JOIN p.order o LEFT JOIN o.table t " +
+           "WHERE p.id > :afterId OR p.paymentTime >= :since ORDER BY p.paymentTime, p.id")
+    Stream<PaymentFactView> streamFactsForCatchUp(@Param("afterId") Long afterId,
+                                                  @Param("since") LocalDateTime since);
+    
+    @Query("SELECT MIN(p.paymentTime) FROM Payment p")
+    LocalDateTime findEarliestPaymentTime();
+    
+    // Phân trang theo (paymentTime, id) giảm dần; before* là vị trí cuối của trang trước (null ở trang đầu)
+    @Query("SELECT new com.example.backend.dto.PaymentResponse(p.id, o.id, t.tableNumber, p.amount, " +
+           "p.paymentTime, p.paymentMethod, p.receiptNumber) " +
+           "FROM Payment p JOIN p.order o LEFT JOIN o.table t " +
+           "WHERE (:method IS NULL OR p.paymentMethod = :method) " +
+           "AND (:tableNumber IS NULL OR t.tableNumber = :tableNumber) " +
+           "AND (:beforeTime IS NULL OR p.paymentTime < :beforeTime OR (p.paymentTime = :beforeTime AND p.id < :beforeId)) " +
+           "ORDER BY p.paymentTime DESC, p.id DESC")
+    List<PaymentResponse> findResponsePage(@Param("method") PaymentMethod method,
+                                           @Param("tableNumber") String tableNumber,
+                                           @Param("beforeTime") LocalDateTime beforeTime,
+                                           @Param("beforeId") Long beforeId,
+                                           Pageable pageable);
 }
\ No newline at end of file
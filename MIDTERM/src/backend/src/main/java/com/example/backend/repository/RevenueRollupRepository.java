@@ -0,0 +1,54 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.RevenueRollup;
+import com.example.backend.repository.projection.DailyRevenueView;
+import com.example.backend.repository.projection.HourlyRevenueView;
+import com.example.backend.repository.projection.MethodRevenueView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevenueRollupRepository extends JpaRepository<RevenueRollup, Long> {
+
+    // Cộng một thanh toán vào ô (ngày, giờ, phương thức); an toàn khi nhiều thanh toán commit đồng thời
+    @Modifying
+    @Query(value = "INSERT INTO revenue_rollups (sales_date, sales_hour, payment_method, payment_count, amount) " +
+                   "VALUES (:salesDate, :salesHour, :paymentMethod, 1, :amount) " +
+                   "ON DUPLICATE KEY UPDATE payment_count = payment_count + 1, amount = amount + :amount",
+           nativeQuery = true)
+    int addPayment(@Param("salesDate") LocalDate salesDate,
+                   @Param("salesHour") int salesHour,
+                   @Param("paymentMethod") String paymentMethod,
+                   @Param("amount") BigDecimal amount);
+
+    // Dựng lại từ bảng payment cho một khoảng ngày (dùng khi backfill)
+    @Modifying
+    @Query(value = "INSERT INTO revenue_rollups (sales_date, sales_hour, payment_method, payment_count, amount) " +
+                   "SELECT DATE(p.payment_time), HOUR(p.payment_time), p.payment_method, COUNT(*), SUM(p.amount) " +
+                   "FROM payment p WHERE p.payment_time >= :start AND p.payment_time < :end " +
+                   "GROUP BY DATE(p.payment_time), HOUR(p.payment_time), p.payment_method",
+           nativeQuery = true)
+    int rebuildFromPayments(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Modifying
+    @Query("DELETE FROM RevenueRollup r WHERE r.salesDate BETWEEN :from AND :to")
+    int deleteBySalesDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r.salesDate AS salesDate, SUM(r.paymentCount) AS paymentCount, SUM(r.amount) AS amount " +
+           "FROM RevenueRollup r WHERE r.salesDate BETWEEN :from AND :to GROUP BY r.salesDate")
+    List<DailyRevenueView> sumByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r.salesHour AS salesHour, SUM(r.paymentCount) AS paymentCount, SUM(r.amount) AS amount " +
+           "FROM RevenueRollup r WHERE r.salesDate BETWEEN :from AND :to GROUP BY r.salesHour")
+    List<HourlyRevenueView> sumByHour(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r.paymentMethod AS paymentMethod, SUM(r.paymentCount) AS paymentCount, SUM(r.amount) AS amount " +
+           "FROM RevenueRollup r WHERE r.salesDate BETWEEN :from AND :to GROUP BY r.paymentMethod")
+    List<MethodRevenueView> sumByMethod(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,11 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    List<TokenRevocation> findByRevokedAtGreaterThanEqual(Instant revokedAt);
+}
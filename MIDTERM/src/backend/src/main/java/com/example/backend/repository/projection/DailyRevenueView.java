@@ -0,0 +1,10 @@
+package com.example.backend.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface DailyRevenueView {
+    LocalDate getSalesDate();
+    Long getPaymentCount();
+    BigDecimal getAmount();
+}
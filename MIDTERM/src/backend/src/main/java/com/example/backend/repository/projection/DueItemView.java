@@ -0,0 +1,6 @@
+package com.example.backend.repository.projection;
+
+public interface DueItemView {
+    Long getId();
+    Long getOrderId();
+}
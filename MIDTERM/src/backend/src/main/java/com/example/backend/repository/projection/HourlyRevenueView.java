@@ -0,0 +1,9 @@
+package com.example.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface HourlyRevenueView {
+    Integer getSalesHour();
+    Long getPaymentCount();
+    BigDecimal getAmount();
+}
@@ -0,0 +1,11 @@
+package com.example.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface ItemSalesView {
+    Long getMenuItemId();
+    String getMenuItemName();
+    String getCategory();
+    Long getQuantity();
+    BigDecimal getAmount();
+}
@@ -0,0 +1,8 @@
+package com.example.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface MenuItemSalesView extends ItemSalesView {
+    // Giá hiện tại trên thực đơn
+    BigDecimal getPrice();
+}
@@ -0,0 +1,11 @@
+package com.example.backend.repository.projection;
+
+import com.example.backend.model.enums.PaymentMethod;
+
+import java.math.BigDecimal;
+
+public interface MethodRevenueView {
+    PaymentMethod getPaymentMethod();
+    Long getPaymentCount();
+    BigDecimal getAmount();
+}
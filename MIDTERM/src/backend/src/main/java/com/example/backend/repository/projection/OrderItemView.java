@@ -0,0 +1,21 @@
+package com.example.backend.repository.projection;
+
+import com.example.backend.model.enums.KitchenType;
+import com.example.backend.model.enums.OrderItemStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface OrderItemView {
+    Long getOrderId();
+    Long getId();
+    Long getMenuItemId();
+    String getMenuItemName();
+    KitchenType getKitchenType();
+    Boolean getIsSpicy();
+    Integer getQuantity();
+    String getNote();
+    OrderItemStatus getStatus();
+    BigDecimal getPrice();
+    LocalDateTime getOrderAt();
+}
@@ -0,0 +1,18 @@
+package com.example.backend.repository.projection;
+
+import com.example.backend.model.enums.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface OrderSummaryView {
+    Long getId();
+    String getTableNumber();
+    LocalDateTime getOrderTime();
+    OrderStatus getStatus();
+    BigDecimal getTotalAmount();
+    Boolean getIsPaid();
+    Long getWaiterId();
+    String getWaiterName();
+    Boolean getNeedAssistance();
+}
@@ -0,0 +1,11 @@
+package com.example.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Tổng tiền các món của một đơn hàng, tính trực tiếp từ bảng order_item
+ */
+public interface OrderTotalView {
+    Long getOrderId();
+    BigDecimal getLineTotal();
+}
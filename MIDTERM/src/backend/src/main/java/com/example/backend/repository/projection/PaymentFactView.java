@@ -0,0 +1,15 @@
+package com.example.backend.repository.projection;
+
+import com.example.backend.model.enums.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface PaymentFactView {
+    Long getId();
+    LocalDateTime getPaymentTime();
+    BigDecimal getAmount();
+    PaymentMethod getPaymentMethod();
+    Long getTableId();
+    Long getWaiterId();
+}
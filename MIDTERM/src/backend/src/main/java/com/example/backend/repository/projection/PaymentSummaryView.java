@@ -0,0 +1,17 @@
+package com.example.backend.repository.projection;
+
+import com.example.backend.model.enums.OrderStatus;
+import com.example.backend.model.enums.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface PaymentSummaryView {
+    Long getOrderId();
+    String getTableNumber();
+    LocalDateTime getOrderTime();
+    OrderStatus getOrderStatus();
+    BigDecimal getAmount();
+    PaymentMethod getPaymentMethod();
+    LocalDateTime getPaymentTime();
+}
@@ -1,5 +1,8 @@
 package com.example.backend.security;
 
+import io.jsonwebtoken.Claims;
+import com.example.backend.logging.AsyncLogPipeline;
+import com.example.backend.service.TokenRevocationService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,36 +16,25 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
-import java.util.logging.Level;
-import java.util.logging.Logger;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String CATEGORY = "auth";
+
     private final JwtUtil jwtUtil;
-    private static final Logger logger = Logger.getLogger(JwtAuthenticationFilter.class.getName());
+    private final TokenRevocationService tokenRevocationService;
+    private final AsyncLogPipeline logs;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
-        String requestURI = request.getRequestURI();
-        String method = request.getMethod();
-        logger.info("Processing request: " + method + " " + requestURI);
-        
         final String authHeader = request.getHeader("Authorization");
         
-        // Log khi không có Authorization header
-        if (authHeader == null) {
-            logger.info("No Authorization header for: " + requestURI);
-            filterChain.doFilter(request, response);
-            return;
-        }
-        
-        // Log khi header không đúng định dạng
-        if (!authHeader.startsWith("Bearer ")) {
-            logger.info("Invalid Authorization header format for: " + requestURI);
+        // Request không kèm token đi tiếp, Spring Security sẽ tự từ chối nếu endpoint cần xác thực
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -50,14 +42,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String jwt = authHeader.substring(7);
         
         try {
-            final String email = jwtUtil.extractEmail(jwt);
-            logger.info("Processing JWT for user: " + email + " at: " + requestURI);
+            // Xác thực token một lần rồi đọc cả email và role từ cùng một claims
+            final Claims claims = jwtUtil.extractAllClaims(jwt);
+            final String email = claims.getSubject();
             
             if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                if (!jwtUtil.isTokenExpired(jwt)) {
+                // Kiểm tra thu hồi ở mỗi request (không nằm trong cache claims) nhưng chỉ đọc dữ liệu trong bộ nhớ
+                if (tokenRevocationService.isRevoked(claims)) {
+                    logs.warn(CATEGORY, "Revoked token", "uri", request.getRequestURI(), "user", email);
+                } else if (!jwtUtil.isTokenExpired(jwt)) {
                     // Trích xuất role từ token
-                    String role = jwtUtil.extractClaim(jwt, claims -> claims.get("role", String.class));
-                    logger.info("User " + email + " has role: " + role);
+                    String role = claims.get("role", String.class);
                     
                     // Tạo authentication với role
                     UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
@@ -67,15 +62,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     );
                     
                     SecurityContextHolder.getContext().setAuthentication(auth);
-                    logger.info("Authentication successful for " + email + " with role " + role);
+                    // Một sự kiện duy nhất cho mỗi request, được lấy mẫu theo logs.async.sampling.auth
+                    logs.info(CATEGORY, "Authenticated request",
+                            "method", request.getMethod(), "uri", request.getRequestURI(), "user", email, "role", role);
                 } else {
-                    logger.warning("Token expired for user: " + email);
+                    logs.warn(CATEGORY, "Token expired", "uri", request.getRequestURI(), "user", email);
                 }
             }
         } catch (Exception e) {
-            logger.log(Level.SEVERE, "Error processing JWT: " + e.getMessage(), e);
+            logs.warn(CATEGORY, "Invalid JWT", "uri", request.getRequestURI(), "error", e.getMessage());
         }
         
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
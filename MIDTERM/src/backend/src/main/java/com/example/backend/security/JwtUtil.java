@@ -1,16 +1,25 @@
 package com.example.backend.security;
 
 import com.example.backend.model.enums.UserRole;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 import io.jsonwebtoken.Claims;
@@ -18,12 +27,36 @@ import io.jsonwebtoken.Claims;
 @Component
 public class JwtUtil {
 
+    /**
+     * Thời điểm cấp token tính bằng mili giây epoch; iat chuẩn của JWT chỉ chính xác đến giây
+     */
+    public static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+
     @Value("${jwt.secret}")
     private String secret;
 
+    @Value("${jwt.claims-cache-size:10000}")
+    private long claimsCacheSize;
+
+    private Key signingKey;
+    private JwtParser parser;
+    // Claims đã xác thực chữ ký, khóa theo SHA-256 của token để không giữ token gốc trong bộ nhớ
+    private Cache<String, Claims> verifiedClaims;
+
+    @PostConstruct
+    void init() {
+        // Khóa và parser chỉ tạo một lần; JwtParser an toàn khi dùng từ nhiều luồng
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .build();
+    }
+
     private Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     public String generateToken(String email, UserRole role) {
@@ -33,10 +66,14 @@ public class JwtUtil {
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
+        claims.put(ISSUED_AT_MILLIS_CLAIM, now);
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
+                // jti để có thể thu hồi riêng từng token
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(now))
                 // Removing the expiration time
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
@@ -57,11 +94,20 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Xác thực chữ ký và đọc claims; token đã gặp trước đó được trả về từ bộ nhớ mà không xác thực lại.
+     * Token không hợp lệ ném exception và không được lưu.
+     */
+    public Claims extractAllClaims(String token) {
+        return verifiedClaims.get(digest(token), key -> parser.parseClaimsJws(token).getBody());
+    }
+
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
\ No newline at end of file
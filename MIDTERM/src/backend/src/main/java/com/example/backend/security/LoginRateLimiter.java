@@ -0,0 +1,125 @@
+package com.example.backend.security;
+
+import com.example.backend.exception.Exceptions;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Giới hạn số lượt đăng nhập theo email và theo địa chỉ IP bằng token bucket trong bộ nhớ.
+ * Mỗi lượt đăng nhập tốn một token của IP; bucket theo email chỉ bị trừ khi sai mật khẩu,
+ * để người khác không thể khóa tài khoản bằng cách gửi nhiều yêu cầu đăng nhập với email đó.
+ * Bucket không còn được dùng sẽ tự hết hạn nên số khóa được giữ lại có giới hạn.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Cache<String, TokenBucket> emailBuckets;
+    private final Cache<String, TokenBucket> addressBuckets;
+    private final int emailCapacity;
+    private final double emailRefillPerNano;
+    private final int addressCapacity;
+    private final double addressRefillPerNano;
+
+    public LoginRateLimiter(@Value("${auth.login.email.capacity:5}") int emailCapacity,
+                            @Value("${auth.login.email.refill-per-minute:5}") double emailRefillPerMinute,
+                            @Value("${auth.login.ip.capacity:30}") int addressCapacity,
+                            @Value("${auth.login.ip.refill-per-minute:30}") double addressRefillPerMinute,
+                            @Value("${auth.login.buckets.max-size:100000}") long maxBuckets) {
+        this.emailCapacity = emailCapacity;
+        this.emailRefillPerNano = emailRefillPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.addressCapacity = addressCapacity;
+        this.addressRefillPerNano = addressRefillPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.emailBuckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Duration.ofMinutes(15))
+                .build();
+        this.addressBuckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Duration.ofMinutes(15))
+                .build();
+    }
+
+    /**
+     * Lấy một token từ bucket của IP và kiểm tra bucket của email còn token (không trừ);
+     * ném TooManyRequestsException nếu một trong hai đã hết
+     */
+    public void acquire(String email, String clientAddress) {
+        if (clientAddress != null) {
+            TokenBucket bucket = addressBuckets.get(clientAddress,
+                    key -> new TokenBucket(addressCapacity, addressRefillPerNano));
+            long waitNanos = bucket.tryConsume();
+            if (waitNanos > 0) {
+                throw Exceptions.loginThrottled(toRetryAfterSeconds(waitNanos));
+            }
+        }
+        if (email != null) {
+            TokenBucket bucket = emailBuckets.getIfPresent(normalize(email));
+            long waitNanos = bucket != null ? bucket.waitForToken() : 0;
+            if (waitNanos > 0) {
+                throw Exceptions.loginThrottled(toRetryAfterSeconds(waitNanos));
+            }
+        }
+    }
+
+    /**
+     * Trừ một token của email sau một lần xác thực thất bại
+     */
+    public void recordFailure(String email) {
+        if (email == null) {
+            return;
+        }
+        emailBuckets.get(normalize(email), key -> new TokenBucket(emailCapacity, emailRefillPerNano)).tryConsume();
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static final class TokenBucket {
+        private final int capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int capacity, double refillPerNano) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerNano;
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /**
+         * @return 0 nếu lấy được token, ngược lại là số nano giây cần chờ đến khi có token tiếp theo
+         */
+        synchronized long tryConsume() {
+            long waitNanos = waitForToken();
+            if (waitNanos == 0) {
+                tokens -= 1;
+            }
+            return waitNanos;
+        }
+
+        /**
+         * Như tryConsume nhưng không trừ token
+         */
+        synchronized long waitForToken() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                return 0;
+            }
+            return refillPerNano > 0 ? (long) Math.ceil((1 - tokens) / refillPerNano) : Long.MAX_VALUE / 2;
+        }
+    }
+}
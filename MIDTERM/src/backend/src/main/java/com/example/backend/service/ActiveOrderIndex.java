@@ -0,0 +1,30 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.OrderResponse;
+
+/**
+ * Chỉ mục trong bộ nhớ của các đơn đang hoạt động (PENDING, SERVING) theo số bàn
+ */
+public interface ActiveOrderIndex {
+
+    /**
+     * @return Thông tin bàn và đơn đang hoạt động, hoặc null nếu chỉ mục không biết bàn này
+     */
+    Entry find(String tableNumber);
+
+    /**
+     * @return true nếu chỉ mục đã được nạp đầy đủ, khi đó bàn không có trong chỉ mục là bàn không tồn tại
+     */
+    boolean isWarm();
+
+    void refreshOrder(Long orderId);
+
+    void refreshTable(Long tableId);
+
+    /**
+     * @param orderId null nếu bàn không có đơn đang hoạt động
+     * @param snapshot Đơn hàng kèm danh sách món tại thời điểm commit gần nhất
+     */
+    record Entry(Long tableId, String tableNumber, Long orderId, OrderResponse snapshot) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BestSellerItem;
+import com.example.backend.dto.BestSellerWindow;
+
+import java.util.List;
+
+public interface BestSellerService {
+    /**
+     * Lấy các món bán chạy nhất trong cửa sổ thời gian, trả lời hoàn toàn từ bộ nhớ
+     *
+     * @param window Một giờ gần nhất hoặc hôm nay
+     * @param limit Số món tối đa
+     * @return Danh sách món theo số lượng ước tính giảm dần
+     */
+    List<BestSellerItem> getTopItems(BestSellerWindow window, int limit);
+}
@@ -0,0 +1,14 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.KitchenTicket;
+import com.example.backend.model.enums.KitchenType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+public interface KitchenTicketService {
+    List<KitchenTicket> getActiveTickets(KitchenType kitchenType);
+    SseEmitter subscribe(KitchenType kitchenType, String lastEventId);
+    KitchenTicket acknowledge(KitchenType kitchenType, Long orderItemId);
+    KitchenTicket bump(KitchenType kitchenType, Long orderItemId);
+}
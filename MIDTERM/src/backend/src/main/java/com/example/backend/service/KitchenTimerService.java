@@ -0,0 +1,18 @@
+package com.example.backend.service;
+
+public interface KitchenTimerService {
+    /**
+     * Đăng ký một lượt chuyển trạng thái bếp cho đơn hàng sau khoảng thời gian chờ cấu hình sẵn.
+     * Khi đến hạn, đơn PENDING chuyển sang SERVING và các món PENDING đã đủ thời gian chuyển sang COOKING.
+     *
+     * @param orderId ID của đơn hàng vừa tạo hoặc vừa gọi thêm món
+     */
+    void schedule(Long orderId);
+    
+    /**
+     * Số lượt chuyển trạng thái đang chờ trong bộ hẹn giờ
+     *
+     * @return Độ sâu hàng đợi hiện tại
+     */
+    int getQueueDepth();
+}
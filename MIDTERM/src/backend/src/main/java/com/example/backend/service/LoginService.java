@@ -0,0 +1,19 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.LoginRequest;
+import com.example.backend.dto.LoginResponse;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface LoginService {
+    /**
+     * Kiểm tra giới hạn đăng nhập rồi xác thực trên executor riêng cho việc băm mật khẩu,
+     * để đăng nhập không chiếm luồng xử lý request và CPU của các luồng gọi món
+     *
+     * @param request Email và mật khẩu
+     * @param clientAddress Địa chỉ IP của client
+     * @return Kết quả đăng nhập, rỗng nếu sai email hoặc mật khẩu
+     */
+    CompletableFuture<Optional<LoginResponse>> login(LoginRequest request, String clientAddress);
+}
@@ -1,14 +1,22 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.MenuItemResponse;
+import com.example.backend.dto.MenuSnapshot;
 import com.example.backend.model.MenuItem;
 
 import java.util.List;
 import java.util.Set;
 
 public interface MenuService {
-    List<MenuItem> getAllMenuItems();
-    List<MenuItem> getVisibleMenuItems();
+    List<MenuItemResponse> getAllMenuItems();
+    List<MenuItemResponse> getVisibleMenuItems();
     Set<String> getAllCategories();
+    
+    /**
+     * Lấy ảnh chụp thực đơn hiện tại; chỉ được dựng lại sau khi thực đơn thay đổi
+     */
+    MenuSnapshot getSnapshot();
+    
     MenuItem addMenuItem(MenuItem menuItem);
     MenuItem updateMenuItem(Long id, MenuItem menuItem);
     MenuItem toggleAvailability(Long id);
@@ -1,20 +1,27 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.OrderItemResponse;
 import com.example.backend.dto.OrderRequest;
 import com.example.backend.dto.OrderResponse;
 import com.example.backend.model.Order;
 import com.example.backend.model.OrderItem;
 import com.example.backend.model.enums.OrderItemStatus;
 import com.example.backend.model.enums.OrderStatus;
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderService {
-    List<Order> getAllOrders();
-    List<Order> getActiveOrders();
+    List<OrderResponse> getAllOrders();
+    List<OrderResponse> getActiveOrders();
+    // Danh sách đơn phân trang theo con trỏ, mới nhất trước
+    CursorPage<OrderResponse> getOrderPage(OrderStatus status, String tableNumber, String cursor, Integer size);
     Order getOrderById(Long id);
     OrderItem addItemToOrder(Long orderId, Long menuItemId, int quantity, String note);
     void removeItemFromOrder(Long orderItemId);
     OrderItem updateOrderItemStatus(Long orderItemId, OrderItemStatus status);
+    // Chuyển nhiều món (có thể thuộc nhiều đơn) sang cùng một trạng thái trong một transaction
+    List<OrderItemResponse> updateOrderItemStatuses(Collection<Long> orderItemIds, OrderItemStatus status);
     Order updateStatus(Long orderId, OrderStatus status);
     List<Order> getOrdersByTable(Long tableId);
     OrderResponse getCurrentOrderByTableNumber(String tableNumber);
@@ -22,6 +29,9 @@ public interface OrderService {
     OrderResponse convertOrderToResponse(Order order, List<OrderItem> orderItems);
     Order cancelOrder(Long orderId);
     
+    // Tính lại tổng tiền từ các OrderItem khi phát hiện sai lệch
+    Order reconcileOrderTotal(Long orderId);
+    
     // Phương thức mới cho chức năng gọi nhân viên
     Order requestAssistance(Long orderId, Boolean needAssistance);
     Order requestAssistanceByTable(String tableNumber, Boolean needAssistance);
@@ -0,0 +1,14 @@
+package com.example.backend.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface OrderStreamService {
+    /**
+     * Mở luồng Server-Sent Events theo dõi đơn hàng hiện tại của một bàn
+     *
+     * @param tableNumber Số bàn cần theo dõi
+     * @param lastEventId ID sự kiện cuối cùng client đã nhận (header Last-Event-ID), có thể null
+     * @return SseEmitter đẩy OrderResponse mỗi khi đơn hàng hoặc món ăn thay đổi trạng thái
+     */
+    SseEmitter subscribe(String tableNumber, String lastEventId);
+}
@@ -0,0 +1,16 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.OrderRequest;
+import com.example.backend.dto.OrderResponse;
+
+public interface OrderSubmissionService {
+    /**
+     * Gửi đơn của khách; các lần gửi lại với cùng Idempotency-Key trả về kết quả của lần đầu
+     *
+     * @param tableNumber Số bàn
+     * @param request Danh sách món
+     * @param idempotencyKey Giá trị header Idempotency-Key (null thì xử lý như bình thường)
+     * @return OrderResponse của lượt gọi món
+     */
+    OrderResponse submitCustomerOrder(String tableNumber, OrderRequest request, String idempotencyKey);
+}
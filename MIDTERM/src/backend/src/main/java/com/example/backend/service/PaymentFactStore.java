@@ -0,0 +1,42 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ReportSliceDTO;
+import com.example.backend.dto.ReportSliceDimension;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Kho dữ kiện thanh toán dạng cột trong bộ nhớ, phục vụ các phép cắt báo cáo không cần truy vấn cơ sở dữ liệu.
+ * Thời gian được lưu theo phút (giờ địa phương), nên mốc thời gian của phép cắt được làm tròn xuống phút.
+ */
+public interface PaymentFactStore {
+
+    /**
+     * @return true khi dữ liệu đã được nạp xong và có thể dùng thay cho truy vấn
+     */
+    boolean isReady();
+
+    /**
+     * Duyệt các thanh toán trong khoảng thời gian theo thứ tự thời gian
+     */
+    void forEach(LocalDateTime startDate, LocalDateTime endDate, FactVisitor visitor);
+
+    /**
+     * Gom nhóm số lượng và tổng tiền thanh toán theo một chiều
+     */
+    List<ReportSliceDTO> slice(LocalDateTime startDate, LocalDateTime endDate, ReportSliceDimension dimension);
+
+    @FunctionalInterface
+    interface FactVisitor {
+        void visit(int epochMinute, long amountCents, int methodOrdinal, long tableId, long waiterId);
+    }
+
+    /**
+     * Số phút kể từ 1970-01-01T00:00 theo giờ địa phương
+     */
+    static int toEpochMinute(LocalDateTime dateTime) {
+        return (int) Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60L);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.PaymentResponse;
 import com.example.backend.model.Payment;
 import com.example.backend.model.enums.PaymentMethod;
 
@@ -42,6 +44,17 @@ public interface PaymentService {
      */
     List<Payment> getAllPayments();
     
+    /**
+     * Lấy danh sách thanh toán theo trang, mới nhất trước
+     *
+     * @param paymentMethod Lọc theo phương thức thanh toán (có thể null)
+     * @param tableNumber Lọc theo số bàn (có thể null)
+     * @param cursor Con trỏ nextCursor của trang trước, null cho trang đầu
+     * @param size Số bản ghi mỗi trang, bị giới hạn bởi pagination.max-size
+     * @return Trang kết quả và con trỏ cho trang kế tiếp
+     */
+    CursorPage<PaymentResponse> getPaymentPage(PaymentMethod paymentMethod, String tableNumber, String cursor, Integer size);
+    
     /**
      * Lấy các thanh toán trong khoảng thời gian
      *
@@ -0,0 +1,20 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ReportExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface ReportExportService {
+    /**
+     * Ghi danh sách đơn hàng đã thanh toán trong khoảng thời gian trực tiếp ra luồng đầu ra,
+     * mỗi dòng một thanh toán, không giữ toàn bộ kết quả trong bộ nhớ
+     *
+     * @param startDate Ngày bắt đầu
+     * @param endDate Ngày kết thúc
+     * @param format Định dạng CSV hoặc NDJSON
+     * @param out Luồng đầu ra của response
+     */
+    void exportOrders(LocalDateTime startDate, LocalDateTime endDate, ReportExportFormat format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,28 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ReportDTO;
+import com.example.backend.dto.ReportJobStatus;
+
+import java.time.LocalDateTime;
+
+public interface ReportJobService {
+    /**
+     * Gửi yêu cầu tính báo cáo chạy nền; yêu cầu trùng khoảng thời gian với một job
+     * đang chờ hoặc đang chạy sẽ nhận lại cùng job đó
+     *
+     * @param startDate Ngày bắt đầu
+     * @param endDate Ngày kết thúc
+     * @return Trạng thái của job
+     */
+    ReportJobStatus submit(LocalDateTime startDate, LocalDateTime endDate);
+    
+    /**
+     * Lấy trạng thái và tiến độ của job
+     */
+    ReportJobStatus getStatus(String jobId);
+    
+    /**
+     * Lấy kết quả của job đã hoàn thành
+     */
+    ReportDTO getResult(String jobId);
+}
@@ -0,0 +1,22 @@
+package com.example.backend.service;
+
+import com.example.backend.model.Payment;
+
+import java.time.LocalDate;
+
+public interface ReportRollupService {
+    /**
+     * Cộng một thanh toán vào các bảng tổng hợp; phải được gọi trong cùng transaction với thanh toán
+     *
+     * @param payment Thanh toán vừa được lưu
+     */
+    void recordPayment(Payment payment);
+
+    /**
+     * Dựng lại các bảng tổng hợp từ dữ liệu thanh toán gốc
+     *
+     * @param from Ngày bắt đầu (bao gồm)
+     * @param to Ngày kết thúc (bao gồm)
+     */
+    void rebuild(LocalDate from, LocalDate to);
+}
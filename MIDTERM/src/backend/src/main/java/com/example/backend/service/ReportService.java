@@ -1,8 +1,10 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.ReportComparisonDTO;
 import com.example.backend.dto.ReportDTO;
 
 import java.time.LocalDateTime;
+import java.util.function.DoubleConsumer;
 
 public interface ReportService {
     /**
@@ -14,6 +16,16 @@ public interface ReportService {
      */
     ReportDTO getReport(LocalDateTime startDate, LocalDateTime endDate);
     
+    /**
+     * Lấy báo cáo tổng quan và báo tiến độ khi từng phân đoạn tháng hoàn thành
+     *
+     * @param startDate Ngày bắt đầu
+     * @param endDate Ngày kết thúc
+     * @param progress Nhận tỉ lệ hoàn thành từ 0 đến 1
+     * @return Báo cáo tổng quan
+     */
+    ReportDTO getReport(LocalDateTime startDate, LocalDateTime endDate, DoubleConsumer progress);
+    
     /**
      * Lấy báo cáo cho hôm nay
      *
@@ -41,4 +53,21 @@ public interface ReportService {
      * @return Báo cáo tổng quan cho tháng hiện tại
      */
     ReportDTO getReportForCurrentMonth();
+    
+    /**
+     * So sánh hai kỳ báo cáo; kỳ tham chiếu thường đã khép lại nên được lấy từ bộ nhớ đệm hoặc bảng tổng hợp
+     *
+     * @param currentStart Ngày bắt đầu kỳ hiện tại
+     * @param currentEnd Ngày kết thúc kỳ hiện tại
+     * @param referenceStart Ngày bắt đầu kỳ tham chiếu
+     * @param referenceEnd Ngày kết thúc kỳ tham chiếu
+     * @return Chênh lệch và tỉ lệ tăng trưởng của doanh thu, số đơn, giá trị trung bình và cơ cấu
+     */
+    ReportComparisonDTO compareReports(LocalDateTime currentStart, LocalDateTime currentEnd,
+                                       LocalDateTime referenceStart, LocalDateTime referenceEnd);
+    
+    /**
+     * Xóa toàn bộ báo cáo đã lưu trong bộ nhớ, ví dụ sau khi dựng lại bảng tổng hợp
+     */
+    void invalidateCache();
 } 
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.example.backend.service;
+
+import io.jsonwebtoken.Claims;
+
+public interface TokenRevocationService {
+    /**
+     * Thu hồi một token cụ thể (ví dụ khi đăng xuất)
+     *
+     * @param tokenId Giá trị jti của token
+     */
+    void revokeToken(String tokenId);
+    
+    /**
+     * Thu hồi mọi token đã cấp cho người dùng tính đến thời điểm hiện tại
+     *
+     * @param email Email (subject) của người dùng
+     */
+    void revokeAllForUser(String email);
+    
+    /**
+     * Kiểm tra token đã bị thu hồi hay chưa, chỉ dùng dữ liệu trong bộ nhớ
+     *
+     * @param claims Claims đã được xác thực chữ ký
+     */
+    boolean isRevoked(Claims claims);
+}
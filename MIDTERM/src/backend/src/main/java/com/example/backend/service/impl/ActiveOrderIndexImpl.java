@@ -0,0 +1,220 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.OrderResponse;
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.event.TableChangedEvent;
+import com.example.backend.logging.AsyncLogPipeline;
+import com.example.backend.model.Order;
+import com.example.backend.model.OrderItem;
+import com.example.backend.model.Table;
+import com.example.backend.model.enums.OrderStatus;
+import com.example.backend.repository.OrderItemRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.TableRepository;
+import com.example.backend.service.ActiveOrderIndex;
+import com.example.backend.service.OrderService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Đọc từ chỉ mục không cần khóa và không chạm vào cơ sở dữ liệu.
+ * Mỗi lần ghi đã commit sẽ nạp lại đúng đơn/bàn bị ảnh hưởng. Việc nạp lại chạy trong một transaction mới
+ * (không dùng persistence context của transaction vừa commit) và được tuần tự hóa theo từng bàn:
+ * lần nạp nào giữ khóa sau thì cũng đọc sau, nên một snapshot cũ không thể ghi đè snapshot mới hơn,
+ * trong khi các bàn khác nhau vẫn được nạp song song.
+ */
+@Service
+public class ActiveOrderIndexImpl implements ActiveOrderIndex {
+
+    private static final List<OrderStatus> ACTIVE_STATUSES = List.of(OrderStatus.PENDING, OrderStatus.SERVING);
+
+    private final Map<String, Entry> byTableNumber = new ConcurrentHashMap<>();
+    // Khóa theo id bàn cho các lần nạp lại
+    private final Map<Long, Object> tableLocks = new ConcurrentHashMap<>();
+    // Nạp toàn bộ giữ khóa ghi; nạp lại từng bàn giữ khóa đọc nên không bị bản nạp toàn bộ cũ hơn ghi đè
+    private final ReentrantReadWriteLock warmLock = new ReentrantReadWriteLock();
+    private volatile boolean warm;
+
+    private final TableRepository tableRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderService orderService;
+    private final AsyncLogPipeline logs;
+    private final TransactionTemplate freshReadTransaction;
+
+    public ActiveOrderIndexImpl(TableRepository tableRepository,
+                                OrderRepository orderRepository,
+                                OrderItemRepository orderItemRepository,
+                                @Lazy OrderService orderService,
+                                AsyncLogPipeline logs,
+                                PlatformTransactionManager transactionManager) {
+        this.tableRepository = tableRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderService = orderService;
+        this.logs = logs;
+        // Listener AFTER_COMMIT vẫn gắn với persistence context của transaction vừa commit;
+        // REQUIRES_NEW mở một context mới để đọc đúng dữ liệu đã commit thay vì entity trong cache cấp 1
+        this.freshReadTransaction = new TransactionTemplate(transactionManager);
+        this.freshReadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.freshReadTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public Entry find(String tableNumber) {
+        return tableNumber == null ? null : byTableNumber.get(tableNumber);
+    }
+
+    @Override
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * Nạp toàn bộ bàn và các đơn đang hoạt động khi ứng dụng khởi động
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Lock lock = warmLock.writeLock();
+        lock.lock();
+        try {
+            freshReadTransaction.executeWithoutResult(status -> loadAll());
+            warm = true;
+            logs.info("orders", "Active order index warmed", "tables", byTableNumber.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void loadAll() {
+        List<Order> activeOrders = orderRepository.findByStatusIn(ACTIVE_STATUSES);
+        Map<Long, List<OrderItem>> itemsByOrder = activeOrders.isEmpty()
+                ? Map.of()
+                : orderItemRepository.findByOrderIdIn(activeOrders.stream().map(Order::getId).collect(Collectors.toList()))
+                        .stream()
+                        .collect(Collectors.groupingBy(item -> item.getOrder().getId()));
+        Map<Long, Order> orderByTable = new HashMap<>();
+        for (Order order : activeOrders) {
+            if (order.getTable() != null) {
+                orderByTable.putIfAbsent(order.getTable().getId(), order);
+            }
+        }
+
+        byTableNumber.clear();
+        for (Table table : tableRepository.findAll()) {
+            Order order = orderByTable.get(table.getId());
+            byTableNumber.put(table.getTableNumber(), order == null
+                    ? emptyEntry(table)
+                    : toEntry(table, order, itemsByOrder.getOrDefault(order.getId(), List.of())));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        try {
+            refreshOrder(event.getOrderId());
+        } catch (Exception e) {
+            logs.error("orders", "Error refreshing active order index", e, "orderId", event.getOrderId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTableChanged(TableChangedEvent event) {
+        try {
+            refreshTable(event.getTableId());
+        } catch (Exception e) {
+            logs.error("orders", "Error refreshing active order index", e, "tableId", event.getTableId());
+        }
+    }
+
+    @Override
+    public void refreshOrder(Long orderId) {
+        Long tableId = freshReadTransaction.execute(status -> orderRepository.findById(orderId)
+                .map(Order::getTable)
+                .map(Table::getId)
+                .orElse(null));
+        if (tableId == null) {
+            // Đơn đã bị xóa (hoặc không gắn bàn): gỡ khỏi mọi bàn đang trỏ tới đơn này
+            for (Entry entry : byTableNumber.values()) {
+                if (orderId.equals(entry.orderId())) {
+                    withTableLock(entry.tableId(), () -> byTableNumber.computeIfPresent(entry.tableNumber(),
+                            (tableNumber, current) -> orderId.equals(current.orderId()) ? withoutOrder(current) : current));
+                }
+            }
+            return;
+        }
+        withTableLock(tableId, () -> freshReadTransaction.executeWithoutResult(status -> {
+            Order order = orderRepository.findById(orderId).orElse(null);
+            if (order == null || order.getTable() == null) {
+                return;
+            }
+            Table table = order.getTable();
+            if (ACTIVE_STATUSES.contains(order.getStatus())) {
+                byTableNumber.put(table.getTableNumber(), toEntry(table, order, orderItemRepository.findByOrder(order)));
+            } else {
+                Entry current = byTableNumber.get(table.getTableNumber());
+                if (current == null || orderId.equals(current.orderId())) {
+                    byTableNumber.put(table.getTableNumber(), emptyEntry(table));
+                }
+            }
+        }));
+    }
+
+    @Override
+    public void refreshTable(Long tableId) {
+        withTableLock(tableId, () -> freshReadTransaction.executeWithoutResult(status -> {
+            Table table = tableRepository.findById(tableId).orElse(null);
+            Entry entry = null;
+            if (table != null) {
+                Order order = orderRepository.findByTableAndStatusIn(table, ACTIVE_STATUSES);
+                entry = order == null
+                        ? emptyEntry(table)
+                        : toEntry(table, order, orderItemRepository.findByOrder(order));
+            }
+            // Bỏ mục cũ của bàn (số bàn có thể đã đổi) rồi mới đặt mục mới
+            byTableNumber.values().removeIf(existing -> tableId.equals(existing.tableId()));
+            if (entry != null) {
+                byTableNumber.put(entry.tableNumber(), entry);
+            }
+        }));
+    }
+
+    private void withTableLock(Long tableId, Runnable refresh) {
+        Lock lock = warmLock.readLock();
+        lock.lock();
+        try {
+            synchronized (tableLocks.computeIfAbsent(tableId, id -> new Object())) {
+                refresh.run();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Entry toEntry(Table table, Order order, List<OrderItem> items) {
+        OrderResponse snapshot = orderService.convertOrderToResponse(order, items);
+        return new Entry(table.getId(), table.getTableNumber(), order.getId(), snapshot);
+    }
+
+    private Entry emptyEntry(Table table) {
+        return new Entry(table.getId(), table.getTableNumber(), null, null);
+    }
+
+    private Entry withoutOrder(Entry entry) {
+        return new Entry(entry.tableId(), entry.tableNumber(), null, null);
+    }
+}
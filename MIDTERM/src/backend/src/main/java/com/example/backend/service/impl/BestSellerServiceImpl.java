@@ -0,0 +1,109 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.BestSellerItem;
+import com.example.backend.dto.BestSellerWindow;
+import com.example.backend.event.OrderItemsAddedEvent;
+import com.example.backend.service.BestSellerService;
+import com.example.backend.stream.SpaceSavingSketch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Bảng xếp hạng món bán chạy theo thời gian thực, được cập nhật từ các món vừa gọi.
+ * Cửa sổ một giờ gồm 12 ô 5 phút, mỗi ô là một sketch Space-Saving; ô cũ được tái sử dụng khi vòng lại.
+ * Cửa sổ hôm nay là một sketch được xóa khi sang ngày mới. Bộ nhớ cố định, không truy vấn cơ sở dữ liệu.
+ */
+@Service
+public class BestSellerServiceImpl implements BestSellerService {
+
+    private static final long BUCKET_MILLIS = 5 * 60 * 1000L;
+    private static final int HOUR_BUCKETS = 12;
+
+    private final SpaceSavingSketch<Long>[] hourBuckets;
+    private final long[] bucketEpochs = new long[HOUR_BUCKETS];
+    private final SpaceSavingSketch<Long> today;
+    private LocalDate currentDay = LocalDate.now();
+    // Tên và danh mục để trả lời mà không cần tra cứu thực đơn; số phần tử không vượt quá số món
+    private final Map<Long, OrderItemsAddedEvent.Sale> labels = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public BestSellerServiceImpl(@Value("${reports.live-top.capacity:64}") int capacity) {
+        this.hourBuckets = new SpaceSavingSketch[HOUR_BUCKETS];
+        for (int i = 0; i < HOUR_BUCKETS; i++) {
+            hourBuckets[i] = new SpaceSavingSketch<>(capacity);
+            bucketEpochs[i] = -1;
+        }
+        this.today = new SpaceSavingSketch<>(capacity);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderItemsAdded(OrderItemsAddedEvent event) {
+        long epoch = System.currentTimeMillis() / BUCKET_MILLIS;
+        synchronized (this) {
+            SpaceSavingSketch<Long> bucket = bucketFor(epoch);
+            rollDay();
+            for (OrderItemsAddedEvent.Sale sale : event.getSales()) {
+                bucket.offer(sale.menuItemId(), sale.quantity());
+                today.offer(sale.menuItemId(), sale.quantity());
+                labels.put(sale.menuItemId(), sale);
+            }
+        }
+    }
+
+    @Override
+    public List<BestSellerItem> getTopItems(BestSellerWindow window, int limit) {
+        List<SpaceSavingSketch.Counter<Long>> top;
+        synchronized (this) {
+            if (window == BestSellerWindow.TODAY) {
+                rollDay();
+                top = SpaceSavingSketch.top(List.of(today), limit);
+            } else {
+                long epoch = System.currentTimeMillis() / BUCKET_MILLIS;
+                List<SpaceSavingSketch<Long>> live = new ArrayList<>(HOUR_BUCKETS);
+                for (int i = 0; i < HOUR_BUCKETS; i++) {
+                    if (bucketEpochs[i] > epoch - HOUR_BUCKETS) {
+                        live.add(hourBuckets[i]);
+                    }
+                }
+                top = SpaceSavingSketch.top(live, limit);
+            }
+        }
+        return top.stream()
+                .map(counter -> {
+                    OrderItemsAddedEvent.Sale label = labels.get(counter.getKey());
+                    return new BestSellerItem(
+                            counter.getKey(),
+                            label != null ? label.menuItemName() : null,
+                            label != null ? label.category() : null,
+                            counter.getCount(),
+                            counter.getError()
+                    );
+                })
+                .collect(Collectors.toList());
+    }
+
+    private SpaceSavingSketch<Long> bucketFor(long epoch) {
+        int slot = (int) Math.floorMod(epoch, (long) HOUR_BUCKETS);
+        if (bucketEpochs[slot] != epoch) {
+            hourBuckets[slot].clear();
+            bucketEpochs[slot] = epoch;
+        }
+        return hourBuckets[slot];
+    }
+
+    private void rollDay() {
+        LocalDate now = LocalDate.now();
+        if (!now.equals(currentDay)) {
+            today.clear();
+            currentDay = now;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.KitchenTicket;
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.exception.Exceptions;
+import com.example.backend.logging.AsyncLogPipeline;
+import com.example.backend.model.OrderItem;
+import com.example.backend.model.enums.KitchenType;
+import com.example.backend.model.enums.OrderItemStatus;
+import com.example.backend.repository.OrderItemRepository;
+import com.example.backend.service.KitchenTicketService;
+import com.example.backend.service.OrderService;
+import com.example.backend.stream.SseTopicRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Luồng phiếu bếp theo từng KitchenType.
+ * Mỗi khu bếp chỉ nhận các món thuộc khu của mình, và chỉ những món vừa thay đổi.
+ */
+@Service
+public class KitchenTicketServiceImpl implements KitchenTicketService {
+
+    static final String TICKETS_EVENT = "tickets";
+    static final String TICKETS_REMOVED_EVENT = "tickets-removed";
+    static final String SNAPSHOT_EVENT = "snapshot";
+
+    // Các trạng thái còn hiển thị trên màn hình bếp
+    private static final Set<OrderItemStatus> ACTIVE_STATUSES = Set.of(OrderItemStatus.PENDING, OrderItemStatus.COOKING);
+
+    private final OrderItemRepository orderItemRepository;
+    private final OrderService orderService;
+    private final SseTopicRegistry<KitchenType> registry;
+    private final AsyncLogPipeline logs;
+
+    public KitchenTicketServiceImpl(OrderItemRepository orderItemRepository,
+                                    OrderService orderService,
+                                    AsyncLogPipeline logs,
+                                    @Value("${kitchen.stream.replay-capacity:128}") int replayCapacity,
+                                    @Value("${kitchen.stream.timeout-ms:1800000}") long timeoutMillis) {
+        this.orderItemRepository = orderItemRepository;
+        this.orderService = orderService;
+        this.logs = logs;
+        this.registry = new SseTopicRegistry<>(replayCapacity, timeoutMillis);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<KitchenTicket> getActiveTickets(KitchenType kitchenType) {
+        return orderItemRepository.findKitchenTickets(kitchenType, ACTIVE_STATUSES).stream()
+                .map(this::toTicket)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public SseEmitter subscribe(KitchenType kitchenType, String lastEventId) {
+        return registry.subscribe(kitchenType, lastEventId,
+                () -> new SseTopicRegistry.Snapshot(SNAPSHOT_EVENT, getActiveTickets(kitchenType)));
+    }
+
+    /**
+     * Bếp xác nhận đã nhận món: PENDING -> COOKING (gọi lại khi đã COOKING thì không đổi gì)
+     */
+    @Override
+    @Transactional
+    public KitchenTicket acknowledge(KitchenType kitchenType, Long orderItemId) {
+        return transition(kitchenType, orderItemId, OrderItemStatus.COOKING);
+    }
+
+    /**
+     * Bếp báo món đã xong: PENDING/COOKING -> READY (gọi lại khi đã READY thì không đổi gì)
+     */
+    @Override
+    @Transactional
+    public KitchenTicket bump(KitchenType kitchenType, Long orderItemId) {
+        return transition(kitchenType, orderItemId, OrderItemStatus.READY);
+    }
+
+    private KitchenTicket transition(KitchenType kitchenType, Long orderItemId, OrderItemStatus target) {
+        OrderItem orderItem = orderItemRepository.findById(orderItemId)
+                .orElseThrow(Exceptions::orderItemNotFound);
+        if (orderItem.getMenuItem() == null || orderItem.getMenuItem().getKitchenType() != kitchenType) {
+            throw Exceptions.wrongKitchenStation();
+        }
+        if (orderItem.getStatus() == target) {
+            return toTicket(orderItem);
+        }
+        if (!orderItem.getStatus().canTransitionTo(target)) {
+            throw Exceptions.invalidOrderItemTransition();
+        }
+        return toTicket(orderService.updateOrderItemStatus(orderItemId, target));
+    }
+
+    /**
+     * Gửi các món vừa thay đổi tới đúng khu bếp sau khi transaction commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getChangedItemIds().isEmpty()) {
+            return;
+        }
+        try {
+            List<OrderItem> items = orderItemRepository.findWithDetailsByIdIn(event.getChangedItemIds());
+            Map<KitchenType, List<KitchenTicket>> byStation = new EnumMap<>(KitchenType.class);
+            Set<Long> found = new HashSet<>();
+            for (OrderItem item : items) {
+                found.add(item.getId());
+                KitchenType kitchenType = item.getMenuItem().getKitchenType();
+                if (kitchenType != null) {
+                    byStation.computeIfAbsent(kitchenType, k -> new ArrayList<>()).add(toTicket(item));
+                }
+            }
+            byStation.forEach((kitchenType, tickets) -> registry.publish(kitchenType, TICKETS_EVENT, tickets));
+
+            // Món đã bị xóa khỏi đơn: không còn biết thuộc khu nào nên báo cho tất cả
+            List<Long> removedIds = event.getChangedItemIds().stream()
+                    .filter(id -> !found.contains(id))
+                    .collect(Collectors.toList());
+            if (!removedIds.isEmpty()) {
+                for (KitchenType kitchenType : KitchenType.values()) {
+                    registry.publish(kitchenType, TICKETS_REMOVED_EVENT, removedIds);
+                }
+            }
+        } catch (Exception e) {
+            logs.error("kitchen", "Error streaming kitchen tickets", e, "orderId", event.getOrderId());
+        }
+    }
+
+    @Scheduled(fixedRateString = "${kitchen.stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        registry.heartbeat();
+    }
+
+    private KitchenTicket toTicket(OrderItem item) {
+        return new KitchenTicket(
+                item.getId(),
+                item.getOrder().getId(),
+                item.getOrder().getTable() != null ? item.getOrder().getTable().getTableNumber() : null,
+                item.getMenuItem().getId(),
+                item.getMenuItem().getName(),
+                item.getMenuItem().getKitchenType(),
+                item.getMenuItem().getIsSpicy(),
+                item.getQuantity(),
+                item.getNote(),
+                item.getStatus(),
+                item.getOrderAt()
+        );
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.logging.AsyncLogPipeline;
+import com.example.backend.model.KitchenTransition;
+import com.example.backend.model.enums.OrderItemStatus;
+import com.example.backend.model.enums.OrderStatus;
+import com.example.backend.repository.KitchenTransitionRepository;
+import com.example.backend.repository.OrderItemRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.projection.DueItemView;
+import com.example.backend.service.KitchenTimerService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Bộ hẹn giờ bếp dạng hashed timer wheel.
+ * Mỗi lượt chuyển trạng thái được lưu trong bảng kitchen_transitions và đặt vào một ô của vòng quay;
+ * mỗi tick chỉ duyệt ô hiện tại và chuyển tất cả các món đến hạn bằng một câu UPDATE.
+ * Vòng quay chạy trên một luồng riêng để không phải chờ các tác vụ @Scheduled khác của ứng dụng.
+ */
+@Service
+public class KitchenTimerServiceImpl implements KitchenTimerService {
+
+    private static final int WHEEL_SIZE = 64;
+
+    private final KitchenTransitionRepository transitionRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AsyncLogPipeline logs;
+    private final long delaySeconds;
+    private final long tickMillis;
+
+    private final List<ArrayDeque<TimerEntry>> wheel = new ArrayList<>(WHEEL_SIZE);
+    // Các lượt đang nằm trong vòng quay, để khôi phục lúc khởi động không đăng ký trùng
+    private final Set<Long> registeredIds = new HashSet<>();
+    private final ScheduledExecutorService ticker =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("kitchen-timer").daemon().factory());
+    private long lastProcessedTick;
+    private int queueDepth;
+
+    public KitchenTimerServiceImpl(KitchenTransitionRepository transitionRepository,
+                                   OrderRepository orderRepository,
+                                   OrderItemRepository orderItemRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   ApplicationEventPublisher eventPublisher,
+                                   MeterRegistry meterRegistry,
+                                   AsyncLogPipeline logs,
+                                   @Value("${kitchen.timer.delay-seconds:20}") long delaySeconds,
+                                   @Value("${kitchen.timer.tick-ms:1000}") long tickMillis) {
+        this.transitionRepository = transitionRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.logs = logs;
+        this.delaySeconds = delaySeconds;
+        this.tickMillis = tickMillis;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayDeque<>());
+        }
+        this.lastProcessedTick = currentTick() - 1;
+
+        Gauge.builder("kitchen.timer.queue.depth", this, KitchenTimerServiceImpl::getQueueDepth)
+                .description("Số lượt chuyển trạng thái bếp đang chờ đến hạn")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    @Override
+    public void schedule(Long orderId) {
+        // Lưu lại trong cùng transaction với đơn hàng để không bị mất khi khởi động lại
+        LocalDateTime dueAt = LocalDateTime.now().plusSeconds(delaySeconds);
+        KitchenTransition transition = transitionRepository.save(new KitchenTransition(null, orderId, dueAt));
+        // Chỉ đưa vào vòng quay khi transaction đã commit, để đơn bị rollback không để lại lượt hẹn giờ
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            register(transition);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                register(transition);
+            }
+        });
+    }
+
+    @Override
+    public synchronized int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Khôi phục các lượt chuyển trạng thái chưa hoàn thành sau khi ứng dụng khởi động
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingTransitions() {
+        List<KitchenTransition> pending = transitionRepository.findAll();
+        pending.forEach(this::register);
+        logs.info("kitchen", "Recovered pending kitchen transitions", "count", pending.size());
+    }
+
+    void tick() {
+        List<TimerEntry> due = advance(currentTick());
+        if (due.isEmpty()) {
+            return;
+        }
+
+        Set<Long> orderIds = due.stream().map(TimerEntry::orderId).collect(Collectors.toSet());
+        List<Long> transitionIds = due.stream().map(TimerEntry::transitionId).collect(Collectors.toList());
+        // Mọi món đặt trước mốc này đều đã chờ đủ thời gian, kể cả khi thuộc lượt gọi món khác
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(delaySeconds);
+
+        try {
+            Map<Long, List<Long>> firedItems = transactionTemplate.execute(status -> {
+                orderRepository.updateDueOrderStatus(orderIds, cutoff, OrderStatus.PENDING, OrderStatus.SERVING);
+                List<DueItemView> dueItems = orderItemRepository.findDueItems(orderIds, cutoff, OrderItemStatus.PENDING);
+                if (!dueItems.isEmpty()) {
+                    List<Long> itemIds = dueItems.stream().map(DueItemView::getId).collect(Collectors.toList());
+                    orderItemRepository.updateStatusByIds(itemIds, OrderItemStatus.PENDING, OrderItemStatus.COOKING);
+                }
+                transitionRepository.deleteAllByIdInBatch(transitionIds);
+                return dueItems.stream().collect(Collectors.groupingBy(DueItemView::getOrderId,
+                        Collectors.mapping(DueItemView::getId, Collectors.toList())));
+            });
+            forget(transitionIds);
+            // Kèm danh sách món đã chuyển để màn hình bếp chỉ cập nhật đúng các dòng thay đổi
+            orderIds.forEach(orderId -> eventPublisher.publishEvent(
+                    new OrderChangedEvent(orderId, firedItems.getOrDefault(orderId, List.of()))));
+        } catch (Exception e) {
+            // Đưa lại vào vòng quay để thử ở tick sau; bản ghi vẫn còn trong cơ sở dữ liệu
+            logs.error("kitchen", "Error applying kitchen transitions", e, "orderIds", orderIds);
+            due.forEach(this::requeue);
+        }
+    }
+
+    private synchronized void register(KitchenTransition transition) {
+        if (!registeredIds.add(transition.getId())) {
+            return;
+        }
+        long dueTick = Math.floorDiv(toEpochMillis(transition.getDueAt()) + tickMillis - 1, tickMillis);
+        // Lượt đã quá hạn (ví dụ khi khôi phục) sẽ được xử lý ở tick kế tiếp
+        long tick = Math.max(dueTick, lastProcessedTick + 1);
+        wheel.get(slotOf(tick)).add(new TimerEntry(transition.getId(), transition.getOrderId(), tick));
+        queueDepth++;
+    }
+
+    private synchronized void forget(List<Long> transitionIds) {
+        transitionIds.forEach(registeredIds::remove);
+    }
+
+    private synchronized void requeue(TimerEntry entry) {
+        long tick = lastProcessedTick + 1;
+        wheel.get(slotOf(tick)).add(new TimerEntry(entry.transitionId(), entry.orderId(), tick));
+        queueDepth++;
+    }
+
+    /**
+     * Duyệt các ô từ tick đã xử lý gần nhất đến tick hiện tại và lấy ra các lượt đã đến hạn
+     */
+    private synchronized List<TimerEntry> advance(long nowTick) {
+        List<TimerEntry> due = new ArrayList<>();
+        long slotsToVisit = Math.min(nowTick - lastProcessedTick, WHEEL_SIZE);
+        for (long i = 0; i < slotsToVisit; i++) {
+            Iterator<TimerEntry> iterator = wheel.get(slotOf(nowTick - i)).iterator();
+            while (iterator.hasNext()) {
+                TimerEntry entry = iterator.next();
+                if (entry.dueTick() <= nowTick) {
+                    iterator.remove();
+                    due.add(entry);
+                }
+            }
+        }
+        lastProcessedTick = Math.max(lastProcessedTick, nowTick);
+        queueDepth -= due.size();
+        return due;
+    }
+
+    private long currentTick() {
+        return System.currentTimeMillis() / tickMillis;
+    }
+
+    private int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) WHEEL_SIZE);
+    }
+
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record TimerEntry(Long transitionId, Long orderId, long dueTick) {
+    }
+}
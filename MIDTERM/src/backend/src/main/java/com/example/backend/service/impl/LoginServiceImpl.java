@@ -0,0 +1,70 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.LoginRequest;
+import com.example.backend.dto.LoginResponse;
+import com.example.backend.exception.Exceptions;
+import com.example.backend.security.LoginRateLimiter;
+import com.example.backend.service.LoginService;
+import com.example.backend.service.UserService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đăng nhập chạy trên một pool luồng cố định, kích thước theo ngân sách CPU dành cho BCrypt.
+ * Hàng đợi có giới hạn: khi đầy request bị từ chối ngay với 429 thay vì xếp hàng vô hạn.
+ */
+@Service
+public class LoginServiceImpl implements LoginService {
+
+    private final UserService userService;
+    private final LoginRateLimiter rateLimiter;
+    private final ThreadPoolExecutor loginExecutor;
+
+    public LoginServiceImpl(UserService userService,
+                            LoginRateLimiter rateLimiter,
+                            MeterRegistry meterRegistry,
+                            @Value("${auth.login.threads:2}") int threads,
+                            @Value("${auth.login.queue-capacity:50}") int queueCapacity) {
+        this.userService = userService;
+        this.rateLimiter = rateLimiter;
+        // BCrypt chỉ tốn CPU nên dùng luồng thường với số lượng cố định thay vì virtual thread
+        this.loginExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("auth-login-", 0).daemon().factory());
+
+        Gauge.builder("auth.login.queue.depth", loginExecutor, executor -> executor.getQueue().size())
+                .description("Số lượt đăng nhập đang chờ xác thực")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        loginExecutor.shutdownNow();
+    }
+
+    @Override
+    public CompletableFuture<Optional<LoginResponse>> login(LoginRequest request, String clientAddress) {
+        rateLimiter.acquire(request.getEmail(), clientAddress);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                Optional<LoginResponse> response = userService.authenticate(request);
+                if (response.isEmpty()) {
+                    rateLimiter.recordFailure(request.getEmail());
+                }
+                return response;
+            }, loginExecutor);
+        } catch (RejectedExecutionException e) {
+            throw Exceptions.loginQueueFull();
+        }
+    }
+}
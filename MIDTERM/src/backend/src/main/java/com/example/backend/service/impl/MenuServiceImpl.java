@@ -1,36 +1,115 @@
 package com.example.backend.service.impl;
 
+import com.example.backend.dto.MenuItemResponse;
+import com.example.backend.dto.MenuSnapshot;
+import com.example.backend.dto.MenuSnapshot.Representation;
+import com.example.backend.event.MenuChangedEvent;
 import com.example.backend.model.MenuItem;
 import com.example.backend.repository.MenuItemRepository;
 import com.example.backend.service.MenuService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Các endpoint đọc thực đơn được phục vụ từ một ảnh chụp bất biến trong bộ nhớ.
+ * Ảnh chụp chỉ được dựng lại sau khi một thao tác ghi của service này commit,
+ * nên mỗi lượt khách quét mã QR không phát sinh truy vấn cơ sở dữ liệu.
+ */
 @Service
 @RequiredArgsConstructor
 public class MenuServiceImpl implements MenuService {
     
     private final MenuItemRepository menuItemRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final Object snapshotLock = new Object();
+    private volatile MenuSnapshot snapshot;
+    private long snapshotVersion;
     
     @Override
-    public List<MenuItem> getAllMenuItems() {
-        return menuItemRepository.findAll();
+    public List<MenuItemResponse> getAllMenuItems() {
+        return getSnapshot().allItems();
     }
     
     @Override
-    public List<MenuItem> getVisibleMenuItems() {
-        return menuItemRepository.findByIsHiddenFalse();
+    public List<MenuItemResponse> getVisibleMenuItems() {
+        return getSnapshot().visibleItems();
     }
     
     @Override
     public Set<String> getAllCategories() {
-        return menuItemRepository.findAll().stream()
-                .map(MenuItem::getCategory)
-                .collect(Collectors.toSet());
+        return getSnapshot().categories();
+    }
+    
+    @Override
+    public MenuSnapshot getSnapshot() {
+        MenuSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (snapshotLock) {
+                current = snapshot;
+                if (current == null) {
+                    current = rebuildSnapshot();
+                }
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Dựng lại ảnh chụp sau khi thao tác ghi đã commit để ảnh chụp mới luôn thấy dữ liệu vừa ghi
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        synchronized (snapshotLock) {
+            rebuildSnapshot();
+        }
+    }
+    
+    private MenuSnapshot rebuildSnapshot() {
+        List<MenuItemResponse> allItems = menuItemRepository.findAll().stream()
+                .map(MenuItemResponse::from)
+                .collect(Collectors.toUnmodifiableList());
+        // Cùng điều kiện với findByIsHiddenFalse: isHidden phải bằng false
+        List<MenuItemResponse> visibleItems = allItems.stream()
+                .filter(item -> Boolean.FALSE.equals(item.isHidden()))
+                .collect(Collectors.toUnmodifiableList());
+        // Sắp xếp để nội dung (và ETag) không phụ thuộc vào thứ tự duyệt của HashSet
+        LinkedHashSet<String> sortedCategories = allItems.stream()
+                .map(MenuItemResponse::category)
+                .sorted(Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<String> categories = Collections.unmodifiableSet(sortedCategories);
+        
+        MenuSnapshot rebuilt = new MenuSnapshot(++snapshotVersion, allItems, visibleItems, categories,
+                represent(allItems), represent(visibleItems), represent(categories));
+        snapshot = rebuilt;
+        return rebuilt;
+    }
+    
+    private Representation represent(Object value) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            return new Representation(HexFormat.of().formatHex(hash, 0, 16), body);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Không thể tạo ảnh chụp thực đơn", e);
+        }
     }
     
     @Override
@@ -42,7 +121,9 @@ public class MenuServiceImpl implements MenuService {
             menuItem.setImageUrl(filename + ".jpg");
         }
         
-        return menuItemRepository.save(menuItem);
+        MenuItem saved = menuItemRepository.save(menuItem);
+        eventPublisher.publishEvent(new MenuChangedEvent(saved.getId()));
+        return saved;
     }
     
     @Override
@@ -88,7 +169,9 @@ public class MenuServiceImpl implements MenuService {
             existingItem.setIsHidden(menuItem.getIsHidden());
         }
         
-        return menuItemRepository.save(existingItem);
+        MenuItem saved = menuItemRepository.save(existingItem);
+        eventPublisher.publishEvent(new MenuChangedEvent(id));
+        return saved;
     }
     
     // Phương thức phụ trợ để tạo tên file từ tên món ăn
@@ -111,7 +194,9 @@ public class MenuServiceImpl implements MenuService {
         MenuItem menuItem = menuItemRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Menu item not found"));
         menuItem.setIsAvailable(!menuItem.getIsAvailable());
-        return menuItemRepository.save(menuItem);
+        MenuItem saved = menuItemRepository.save(menuItem);
+        eventPublisher.publishEvent(new MenuChangedEvent(id));
+        return saved;
     }
     
     @Override
@@ -120,6 +205,8 @@ public class MenuServiceImpl implements MenuService {
         MenuItem menuItem = menuItemRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Menu item not found"));
         menuItem.setIsHidden(!menuItem.getIsHidden());
-        return menuItemRepository.save(menuItem);
+        MenuItem saved = menuItemRepository.save(menuItem);
+        eventPublisher.publishEvent(new MenuChangedEvent(id));
+        return saved;
     }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.example.backend.service.impl;
 
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.event.OrderItemsAddedEvent;
 import com.example.backend.exception.Exceptions;
+import com.example.backend.logging.AsyncLogPipeline;
 import com.example.backend.model.*;
 import com.example.backend.model.enums.OrderStatus;
 import com.example.backend.model.enums.TableStatus;
@@ -8,17 +11,36 @@ import com.example.backend.model.enums.OrderItemStatus;
 import com.example.backend.repository.MenuItemRepository;
 import com.example.backend.repository.OrderItemRepository;
 import com.example.backend.repository.OrderRepository;
+import com.example.backend.service.ActiveOrderIndex;
+import com.example.backend.service.KitchenTimerService;
 import com.example.backend.service.OrderService;
+import com.example.backend.repository.projection.OrderItemView;
+import com.example.backend.repository.projection.OrderSummaryView;
+import com.example.backend.repository.projection.OrderTotalView;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
-import java.time.Duration;
-import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.KeysetCursor;
 import com.example.backend.dto.OrderRequest;
 import com.example.backend.dto.OrderResponse;
 import com.example.backend.dto.OrderItemRequest;
@@ -29,6 +51,8 @@ import com.example.backend.exception.InvalidOperationException;
 
 @Service
 public class OrderServiceImpl implements OrderService {
+
+    private static final String CATEGORY = "orders";
     
     @Autowired
     private TableRepository tableRepository;
@@ -45,23 +69,113 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private UserRepository userRepository;
     
-    private final ThreadPoolTaskScheduler taskScheduler;
+    @Autowired
+    private KitchenTimerService kitchenTimerService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ActiveOrderIndex activeOrderIndex;
+
+    @Autowired
+    private AsyncLogPipeline logs;
+    
+    // Gọi qua proxy để reconcileOrderTotal chạy trong transaction riêng khi được gọi từ tác vụ định kỳ
+    @Autowired
+    @Lazy
+    private OrderService self;
+    
+    @Value("${pagination.default-size:50}")
+    private int defaultPageSize;
     
-    public OrderServiceImpl() {
-        this.taskScheduler = new ThreadPoolTaskScheduler();
-        this.taskScheduler.setPoolSize(5);
-        this.taskScheduler.setThreadNamePrefix("OrderScheduler-");
-        this.taskScheduler.initialize();
+    @Value("${pagination.max-size:200}")
+    private int maxPageSize;
+    
+    // Số id đơn tối đa trong một câu IN khi nạp món, để danh sách đơn dài không tạo câu truy vấn quá lớn
+    @Value("${orders.item-lookup.chunk-size:500}")
+    private int itemLookupChunkSize;
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getAllOrders() {
+        return toResponses(orderRepository.findAllSummaries());
     }
     
     @Override
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<OrderResponse> getActiveOrders() {
+        return toResponses(orderRepository.findSummariesByStatusIn(List.of(OrderStatus.PENDING, OrderStatus.SERVING)));
     }
     
     @Override
-    public List<Order> getActiveOrders() {
-        return orderRepository.findByStatusIn(List.of(OrderStatus.PENDING, OrderStatus.SERVING));
+    @Transactional(readOnly = true)
+    public CursorPage<OrderResponse> getOrderPage(OrderStatus status, String tableNumber, String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        
+        // Lấy dư một bản ghi để biết còn trang sau hay không
+        List<OrderSummaryView> rows = orderRepository.findSummaryPage(
+                status,
+                tableNumber,
+                after != null ? after.time() : null,
+                after != null ? after.id() : null,
+                PageRequest.of(0, pageSize + 1));
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderSummaryView> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            OrderSummaryView last = pageRows.get(pageRows.size() - 1);
+            nextCursor = new KeysetCursor(last.getOrderTime(), last.getId()).encode();
+        }
+        return new CursorPage<>(toResponses(pageRows), nextCursor, hasMore);
+    }
+    
+    /**
+     * Ghép danh sách đơn với các món của chúng: tổng cộng chỉ hai câu truy vấn, không phụ thuộc số đơn
+     */
+    private List<OrderResponse> toResponses(List<OrderSummaryView> summaries) {
+        if (summaries.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> orderIds = summaries.stream().map(OrderSummaryView::getId).collect(Collectors.toList());
+        Map<Long, List<OrderItemResponse>> itemsByOrder = new HashMap<>();
+        for (int from = 0; from < orderIds.size(); from += itemLookupChunkSize) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + itemLookupChunkSize, orderIds.size()));
+            for (OrderItemView item : orderItemRepository.findViewsByOrderIdIn(chunk)) {
+                itemsByOrder.computeIfAbsent(item.getOrderId(), id -> new ArrayList<>())
+                        .add(convertOrderItemViewToResponse(item));
+            }
+        }
+        
+        return summaries.stream()
+                .map(summary -> new OrderResponse(
+                        summary.getId(),
+                        summary.getTableNumber(),
+                        summary.getOrderTime(),
+                        summary.getStatus(),
+                        summary.getTotalAmount(),
+                        summary.getIsPaid() != null ? summary.getIsPaid() : false,
+                        itemsByOrder.getOrDefault(summary.getId(), new ArrayList<>()),
+                        summary.getWaiterId(),
+                        summary.getWaiterName(),
+                        summary.getNeedAssistance() != null ? summary.getNeedAssistance() : false))
+                .collect(Collectors.toList());
+    }
+    
+    private OrderItemResponse convertOrderItemViewToResponse(OrderItemView item) {
+        return new OrderItemResponse(
+                item.getId(),
+                item.getMenuItemId(),
+                item.getMenuItemName(),
+                item.getQuantity(),
+                item.getNote(),
+                item.getStatus(),
+                item.getPrice(),
+                item.getOrderAt(),
+                item.getKitchenType(),
+                item.getIsSpicy());
     }
     
     @Override
@@ -88,21 +202,15 @@ public class OrderServiceImpl implements OrderService {
         MenuItem menuItem = menuItemRepository.findById(menuItemId)
                 .orElseThrow(Exceptions::menuItemNotFound);
         
-        OrderItem orderItem = new OrderItem();
-        orderItem.setOrder(order);
-        orderItem.setMenuItem(menuItem);
-        orderItem.setQuantity(quantity);
-        orderItem.setPrice(menuItem.getPrice());
-        orderItem.setNote(note);
-        orderItem.setStatus(OrderItemStatus.PENDING);
-        orderItem.setOrderAt(LocalDateTime.now());
-        
+        OrderItem orderItem = buildOrderItem(order, menuItem, quantity, note, LocalDateTime.now());
         orderItem = orderItemRepository.save(orderItem);
+        publishItemsAdded(List.of(orderItem));
         
         // Lập lịch chuyển trạng thái OrderItem sang COOKING sau 20 giây
-        scheduleOrderItemStatusChange(orderItem.getId());
+        kitchenTimerService.schedule(orderId);
         
-        recalculateOrderTotal(order);
+        applyTotalDelta(order, lineTotal(orderItem));
+        publishOrderChanged(orderId, List.of(orderItem.getId()));
         
         return orderItem;
     }
@@ -124,7 +232,8 @@ public class OrderServiceImpl implements OrderService {
         }
         
         orderItemRepository.delete(orderItem);
-        recalculateOrderTotal(order);
+        applyTotalDelta(order, lineTotal(orderItem).negate());
+        publishOrderChanged(order.getId(), List.of(orderItemId));
     }
     
     @Override
@@ -134,7 +243,53 @@ public class OrderServiceImpl implements OrderService {
                 .orElseThrow(Exceptions::orderItemNotFound);
         
         orderItem.setStatus(status);
-        return orderItemRepository.save(orderItem);
+        OrderItem savedItem = orderItemRepository.save(orderItem);
+        publishOrderChanged(savedItem.getOrder().getId(), List.of(orderItemId));
+        return savedItem;
+    }
+    
+    @Override
+    @Transactional
+    public List<OrderItemResponse> updateOrderItemStatuses(Collection<Long> orderItemIds, OrderItemStatus status) {
+        if (orderItemIds == null || orderItemIds.isEmpty()) {
+            throw new IllegalArgumentException("Danh sách món không thể trống");
+        }
+        Set<Long> uniqueIds = new LinkedHashSet<>(orderItemIds);
+        List<OrderItem> items = orderItemRepository.findWithDetailsByIdIn(uniqueIds);
+        if (items.size() != uniqueIds.size()) {
+            throw Exceptions.orderItemNotFound();
+        }
+        
+        // Kiểm tra toàn bộ trước khi ghi; món đã ở trạng thái đích thì bỏ qua
+        Map<OrderItemStatus, List<Long>> idsByCurrentStatus = new EnumMap<>(OrderItemStatus.class);
+        for (OrderItem item : items) {
+            if (item.getStatus() == status) {
+                continue;
+            }
+            if (!item.getStatus().canTransitionTo(status)) {
+                throw Exceptions.invalidOrderItemTransition();
+            }
+            idsByCurrentStatus.computeIfAbsent(item.getStatus(), k -> new ArrayList<>()).add(item.getId());
+        }
+        
+        // Một câu UPDATE cho mỗi trạng thái nguồn; điều kiện status = :from phát hiện cập nhật đồng thời
+        for (Map.Entry<OrderItemStatus, List<Long>> group : idsByCurrentStatus.entrySet()) {
+            int updated = orderItemRepository.updateStatusByIds(group.getValue(), group.getKey(), status);
+            if (updated != group.getValue().size()) {
+                throw new ObjectOptimisticLockingFailureException(OrderItem.class, group.getValue());
+            }
+        }
+        
+        Map<Long, List<Long>> changedByOrder = new HashMap<>();
+        for (OrderItem item : items) {
+            if (item.getStatus() != status) {
+                changedByOrder.computeIfAbsent(item.getOrder().getId(), k -> new ArrayList<>()).add(item.getId());
+                item.setStatus(status);
+            }
+        }
+        changedByOrder.forEach(this::publishOrderChanged);
+        
+        return items.stream().map(this::convertOrderItemToResponse).collect(Collectors.toList());
     }
     
     @Override
@@ -156,22 +311,23 @@ public class OrderServiceImpl implements OrderService {
             }
         }
         
-        order.setStatus(status);
-        
-        // Nếu chuyển sang trạng thái SERVING, cập nhật tất cả OrderItem sang COOKING
+        // Nếu chuyển sang trạng thái SERVING, cập nhật tất cả OrderItem PENDING sang COOKING bằng một câu UPDATE
+        List<Long> changedItemIds = List.of();
         if (status == OrderStatus.SERVING) {
-            List<OrderItem> items = orderItemRepository.findByOrder(order);
-            for (OrderItem item : items) {
-                if (item.getStatus() == OrderItemStatus.PENDING) {
-                    item.setStatus(OrderItemStatus.COOKING);
-                    orderItemRepository.save(item);
-                }
+            changedItemIds = orderItemRepository.findByOrderAndStatus(order, OrderItemStatus.PENDING).stream()
+                    .map(OrderItem::getId)
+                    .collect(Collectors.toList());
+            if (!changedItemIds.isEmpty()) {
+                orderItemRepository.updateStatusByIds(changedItemIds, OrderItemStatus.PENDING, OrderItemStatus.COOKING);
             }
         }
         
+        order.setStatus(status);
+        
         // Lưu và trả về đối tượng đã được cập nhật
         Order savedOrder = orderRepository.save(order);
-        System.out.println("Order " + orderId + " status updated to " + status + " and saved to database");
+        publishOrderChanged(orderId, changedItemIds);
+        logs.info(CATEGORY, "Order status updated", "orderId", orderId, "status", status);
         return savedOrder;
     }
 
@@ -182,19 +338,76 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findByTableId(tableId);
     }
 
-    private void recalculateOrderTotal(Order order) {
-        List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
-        
-        BigDecimal total = orderItems.stream()
-                .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+    /**
+     * Cộng/trừ trực tiếp phần chênh lệch vào tổng tiền thay vì tính lại toàn bộ đơn hàng.
+     * Cột version của Order đảm bảo hai lượt cập nhật đồng thời không ghi đè lên nhau.
+     */
+    private void applyTotalDelta(Order order, BigDecimal delta) {
+        BigDecimal current = order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO;
+        order.setTotalAmount(current.add(delta));
+        orderRepository.save(order);
+    }
+    
+    private BigDecimal lineTotal(OrderItem item) {
+        return item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+    }
+    
+    private BigDecimal sumLineTotals(List<OrderItem> orderItems) {
+        return orderItems.stream()
+                .map(this::lineTotal)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+    
+    @Override
+    @Transactional
+    public Order reconcileOrderTotal(Long orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(Exceptions::orderNotFound);
         
-        order.setTotalAmount(total);
-        orderRepository.save(order);
+        BigDecimal actual = orderItemRepository.sumLineTotalsByOrderId(orderId);
+        if (order.getTotalAmount() == null || order.getTotalAmount().compareTo(actual) != 0) {
+            logs.warn(CATEGORY, "Order total drifted, correcting", "orderId", orderId,
+                    "recorded", order.getTotalAmount(), "actual", actual);
+            order.setTotalAmount(actual);
+            order = orderRepository.save(order);
+            publishOrderChanged(orderId, List.of());
+        }
+        return order;
+    }
+    
+    /**
+     * Đối soát định kỳ tổng tiền của các đơn đang hoạt động bằng một truy vấn GROUP BY duy nhất
+     */
+    @Scheduled(fixedDelayString = "${orders.total-reconciliation.interval-ms:300000}")
+    public void reconcileActiveOrderTotals() {
+        try {
+            Map<Long, BigDecimal> actualTotals = orderItemRepository
+                    .sumLineTotalsByOrderStatusIn(List.of(OrderStatus.PENDING, OrderStatus.SERVING)).stream()
+                    .collect(Collectors.toMap(OrderTotalView::getOrderId, OrderTotalView::getLineTotal));
+            
+            for (Order order : orderRepository.findAllById(actualTotals.keySet())) {
+                BigDecimal actual = actualTotals.get(order.getId());
+                if (order.getTotalAmount() == null || order.getTotalAmount().compareTo(actual) != 0) {
+                    self.reconcileOrderTotal(order.getId());
+                }
+            }
+        } catch (Exception e) {
+            logs.error(CATEGORY, "Error reconciling order totals", e);
+        }
     }
 
     @Override
     public OrderResponse getCurrentOrderByTableNumber(String tableNumber) {
+        // Đọc từ chỉ mục trong bộ nhớ, không cần truy vấn cơ sở dữ liệu
+        ActiveOrderIndex.Entry entry = activeOrderIndex.find(tableNumber);
+        if (entry != null) {
+            return entry.snapshot();
+        }
+        if (activeOrderIndex.isWarm()) {
+            throw Exceptions.tableNotFound();
+        }
+        
+        // Chỉ mục chưa được nạp xong: đọc trực tiếp từ cơ sở dữ liệu
         // Tìm bàn theo tableNumber
         Table table = tableRepository.findByTableNumber(tableNumber)
                 .orElseThrow(Exceptions::tableNotFound);
@@ -223,16 +436,53 @@ public class OrderServiceImpl implements OrderService {
             throw new IllegalArgumentException("Đơn hàng phải có ít nhất một món ăn");
         }
         
-        // Tìm bàn theo số bàn
-        Table table = tableRepository.findByTableNumber(tableNumber)
-                .orElseThrow(Exceptions::tableNotFound);
-                
-        // Kiểm tra xem bàn đã có order PENDING hoặc SERVING nào chưa
-        Order order = orderRepository.findByTableAndStatusIn(
-                table, 
-                List.of(OrderStatus.PENDING, OrderStatus.SERVING)
-        );
+        // Kiểm tra dữ liệu đầu vào trước khi chạm vào cơ sở dữ liệu
+        Set<Long> menuItemIds = new HashSet<>();
+        for (OrderItemRequest itemRequest : request.getItems()) {
+            if (itemRequest.getMenuItemId() == null) {
+                throw new IllegalArgumentException("menuItemId không thể trống");
+            }
+            if (itemRequest.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Số lượng phải lớn hơn 0");
+            }
+            menuItemIds.add(itemRequest.getMenuItemId());
+        }
+        
+        // Nạp tất cả món ăn được tham chiếu bằng một truy vấn duy nhất
+        Map<Long, MenuItem> menuItems = menuItemRepository.findAllById(menuItemIds).stream()
+                .collect(Collectors.toMap(MenuItem::getId, Function.identity()));
+        if (menuItems.size() != menuItemIds.size()) {
+            throw Exceptions.menuItemNotFound();
+        }
+        
+        // Gọi thêm món: lấy đơn đang hoạt động qua chỉ mục, chỉ cần nạp đúng một đơn hàng
+        ActiveOrderIndex.Entry entry = activeOrderIndex.find(tableNumber);
+        if (entry == null && activeOrderIndex.isWarm()) {
+            throw Exceptions.tableNotFound();
+        }
+        Order order = null;
+        if (entry != null && entry.orderId() != null) {
+            order = orderRepository.findById(entry.orderId())
+                    .filter(existing -> existing.getStatus() == OrderStatus.PENDING
+                            || existing.getStatus() == OrderStatus.SERVING)
+                    .orElse(null);
+        }
         
+        Table table;
+        if (order != null) {
+            table = order.getTable();
+        } else {
+            // Tìm bàn theo số bàn
+            table = entry != null
+                    ? tableRepository.findById(entry.tableId()).orElseThrow(Exceptions::tableNotFound)
+                    : tableRepository.findByTableNumber(tableNumber).orElseThrow(Exceptions::tableNotFound);
+            
+            // Kiểm tra lại trong cơ sở dữ liệu xem bàn đã có order PENDING hoặc SERVING nào chưa
+            order = orderRepository.findByTableAndStatusIn(
+                    table, 
+                    List.of(OrderStatus.PENDING, OrderStatus.SERVING)
+            );
+        }
         
         boolean isNewOrder = false;
         
@@ -263,57 +513,58 @@ public class OrderServiceImpl implements OrderService {
             }
         }
         
-        // Nếu là đơn hàng mới, lập lịch chuyển trạng thái sau khi đã lưu tất cả OrderItem
-        if (isNewOrder) {
-            // Lập lịch chuyển trạng thái sau 20 giây
-            scheduleOrderStatusChange(order.getId());
-            System.out.println("Scheduled status change for new order " + order.getId());
-        }
-
-        // Thêm các món ăn vào đơn hàng
+        // Tạo toàn bộ OrderItem rồi lưu trong một lần flush
+        LocalDateTime orderAt = LocalDateTime.now();
+        List<OrderItem> newItems = new ArrayList<>(request.getItems().size());
         for (OrderItemRequest itemRequest : request.getItems()) {
-            try {
-                Long menuItemId = itemRequest.getMenuItemId();
-                int quantity = itemRequest.getQuantity();
-                
-                // Xử lý note
-                String note = itemRequest.getNote();
-                
-                // Nếu là gọi thêm món (không phải đơn hàng mới), thêm tiền tố vào ghi chú
-                if (!isNewOrder) {
-                    if (note != null && !note.isEmpty()) {
-                        note = "GỌI THÊM - " + note;
-                    } else {
-                        note = "GỌI THÊM";
-                    }
-                }
-                
-                if (menuItemId == null) {
-                    throw new IllegalArgumentException("menuItemId không thể trống");
-                }
-                
-                if (quantity <= 0) {
-                    throw new IllegalArgumentException("Số lượng phải lớn hơn 0");
+            String note = itemRequest.getNote();
+            
+            // Nếu là gọi thêm món (không phải đơn hàng mới), thêm tiền tố vào ghi chú
+            if (!isNewOrder) {
+                if (note != null && !note.isEmpty()) {
+                    note = "GỌI THÊM - " + note;
+                } else {
+                    note = "GỌI THÊM";
                 }
-                
-                addItemToOrder(order.getId(), menuItemId, quantity, note);
-            } catch (Exception e) {
-                throw new IllegalArgumentException("Có lỗi xảy ra khi đặt món");
             }
+            
+            newItems.add(buildOrderItem(order, menuItems.get(itemRequest.getMenuItemId()),
+                    itemRequest.getQuantity(), note, orderAt));
         }
+        newItems = orderItemRepository.saveAll(newItems);
+        publishItemsAdded(newItems);
         
-        // Cập nhật tổng tiền
-        recalculateOrderTotal(order);
-        
-        // Lấy lại đơn hàng từ cơ sở dữ liệu (đã có tổng tiền)
-        order = orderRepository.findById(order.getId()).orElseThrow(Exceptions::orderNotFound);
-        
+        // Cộng tổng tiền của cả lượt gọi món vào đơn hàng một lần
+        applyTotalDelta(order, sumLineTotals(newItems));
         
+        // Mỗi lượt gọi món chỉ đăng ký một bộ hẹn giờ cho bếp
+        kitchenTimerService.schedule(order.getId());
+        publishOrderChanged(order.getId(), newItems.stream().map(OrderItem::getId).collect(Collectors.toList()));
         
-        // Convert to DTO instead of returning Entity directly
+        // Đơn mới chỉ gồm các món vừa thêm; khi gọi thêm thì ghép với các món đã có trong chỉ mục
+        if (isNewOrder) {
+            return convertOrderToResponse(order, newItems);
+        }
+        if (entry != null && order.getId().equals(entry.orderId()) && entry.snapshot() != null) {
+            OrderResponse response = convertOrderToResponse(order, newItems);
+            response.getItems().addAll(0, entry.snapshot().getItems());
+            return response;
+        }
         return convertOrderToResponse(order, orderItemRepository.findByOrder(order));
     }
     
+    private OrderItem buildOrderItem(Order order, MenuItem menuItem, int quantity, String note, LocalDateTime orderAt) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setOrder(order);
+        orderItem.setMenuItem(menuItem);
+        orderItem.setQuantity(quantity);
+        orderItem.setPrice(menuItem.getPrice());
+        orderItem.setNote(note);
+        orderItem.setStatus(OrderItemStatus.PENDING);
+        orderItem.setOrderAt(orderAt);
+        return orderItem;
+    }
+    
     @Override
     public OrderResponse convertOrderToResponse(Order order, List<OrderItem> orderItems) {
         OrderResponse response = new OrderResponse();
@@ -333,74 +584,26 @@ public class OrderServiceImpl implements OrderService {
         }
 
         List<OrderItemResponse> itemResponses = orderItems.stream()
-            .map(item -> {
-                OrderItemResponse itemResponse = new OrderItemResponse();
-                itemResponse.setId(item.getId());
-                itemResponse.setMenuItemId(item.getMenuItem().getId());
-                itemResponse.setMenuItemName(item.getMenuItem().getName());
-                itemResponse.setQuantity(item.getQuantity());
-                itemResponse.setNote(item.getNote());
-                itemResponse.setStatus(item.getStatus());
-                itemResponse.setPrice(item.getPrice());
-                itemResponse.setOrderAt(item.getOrderAt());
-                return itemResponse;
-            })
+            .map(this::convertOrderItemToResponse)
             .collect(Collectors.toList());
         
         response.setItems(itemResponses);
         return response;
     }
-
-    /**
-     * Lập lịch chuyển trạng thái Order từ PENDING sang COOKING sau 30 giây
-     * @param orderId ID của Order cần chuyển trạng thái
-     */
-    private void scheduleOrderStatusChange(Long orderId) {
-        taskScheduler.schedule(() -> {
-            try {
-                // Sử dụng @Transactional không hoạt động trong scheduled tasks
-                // nên chúng ta cần quản lý transaction thủ công trong task này
-                Order order = orderRepository.findById(orderId).orElse(null);
-                
-                if (order != null && order.getStatus() == OrderStatus.PENDING) {
-                    // Cập nhật trạng thái sang SERVING
-                    Order updatedOrder = updateStatus(order.getId(), OrderStatus.SERVING);
-                    System.out.println("Successfully updated order " + orderId + " to status " + updatedOrder.getStatus());
-                } else if (order != null) {
-                    System.out.println("Order " + orderId + " status was not PENDING, current status: " + order.getStatus());
-                } else {
-                    System.out.println("Order " + orderId + " not found for status update");
-                }
-            } catch (Exception e) {
-                // Ghi log lỗi chi tiết hơn
-                System.err.println("Error updating order status for order " + orderId + ": " + e.getMessage());
-                e.printStackTrace();
-            }
-        }, Instant.now().plus(Duration.ofSeconds(20)));
-    }
     
-    /**
-     * Lập lịch chuyển trạng thái OrderItem từ PENDING sang COOKING sau 30 giây
-     * @param orderItemId ID của OrderItem cần chuyển trạng thái
-     */
-    private void scheduleOrderItemStatusChange(Long orderItemId) {
-        taskScheduler.schedule(() -> {
-            try {
-                OrderItem orderItem = orderItemRepository.findById(orderItemId).orElse(null);
-                
-                if (orderItem != null && orderItem.getStatus() == OrderItemStatus.PENDING) {
-                    OrderItem updatedItem = updateOrderItemStatus(orderItem.getId(), OrderItemStatus.COOKING);
-                    System.out.println("Successfully updated orderItem " + orderItemId + " to status " + updatedItem.getStatus());
-                } else if (orderItem != null) {
-                    System.out.println("OrderItem " + orderItemId + " status was not PENDING, current status: " + orderItem.getStatus());
-                } else {
-                    System.out.println("OrderItem " + orderItemId + " not found for status update");
-                }
-            } catch (Exception e) {
-                System.err.println("Error updating orderItem status for item " + orderItemId + ": " + e.getMessage());
-                e.printStackTrace();
-            }
-        }, Instant.now().plus(Duration.ofSeconds(20)));
+    private OrderItemResponse convertOrderItemToResponse(OrderItem item) {
+        OrderItemResponse itemResponse = new OrderItemResponse();
+        itemResponse.setId(item.getId());
+        itemResponse.setMenuItemId(item.getMenuItem().getId());
+        itemResponse.setMenuItemName(item.getMenuItem().getName());
+        itemResponse.setQuantity(item.getQuantity());
+        itemResponse.setNote(item.getNote());
+        itemResponse.setStatus(item.getStatus());
+        itemResponse.setPrice(item.getPrice());
+        itemResponse.setOrderAt(item.getOrderAt());
+        itemResponse.setKitchenType(item.getMenuItem().getKitchenType());
+        itemResponse.setIsSpicy(item.getMenuItem().getIsSpicy());
+        return itemResponse;
     }
 
     @Override
@@ -422,15 +625,14 @@ public class OrderServiceImpl implements OrderService {
         // Lấy tất cả OrderItem của Order
         List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
         
-        // Chuyển tất cả OrderItem sang trạng thái CANCELLED
-        for (OrderItem item : orderItems) {
-            item.setStatus(OrderItemStatus.CANCELLED);
-            orderItemRepository.save(item);
-        }
+        // Chuyển tất cả OrderItem sang trạng thái CANCELLED bằng một câu UPDATE
+        orderItemRepository.updateStatusByOrderId(orderId, OrderItemStatus.CANCELLED);
         
         // Chuyển Order sang trạng thái CANCELLED
         order.setStatus(OrderStatus.CANCELLED);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        publishOrderChanged(orderId, orderItems.stream().map(OrderItem::getId).collect(Collectors.toList()));
+        return savedOrder;
     }
     
     @Override
@@ -439,26 +641,58 @@ public class OrderServiceImpl implements OrderService {
                 .orElseThrow(Exceptions::orderNotFound);
         
         order.setNeedAssistance(needAssistance);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        publishOrderChanged(orderId, List.of());
+        return savedOrder;
     }
     
     @Override
     public Order requestAssistanceByTable(String tableNumber, Boolean needAssistance) {
-        // Tìm bàn theo tableNumber
-        Table table = tableRepository.findByTableNumber(tableNumber)
-                .orElseThrow(Exceptions::tableNotFound);
-        
-        // Tìm order với status là PENDING hoặc SERVING
-        Order order = orderRepository.findByTableAndStatusIn(
-                table, 
-                List.of(OrderStatus.PENDING, OrderStatus.SERVING)
-        );
+        Order order;
+        ActiveOrderIndex.Entry entry = activeOrderIndex.find(tableNumber);
+        if (entry != null || activeOrderIndex.isWarm()) {
+            if (entry == null) {
+                throw Exceptions.tableNotFound();
+            }
+            // Chỉ mục cho biết đơn đang hoạt động, chỉ cần nạp đơn đó để cập nhật
+            order = entry.orderId() == null ? null : orderRepository.findById(entry.orderId()).orElse(null);
+        } else {
+            // Tìm bàn theo tableNumber
+            Table table = tableRepository.findByTableNumber(tableNumber)
+                    .orElseThrow(Exceptions::tableNotFound);
+            
+            // Tìm order với status là PENDING hoặc SERVING
+            order = orderRepository.findByTableAndStatusIn(
+                    table, 
+                    List.of(OrderStatus.PENDING, OrderStatus.SERVING)
+            );
+        }
         
         if (order == null) {
             throw Exceptions.orderNotFound();
         }
         
         order.setNeedAssistance(needAssistance);
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        publishOrderChanged(savedOrder.getId(), List.of());
+        return savedOrder;
+    }
+    
+    /**
+     * Thông báo thay đổi cho các luồng SSE; listener chỉ nhận sau khi transaction commit
+     */
+    private void publishOrderChanged(Long orderId, Collection<Long> changedItemIds) {
+        eventPublisher.publishEvent(new OrderChangedEvent(orderId, changedItemIds));
+    }
+    
+    // Cập nhật bảng xếp hạng món bán chạy theo thời gian thực
+    private void publishItemsAdded(List<OrderItem> orderItems) {
+        eventPublisher.publishEvent(new OrderItemsAddedEvent(orderItems.stream()
+                .map(item -> new OrderItemsAddedEvent.Sale(
+                        item.getMenuItem().getId(),
+                        item.getMenuItem().getName(),
+                        item.getMenuItem().getCategory(),
+                        item.getQuantity()))
+                .collect(Collectors.toList())));
     }
 }
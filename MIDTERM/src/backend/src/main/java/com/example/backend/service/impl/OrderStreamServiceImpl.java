@@ -0,0 +1,82 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.OrderResponse;
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.logging.AsyncLogPipeline;
+import com.example.backend.model.Order;
+import com.example.backend.repository.OrderItemRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.service.OrderService;
+import com.example.backend.service.OrderStreamService;
+import com.example.backend.stream.SseTopicRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Service
+public class OrderStreamServiceImpl implements OrderStreamService {
+
+    static final String ORDER_EVENT = "order";
+    static final String NO_ACTIVE_ORDER_EVENT = "no-active-order";
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final SseTopicRegistry<String> registry;
+    private final AsyncLogPipeline logs;
+
+    public OrderStreamServiceImpl(OrderService orderService,
+                                  OrderRepository orderRepository,
+                                  OrderItemRepository orderItemRepository,
+                                  AsyncLogPipeline logs,
+                                  @Value("${orders.stream.replay-capacity:32}") int replayCapacity,
+                                  @Value("${orders.stream.timeout-ms:1800000}") long timeoutMillis) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.logs = logs;
+        this.registry = new SseTopicRegistry<>(replayCapacity, timeoutMillis);
+    }
+
+    @Override
+    public SseEmitter subscribe(String tableNumber, String lastEventId) {
+        // Kiểm tra bàn tồn tại trước khi mở kết nối (ném tableNotFound nếu không có)
+        orderService.getCurrentOrderByTableNumber(tableNumber);
+        // Snapshot được đọc lại sau khi đăng ký để không bỏ sót thay đổi xảy ra ở giữa
+        return registry.subscribe(tableNumber, lastEventId, () -> {
+            OrderResponse current = orderService.getCurrentOrderByTableNumber(tableNumber);
+            return current != null
+                    ? new SseTopicRegistry.Snapshot(ORDER_EVENT, current)
+                    : new SseTopicRegistry.Snapshot(NO_ACTIVE_ORDER_EVENT, tableNumber);
+        });
+    }
+
+    /**
+     * Đẩy trạng thái mới của đơn hàng tới các thiết bị đang theo dõi bàn sau khi transaction commit
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        try {
+            // Phần lớn thay đổi xảy ra khi không có thiết bị nào theo dõi bàn: chỉ đọc số bàn rồi dừng
+            String tableNumber = orderRepository.findTableNumberById(event.getOrderId()).orElse(null);
+            if (tableNumber == null || registry.discardIfIdle(tableNumber)) {
+                return;
+            }
+            Order order = orderRepository.findById(event.getOrderId()).orElse(null);
+            if (order == null || order.getTable() == null) {
+                return;
+            }
+            OrderResponse response = orderService.convertOrderToResponse(order, orderItemRepository.findByOrder(order));
+            registry.publish(order.getTable().getTableNumber(), ORDER_EVENT, response);
+        } catch (Exception e) {
+            logs.error("orders", "Error streaming order", e, "orderId", event.getOrderId());
+        }
+    }
+
+    @Scheduled(fixedRateString = "${orders.stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        registry.heartbeat();
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.OrderItemRequest;
+import com.example.backend.dto.OrderRequest;
+import com.example.backend.dto.OrderResponse;
+import com.example.backend.exception.Exceptions;
+import com.example.backend.model.OrderSubmission;
+import com.example.backend.repository.OrderSubmissionRepository;
+import com.example.backend.service.OrderService;
+import com.example.backend.service.OrderSubmissionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Xử lý Idempotency-Key cho POST /api/orders/customer/{tableNumber}.
+ * Lần gửi lại được trả lời từ bộ nhớ (giới hạn số lượng, hết hạn theo thời gian);
+ * bảng order_submissions với ràng buộc unique là nguồn sự thật khi bộ nhớ đã bị xóa hoặc chạy nhiều instance.
+ * Mỗi key được gắn với dấu vân tay của danh sách món; gửi lại cùng key với nội dung khác bị từ chối (422)
+ * thay vì âm thầm trả về đơn cũ.
+ */
+@Service
+public class OrderSubmissionServiceImpl implements OrderSubmissionService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final OrderService orderService;
+    private final OrderSubmissionRepository submissionRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+
+    private final Cache<String, CachedSubmission> recent;
+    // Các lượt gửi đang xử lý: lần bấm thứ hai chờ kết quả của lần đầu thay vì chạy lại
+    private final Map<String, CompletableFuture<CachedSubmission>> inFlight = new ConcurrentHashMap<>();
+
+    public OrderSubmissionServiceImpl(OrderService orderService,
+                                      OrderSubmissionRepository submissionRepository,
+                                      ObjectMapper objectMapper,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${orders.idempotency.cache-size:10000}") long cacheSize,
+                                      @Value("${orders.idempotency.cache-ttl-minutes:30}") long cacheTtlMinutes,
+                                      @Value("${orders.idempotency.retention-hours:24}") long retentionHours) {
+        this.orderService = orderService;
+        this.submissionRepository = submissionRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = Duration.ofHours(retentionHours);
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .build();
+    }
+
+    @Override
+    public OrderResponse submitCustomerOrder(String tableNumber, OrderRequest request, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return orderService.createCustomerOrder(tableNumber, request);
+        }
+        String key = idempotencyKey.trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw Exceptions.invalidIdempotencyKey();
+        }
+
+        String requestHash = fingerprint(request);
+        CachedSubmission cached = recent.getIfPresent(key);
+        if (cached != null) {
+            return cached.responseFor(tableNumber, requestHash);
+        }
+
+        CompletableFuture<CachedSubmission> future = new CompletableFuture<>();
+        CompletableFuture<CachedSubmission> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing).responseFor(tableNumber, requestHash);
+        }
+        try {
+            CachedSubmission result = submitOnce(key, tableNumber, request, requestHash);
+            recent.put(key, result);
+            future.complete(result);
+            return result.responseFor(tableNumber, requestHash);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private CachedSubmission submitOnce(String key, String tableNumber, OrderRequest request, String requestHash) {
+        // Lượt gửi trước đó có thể đã bị đẩy khỏi bộ nhớ hoặc được xử lý bởi instance khác
+        CachedSubmission stored = findStored(key);
+        if (stored != null) {
+            return stored;
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                // Chèn key trước: lượt trùng đồng thời sẽ chờ khóa rồi lỗi unique, không chạy lại cả quy trình
+                OrderSubmission submission = submissionRepository.saveAndFlush(
+                        new OrderSubmission(null, key, tableNumber, requestHash, null, null, LocalDateTime.now()));
+                OrderResponse response = orderService.createCustomerOrder(tableNumber, request);
+                submission.setOrderId(response.getId());
+                submission.setResponseJson(toJson(response));
+                submissionRepository.save(submission);
+                return new CachedSubmission(tableNumber, requestHash, response);
+            });
+        } catch (DataIntegrityViolationException e) {
+            stored = findStored(key);
+            if (stored == null) {
+                throw e;
+            }
+            return stored;
+        }
+    }
+
+    private CachedSubmission findStored(String key) {
+        return submissionRepository.findByIdempotencyKey(key)
+                .filter(submission -> submission.getResponseJson() != null)
+                .map(submission -> new CachedSubmission(submission.getTableNumber(), submission.getRequestHash(),
+                        fromJson(submission.getResponseJson())))
+                .orElse(null);
+    }
+
+    /**
+     * Xóa các key đã quá thời gian lưu giữ
+     */
+    @Scheduled(fixedDelayString = "${orders.idempotency.cleanup-interval-ms:3600000}")
+    public void purgeExpiredSubmissions() {
+        transactionTemplate.executeWithoutResult(status ->
+                submissionRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention)));
+    }
+
+    /**
+     * SHA-256 của danh sách món sau khi sắp xếp, để thứ tự món trong giỏ không ảnh hưởng
+     */
+    private String fingerprint(OrderRequest request) {
+        List<OrderItemRequest> items = request.getItems() != null ? request.getItems() : List.of();
+        StringBuilder normalized = new StringBuilder();
+        items.stream()
+                .map(item -> item.getMenuItemId() + ":" + item.getQuantity() + ":"
+                        + (item.getNote() != null ? item.getNote().trim() : ""))
+                .sorted(Comparator.naturalOrder())
+                .forEach(line -> normalized.append(line).append('\n'));
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(normalized.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CachedSubmission await(CompletableFuture<CachedSubmission> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String toJson(OrderResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Không thể lưu kết quả đơn hàng", e);
+        }
+    }
+
+    private OrderResponse fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, OrderResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Không thể đọc kết quả đơn hàng đã lưu", e);
+        }
+    }
+
+    private record CachedSubmission(String tableNumber, String requestHash, OrderResponse response) {
+        OrderResponse responseFor(String requestedTable, String requestedHash) {
+            // Một key chỉ hợp lệ cho đúng bàn và đúng danh sách món đã dùng nó lần đầu
+            if (tableNumber != null && !tableNumber.equals(requestedTable)) {
+                throw Exceptions.idempotencyKeyReused();
+            }
+            // Bản ghi lưu trước khi có cột request_hash thì không kiểm tra được
+            if (requestHash != null && !requestHash.equals(requestedHash)) {
+                throw Exceptions.idempotencyKeyPayloadMismatch();
+            }
+            return response;
+        }
+    }
+}
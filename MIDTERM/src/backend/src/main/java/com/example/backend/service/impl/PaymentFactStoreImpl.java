@@ -0,0 +1,404 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.ReportSliceDTO;
+import com.example.backend.dto.ReportSliceDimension;
+import com.example.backend.event.PaymentRecordedEvent;
+import com.example.backend.logging.AsyncLogPipeline;
+import com.example.backend.model.enums.PaymentMethod;
+import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.projection.PaymentFactView;
+import com.example.backend.service.PaymentFactStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Kho dữ kiện thanh toán dạng cột: mỗi thuộc tính là một mảng nguyên thủy, các dòng được sắp theo thời gian.
+ * Nạp từ cơ sở dữ liệu (hoặc từ snapshot ánh xạ bộ nhớ) khi khởi động, sau đó được nối thêm sau mỗi thanh toán.
+ * Snapshot được ghi định kỳ và khi tắt ứng dụng để lần khởi động sau chỉ cần đọc các thanh toán mới.
+ */
+@Service
+public class PaymentFactStoreImpl implements PaymentFactStore {
+
+    private static final int SNAPSHOT_MAGIC = 0x50465331; // "PFS1"
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final int ROW_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES + Byte.BYTES + Long.BYTES + Long.BYTES;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final long NONE = -1L;
+    private static final PaymentMethod[] METHODS = PaymentMethod.values();
+
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Path snapshotPath;
+    private final int catchUpOverlapMinutes;
+    private final AsyncLogPipeline logs;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] paymentIds = new long[1024];
+    private int[] epochMinutes = new int[1024];
+    private long[] amountCents = new long[1024];
+    private byte[] methodOrdinals = new byte[1024];
+    private long[] tableIds = new long[1024];
+    private long[] waiterIds = new long[1024];
+    private int size;
+    private long maxPaymentId;
+    private volatile boolean ready;
+    private volatile boolean dirty;
+
+    public PaymentFactStoreImpl(PaymentRepository paymentRepository,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                AsyncLogPipeline logs,
+                                @Value("${reports.facts.snapshot-path:data/payment-facts.bin}") String snapshotPath,
+                                @Value("${reports.facts.catch-up-overlap-minutes:60}") int catchUpOverlapMinutes) {
+        this.paymentRepository = paymentRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.catchUpOverlapMinutes = catchUpOverlapMinutes;
+        this.logs = logs;
+
+        Gauge.builder("reports.facts.size", this, PaymentFactStoreImpl::getSize)
+                .description("Số thanh toán trong kho dữ kiện dạng cột")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Nạp dữ liệu ở luồng nền để không làm chậm quá trình khởi động;
+     * trong lúc đó báo cáo vẫn đọc từ cơ sở dữ liệu
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Thread.ofVirtual().name("payment-fact-loader").start(() -> {
+            try {
+                // Nạp tiếp từ mốc của snapshot, không dùng maxPaymentId hiện tại:
+                // thanh toán mới đến qua onPaymentRecorded có thể đã nâng mốc này trong lúc nạp.
+                // Id IDENTITY không commit theo thứ tự, nên đọc lại thêm một khoảng thời gian trước thanh toán
+                // cuối của snapshot; phần chồng lấn được append bỏ qua vì trùng id.
+                SnapshotMark mark = loadSnapshot();
+                LocalDateTime since = LocalDateTime.ofEpochSecond(
+                        (mark.lastEpochMinute() - (long) catchUpOverlapMinutes) * 60, 0, ZoneOffset.UTC);
+                int loaded = readOnlyTransaction.execute(status -> {
+                    try (Stream<PaymentFactView> facts = paymentRepository.streamFactsForCatchUp(mark.maxPaymentId(), since)) {
+                        int[] count = {0};
+                        facts.forEach(fact -> {
+                            append(fact.getId(), fact.getPaymentTime(), fact.getAmount(), fact.getPaymentMethod(),
+                                    fact.getTableId(), fact.getWaiterId());
+                            count[0]++;
+                        });
+                        return count[0];
+                    }
+                });
+                ready = true;
+                logs.info("reports", "Payment fact store ready", "payments", getSize(), "loadedFromDatabase", loaded);
+            } catch (Exception e) {
+                logs.error("reports", "Error loading payment fact store", e);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentRecorded(PaymentRecordedEvent event) {
+        append(event.getPaymentId(), event.getPaymentTime(), event.getAmount(), event.getPaymentMethod(),
+                event.getTableId(), event.getWaiterId());
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getSize() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEach(LocalDateTime startDate, LocalDateTime endDate, FactVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            int from = lowerBound(PaymentFactStore.toEpochMinute(startDate));
+            int to = lowerBound(PaymentFactStore.toEpochMinute(endDate) + 1);
+            for (int i = from; i < to; i++) {
+                visitor.visit(epochMinutes[i], amountCents[i], methodOrdinals[i], tableIds[i], waiterIds[i]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ReportSliceDTO> slice(LocalDateTime startDate, LocalDateTime endDate, ReportSliceDimension dimension) {
+        Map<Long, long[]> groups = new TreeMap<>();
+        forEach(startDate, endDate, (epochMinute, cents, methodOrdinal, tableId, waiterId) -> {
+            long key = switch (dimension) {
+                case DAY -> epochMinute / MINUTES_PER_DAY;
+                case HOUR -> (epochMinute % MINUTES_PER_DAY) / 60;
+                case PAYMENT_METHOD -> methodOrdinal;
+                case TABLE -> tableId;
+                case WAITER -> waiterId;
+            };
+            long[] totals = groups.computeIfAbsent(key, k -> new long[2]);
+            totals[0]++;
+            totals[1] += cents;
+        });
+
+        List<ReportSliceDTO> result = new ArrayList<>(groups.size());
+        groups.forEach((key, totals) -> result.add(
+                new ReportSliceDTO(labelOf(dimension, key), (int) totals[0], BigDecimal.valueOf(totals[1], 2))));
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${reports.facts.snapshot-interval-ms:600000}")
+    public void snapshotIfDirty() {
+        if (ready && dirty) {
+            writeSnapshot();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotIfDirty();
+    }
+
+    /**
+     * Chèn giữ thứ tự thời gian; thanh toán commit lệch thứ tự chỉ phải dịch vài phần tử ở cuối.
+     * Thanh toán đã có (ví dụ vừa nạp từ cơ sở dữ liệu vừa nhận qua sự kiện) được bỏ qua.
+     */
+    private void append(Long paymentId, LocalDateTime paymentTime, BigDecimal amount, PaymentMethod method,
+                        Long tableId, Long waiterId) {
+        insert(paymentId, PaymentFactStore.toEpochMinute(paymentTime), ReportAggregate.toCents(amount),
+                (byte) method.ordinal(), tableId != null ? tableId : NONE, waiterId != null ? waiterId : NONE);
+    }
+
+    /**
+     * Chèn một dòng theo thứ tự epochMinute; dòng trùng paymentId trong cùng phút được bỏ qua
+     */
+    private void insert(long paymentId, int epochMinute, long cents, byte methodOrdinal, long tableId, long waiterId) {
+        lock.writeLock().lock();
+        try {
+            int position = lowerBound(epochMinute + 1);
+            for (int i = position - 1; i >= 0 && epochMinutes[i] == epochMinute; i--) {
+                if (paymentIds[i] == paymentId) {
+                    return;
+                }
+            }
+            ensureCapacity(size + 1);
+            int moved = size - position;
+            if (moved > 0) {
+                System.arraycopy(paymentIds, position, paymentIds, position + 1, moved);
+                System.arraycopy(epochMinutes, position, epochMinutes, position + 1, moved);
+                System.arraycopy(amountCents, position, amountCents, position + 1, moved);
+                System.arraycopy(methodOrdinals, position, methodOrdinals, position + 1, moved);
+                System.arraycopy(tableIds, position, tableIds, position + 1, moved);
+                System.arraycopy(waiterIds, position, waiterIds, position + 1, moved);
+            }
+            paymentIds[position] = paymentId;
+            epochMinutes[position] = epochMinute;
+            amountCents[position] = cents;
+            methodOrdinals[position] = methodOrdinal;
+            tableIds[position] = tableId;
+            waiterIds[position] = waiterId;
+            size++;
+            maxPaymentId = Math.max(maxPaymentId, paymentId);
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vị trí đầu tiên có epochMinute >= minute
+     */
+    private int lowerBound(int minute) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochMinutes[mid] < minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= epochMinutes.length) {
+            return;
+        }
+        int capacity = Math.max(required, epochMinutes.length + (epochMinutes.length >> 1));
+        paymentIds = Arrays.copyOf(paymentIds, capacity);
+        epochMinutes = Arrays.copyOf(epochMinutes, capacity);
+        amountCents = Arrays.copyOf(amountCents, capacity);
+        methodOrdinals = Arrays.copyOf(methodOrdinals, capacity);
+        tableIds = Arrays.copyOf(tableIds, capacity);
+        waiterIds = Arrays.copyOf(waiterIds, capacity);
+    }
+
+    private String labelOf(ReportSliceDimension dimension, long key) {
+        return switch (dimension) {
+            case DAY -> LocalDate.ofEpochDay(key).toString();
+            case HOUR -> String.format("%02d:00", key);
+            case PAYMENT_METHOD -> METHODS[(int) key].toString();
+            case TABLE, WAITER -> key == NONE ? "N/A" : String.valueOf(key);
+        };
+    }
+
+    /**
+     * Đọc snapshot bằng ánh xạ bộ nhớ; snapshot hỏng hoặc khác định dạng thì bỏ qua và nạp lại từ đầu.
+     * Các dòng đã được thêm trực tiếp trước khi đọc xong snapshot được giữ lại.
+     *
+     * @return paymentId lớn nhất và phút của thanh toán cuối trong snapshot
+     */
+    private SnapshotMark loadSnapshot() {
+        if (!Files.exists(snapshotPath)) {
+            return SnapshotMark.NONE;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (channel.size() < HEADER_BYTES || buffer.getInt(0) != SNAPSHOT_MAGIC) {
+                return SnapshotMark.NONE;
+            }
+            int count = buffer.getInt(Integer.BYTES);
+            if (count < 0 || channel.size() != HEADER_BYTES + (long) count * ROW_BYTES) {
+                return SnapshotMark.NONE;
+            }
+            lock.writeLock().lock();
+            try {
+                int liveCount = size;
+                long[] liveIds = Arrays.copyOf(paymentIds, liveCount);
+                int[] liveMinutes = Arrays.copyOf(epochMinutes, liveCount);
+                long[] liveCents = Arrays.copyOf(amountCents, liveCount);
+                byte[] liveMethods = Arrays.copyOf(methodOrdinals, liveCount);
+                long[] liveTables = Arrays.copyOf(tableIds, liveCount);
+                long[] liveWaiters = Arrays.copyOf(waiterIds, liveCount);
+
+                ensureCapacity(count + liveCount);
+                int offset = HEADER_BYTES;
+                buffer.position(offset).slice().asLongBuffer().get(paymentIds, 0, count);
+                offset += count * Long.BYTES;
+                buffer.position(offset).slice().asIntBuffer().get(epochMinutes, 0, count);
+                offset += count * Integer.BYTES;
+                buffer.position(offset).slice().asLongBuffer().get(amountCents, 0, count);
+                offset += count * Long.BYTES;
+                buffer.position(offset).slice().get(methodOrdinals, 0, count);
+                offset += count;
+                buffer.position(offset).slice().asLongBuffer().get(tableIds, 0, count);
+                offset += count * Long.BYTES;
+                buffer.position(offset).slice().asLongBuffer().get(waiterIds, 0, count);
+                size = count;
+                long snapshotMaxId = 0;
+                for (int i = 0; i < count; i++) {
+                    snapshotMaxId = Math.max(snapshotMaxId, paymentIds[i]);
+                }
+                maxPaymentId = snapshotMaxId;
+                // Các dòng được sắp theo thời gian nên dòng cuối là thanh toán muộn nhất
+                int lastEpochMinute = count > 0 ? epochMinutes[count - 1] : 0;
+                for (int i = 0; i < liveCount; i++) {
+                    insert(liveIds[i], liveMinutes[i], liveCents[i], liveMethods[i], liveTables[i], liveWaiters[i]);
+                }
+                return new SnapshotMark(snapshotMaxId, lastEpochMinute);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            logs.error("reports", "Error reading payment fact snapshot", e, "path", snapshotPath);
+            return SnapshotMark.NONE;
+        }
+    }
+
+    /**
+     * Sao chép các cột dưới khóa đọc rồi ghi ra file tạm và đổi tên để snapshot luôn nhất quán
+     */
+    private void writeSnapshot() {
+        long[] ids;
+        int[] minutes;
+        long[] cents;
+        byte[] methods;
+        long[] tables;
+        long[] waiters;
+        int count;
+        lock.readLock().lock();
+        try {
+            count = size;
+            ids = Arrays.copyOf(paymentIds, count);
+            minutes = Arrays.copyOf(epochMinutes, count);
+            cents = Arrays.copyOf(amountCents, count);
+            methods = Arrays.copyOf(methodOrdinals, count);
+            tables = Arrays.copyOf(tableIds, count);
+            waiters = Arrays.copyOf(waiterIds, count);
+            dirty = false;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) count * ROW_BYTES);
+                buffer.putInt(SNAPSHOT_MAGIC).putInt(count);
+                putLongs(buffer, ids);
+                buffer.asIntBuffer().put(minutes);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                putLongs(buffer, cents);
+                buffer.put(methods);
+                putLongs(buffer, tables);
+                putLongs(buffer, waiters);
+                buffer.force();
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            dirty = true;
+            logs.error("reports", "Error writing payment fact snapshot", e, "path", snapshotPath);
+        }
+    }
+
+    private void putLongs(ByteBuffer buffer, long[] values) {
+        buffer.asLongBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Long.BYTES);
+    }
+
+    private record SnapshotMark(long maxPaymentId, int lastEpochMinute) {
+        static final SnapshotMark NONE = new SnapshotMark(0, 0);
+    }
+}
@@ -1,18 +1,28 @@
 package com.example.backend.service.impl;
 
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.KeysetCursor;
+import com.example.backend.dto.PaymentResponse;
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.event.PaymentRecordedEvent;
 import com.example.backend.model.Order;
 import com.example.backend.model.Payment;
 import com.example.backend.model.enums.PaymentMethod;
 import com.example.backend.repository.PaymentRepository;
 import com.example.backend.service.OrderService;
 import com.example.backend.service.PaymentService;
+import com.example.backend.service.ReportRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
@@ -21,11 +31,22 @@ public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderService orderService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReportRollupService reportRollupService;
+    
+    @Value("${pagination.default-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${pagination.max-size:200}")
+    private int maxPageSize;
 
     @Autowired
-    public PaymentServiceImpl(PaymentRepository paymentRepository, OrderService orderService) {
+    public PaymentServiceImpl(PaymentRepository paymentRepository, OrderService orderService,
+                              ApplicationEventPublisher eventPublisher, ReportRollupService reportRollupService) {
         this.paymentRepository = paymentRepository;
         this.orderService = orderService;
+        this.eventPublisher = eventPublisher;
+        this.reportRollupService = reportRollupService;
     }
 
     @Override
@@ -47,7 +68,9 @@ public class PaymentServiceImpl implements PaymentService {
         payment.setPaymentMethod(paymentMethod);
         payment.setReceiptNumber(generateReceiptNumber());
         
-        return paymentRepository.save(payment);
+        Payment savedPayment = paymentRepository.save(payment);
+        recordPayment(savedPayment);
+        return savedPayment;
     }
 
     @Override
@@ -72,13 +95,31 @@ public class PaymentServiceImpl implements PaymentService {
         
         // Lưu thanh toán
         Payment savedPayment = paymentRepository.save(payment);
+        recordPayment(savedPayment);
         
         // Cập nhật trạng thái đơn hàng
         order.setIsPaid(true);
+        eventPublisher.publishEvent(new OrderChangedEvent(orderId));
         
         return savedPayment;
     }
 
+    /**
+     * Cộng vào bảng tổng hợp báo cáo trong cùng transaction với thanh toán
+     * và thông báo cho kho dữ kiện sau khi commit
+     */
+    private void recordPayment(Payment payment) {
+        reportRollupService.recordPayment(payment);
+        Order order = payment.getOrder();
+        eventPublisher.publishEvent(new PaymentRecordedEvent(
+                payment.getId(),
+                payment.getPaymentTime(),
+                payment.getAmount(),
+                payment.getPaymentMethod(),
+                order.getTable() != null ? order.getTable().getId() : null,
+                order.getWaiterId()));
+    }
+
     @Override
     public Payment getPaymentById(Long id) {
         return paymentRepository.findById(id)
@@ -90,6 +131,31 @@ public class PaymentServiceImpl implements PaymentService {
         return paymentRepository.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentResponse> getPaymentPage(PaymentMethod paymentMethod, String tableNumber,
+                                                      String cursor, Integer size) {
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        
+        // Lấy dư một bản ghi để biết còn trang sau hay không
+        List<PaymentResponse> rows = paymentRepository.findResponsePage(
+                paymentMethod,
+                tableNumber,
+                after != null ? after.time() : null,
+                after != null ? after.id() : null,
+                PageRequest.of(0, pageSize + 1));
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<PaymentResponse> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            PaymentResponse last = items.get(items.size() - 1);
+            nextCursor = new KeysetCursor(last.getPaymentTime(), last.getId()).encode();
+        }
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
     @Override
     public List<Payment> getPaymentsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
         return paymentRepository.findByPaymentTimeBetween(startDate, endDate);
@@ -0,0 +1,304 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.ReportDTO.CategorySalesDTO;
+import com.example.backend.dto.ReportDTO.HourlyAnalysisDTO;
+import com.example.backend.dto.ReportDTO.PaymentMethodAnalysisDTO;
+import com.example.backend.dto.ReportDTO.RevenuePeriodDTO;
+import com.example.backend.dto.ReportDTO.TimeOfDayAnalysisDTO;
+import com.example.backend.model.enums.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Bộ tổng hợp báo cáo một lượt.
+ * Tiền được cộng dồn dưới dạng số nguyên (đơn vị 1/100) trong các mảng đánh chỉ số theo
+ * ngày, giờ và phương thức thanh toán; chỉ chuyển sang BigDecimal và nhãn hiển thị khi tạo DTO.
+ */
+final class ReportAggregate {
+
+    private static final PaymentMethod[] METHODS = PaymentMethod.values();
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final String[] HOUR_LABELS = new String[24];
+    private static final String[] TIME_SLOTS = {
+            "Sáng (6h-11h)", "Trưa (11h-14h)", "Chiều (14h-18h)", "Tối (18h-22h)", "Đêm (22h-6h)"
+    };
+    // Khung giờ của từng giờ trong ngày, theo thứ tự TIME_SLOTS
+    private static final int[] SLOT_OF_HOUR = new int[24];
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("dd/MM");
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("MM/yyyy");
+
+    static {
+        for (int hour = 0; hour < 24; hour++) {
+            HOUR_LABELS[hour] = String.format("%02d:00", hour);
+            if (hour >= 6 && hour < 11) {
+                SLOT_OF_HOUR[hour] = 0;
+            } else if (hour >= 11 && hour < 14) {
+                SLOT_OF_HOUR[hour] = 1;
+            } else if (hour >= 14 && hour < 18) {
+                SLOT_OF_HOUR[hour] = 2;
+            } else if (hour >= 18 && hour < 22) {
+                SLOT_OF_HOUR[hour] = 3;
+            } else {
+                SLOT_OF_HOUR[hour] = 4;
+            }
+        }
+    }
+
+    private final LocalDate firstDay;
+    private final LocalDate lastDay;
+    private final long[] dailyCents;
+    private final int[] hourlyCount = new int[24];
+    private final long[] hourlyCents = new long[24];
+    private final int[] methodCount = new int[METHODS.length];
+    private final long[] methodCents = new long[METHODS.length];
+    private final Map<String, CategoryTotals> categories = new HashMap<>();
+    private final Map<Long, ItemTotals> items = new HashMap<>();
+    private int paidOrders;
+
+    ReportAggregate(LocalDate firstDay, LocalDate lastDay) {
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.dailyCents = new long[(int) ChronoUnit.DAYS.between(firstDay, lastDay) + 1];
+    }
+
+    /**
+     * Cộng một thanh toán vào tất cả các chiều phân tích trong một lần
+     */
+    void addPayment(LocalDateTime paymentTime, PaymentMethod method, BigDecimal amount) {
+        long cents = toCents(amount);
+        int dayOffset = (int) ChronoUnit.DAYS.between(firstDay, paymentTime.toLocalDate());
+        if (dayOffset >= 0 && dayOffset < dailyCents.length) {
+            dailyCents[dayOffset] += cents;
+        }
+        int hour = paymentTime.getHour();
+        hourlyCount[hour]++;
+        hourlyCents[hour] += cents;
+        methodCount[method.ordinal()]++;
+        methodCents[method.ordinal()] += cents;
+    }
+
+    /**
+     * Cộng một dữ kiện từ kho dạng cột; epochMinute tính theo giờ địa phương
+     */
+    void addPaymentFact(int epochMinute, long cents, int methodOrdinal) {
+        int dayOffset = (int) (epochMinute / MINUTES_PER_DAY - firstDay.toEpochDay());
+        if (dayOffset >= 0 && dayOffset < dailyCents.length) {
+            dailyCents[dayOffset] += cents;
+        }
+        int hour = (epochMinute % MINUTES_PER_DAY) / 60;
+        hourlyCount[hour]++;
+        hourlyCents[hour] += cents;
+        methodCount[methodOrdinal]++;
+        methodCents[methodOrdinal] += cents;
+    }
+
+    void addDailyRevenue(LocalDate day, BigDecimal amount) {
+        int dayOffset = (int) ChronoUnit.DAYS.between(firstDay, day);
+        if (dayOffset >= 0 && dayOffset < dailyCents.length) {
+            dailyCents[dayOffset] += toCents(amount);
+        }
+    }
+
+    void addHourly(int hour, int count, BigDecimal amount) {
+        hourlyCount[hour] += count;
+        hourlyCents[hour] += toCents(amount);
+    }
+
+    void addPaymentMethod(PaymentMethod method, int count, BigDecimal amount) {
+        methodCount[method.ordinal()] += count;
+        methodCents[method.ordinal()] += toCents(amount);
+    }
+
+    void addPaidOrders(int count) {
+        paidOrders += count;
+    }
+
+    void addItemSales(Long menuItemId, String name, String category, BigDecimal price, int quantity, BigDecimal amount) {
+        addCategorySales(category, quantity, amount);
+        addTopSellingItem(menuItemId, name, category, price, quantity, amount);
+    }
+
+    void addCategorySales(String category, int quantity, BigDecimal amount) {
+        CategoryTotals totals = categories.computeIfAbsent(category, key -> new CategoryTotals());
+        totals.quantity += quantity;
+        totals.cents += toCents(amount);
+    }
+
+    void addTopSellingItem(Long menuItemId, String name, String category, BigDecimal price, int quantity, BigDecimal amount) {
+        ItemTotals totals = items.computeIfAbsent(menuItemId, key -> new ItemTotals(menuItemId, name, category, price));
+        totals.quantity += quantity;
+        totals.cents += toCents(amount);
+    }
+
+    /**
+     * Gộp kết quả của một phân đoạn có cùng khoảng ngày vào bộ tổng hợp này
+     */
+    void merge(ReportAggregate other) {
+        for (int offset = 0; offset < dailyCents.length; offset++) {
+            dailyCents[offset] += other.dailyCents[offset];
+        }
+        for (int hour = 0; hour < 24; hour++) {
+            hourlyCount[hour] += other.hourlyCount[hour];
+            hourlyCents[hour] += other.hourlyCents[hour];
+        }
+        for (int method = 0; method < METHODS.length; method++) {
+            methodCount[method] += other.methodCount[method];
+            methodCents[method] += other.methodCents[method];
+        }
+        other.categories.forEach((category, totals) -> {
+            CategoryTotals merged = categories.computeIfAbsent(category, key -> new CategoryTotals());
+            merged.quantity += totals.quantity;
+            merged.cents += totals.cents;
+        });
+        other.items.forEach((menuItemId, totals) -> {
+            ItemTotals merged = items.computeIfAbsent(menuItemId,
+                    key -> new ItemTotals(menuItemId, totals.menuItemName, totals.category, totals.price));
+            merged.quantity += totals.quantity;
+            merged.cents += totals.cents;
+        });
+        paidOrders += other.paidOrders;
+    }
+
+    int getPaidOrders() {
+        return paidOrders;
+    }
+
+    BigDecimal totalRevenue() {
+        long total = 0;
+        for (long cents : dailyCents) {
+            total += cents;
+        }
+        return fromCents(total);
+    }
+
+    BigDecimal averageOrderValue() {
+        if (paidOrders == 0) {
+            return BigDecimal.ZERO;
+        }
+        return totalRevenue().divide(new BigDecimal(paidOrders), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Doanh thu theo ngày nếu khoảng thời gian không quá 31 ngày, ngược lại theo tháng
+     */
+    List<RevenuePeriodDTO> revenueByPeriod() {
+        List<RevenuePeriodDTO> result = new ArrayList<>();
+        if (dailyCents.length <= 31) {
+            for (int offset = 0; offset < dailyCents.length; offset++) {
+                result.add(new RevenuePeriodDTO(firstDay.plusDays(offset).format(DAY_FORMAT), fromCents(dailyCents[offset])));
+            }
+            return result;
+        }
+
+        YearMonth firstMonth = YearMonth.from(firstDay);
+        long[] monthlyCents = new long[(int) ChronoUnit.MONTHS.between(firstMonth, YearMonth.from(lastDay)) + 1];
+        LocalDate day = firstDay;
+        for (long cents : dailyCents) {
+            monthlyCents[(int) ChronoUnit.MONTHS.between(firstMonth, YearMonth.from(day))] += cents;
+            day = day.plusDays(1);
+        }
+        for (int offset = 0; offset < monthlyCents.length; offset++) {
+            result.add(new RevenuePeriodDTO(firstMonth.plusMonths(offset).format(MONTH_FORMAT), fromCents(monthlyCents[offset])));
+        }
+        return result;
+    }
+
+    /**
+     * Gộp 24 giờ vào các khung giờ, giữ thứ tự trong ngày và bỏ các khung không có đơn
+     */
+    List<TimeOfDayAnalysisDTO> timeOfDayAnalysis() {
+        int[] slotCount = new int[TIME_SLOTS.length];
+        long[] slotCents = new long[TIME_SLOTS.length];
+        for (int hour = 0; hour < 24; hour++) {
+            slotCount[SLOT_OF_HOUR[hour]] += hourlyCount[hour];
+            slotCents[SLOT_OF_HOUR[hour]] += hourlyCents[hour];
+        }
+        List<TimeOfDayAnalysisDTO> result = new ArrayList<>();
+        for (int slot = 0; slot < TIME_SLOTS.length; slot++) {
+            if (slotCount[slot] > 0) {
+                result.add(new TimeOfDayAnalysisDTO(TIME_SLOTS[slot], slotCount[slot], fromCents(slotCents[slot])));
+            }
+        }
+        return result;
+    }
+
+    List<PaymentMethodAnalysisDTO> paymentMethodAnalysis() {
+        List<PaymentMethodAnalysisDTO> result = new ArrayList<>();
+        for (PaymentMethod method : METHODS) {
+            if (methodCount[method.ordinal()] > 0) {
+                result.add(new PaymentMethodAnalysisDTO(
+                        method.toString(),
+                        methodCount[method.ordinal()],
+                        fromCents(methodCents[method.ordinal()])
+                ));
+            }
+        }
+        result.sort(Comparator.comparing(PaymentMethodAnalysisDTO::getAmount).reversed());
+        return result;
+    }
+
+    List<HourlyAnalysisDTO> hourlyAnalysis() {
+        List<HourlyAnalysisDTO> result = new ArrayList<>(24);
+        for (int hour = 0; hour < 24; hour++) {
+            result.add(new HourlyAnalysisDTO(HOUR_LABELS[hour], hourlyCount[hour], fromCents(hourlyCents[hour])));
+        }
+        return result;
+    }
+
+    List<CategorySalesDTO> categorySales() {
+        return categories.entrySet().stream()
+                .map(entry -> new CategorySalesDTO(entry.getKey(), fromCents(entry.getValue().cents), entry.getValue().quantity))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Các món bán chạy nhất theo số lượng, giảm dần
+     */
+    List<ItemTotals> topSellingItems(int limit) {
+        return items.values().stream()
+                .sorted(Comparator.comparingInt((ItemTotals totals) -> totals.quantity).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static class CategoryTotals {
+        int quantity;
+        long cents;
+    }
+
+    static class ItemTotals {
+        final Long menuItemId;
+        final String menuItemName;
+        final String category;
+        BigDecimal price;
+        int quantity;
+        long cents;
+
+        ItemTotals(Long menuItemId, String menuItemName, String category, BigDecimal price) {
+            this.menuItemId = menuItemId;
+            this.menuItemName = menuItemName;
+            this.category = category;
+            this.price = price;
+        }
+    }
+}
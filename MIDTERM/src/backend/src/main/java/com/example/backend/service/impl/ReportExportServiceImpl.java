@@ -0,0 +1,102 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.ReportDTO.OrderSummaryDTO;
+import com.example.backend.dto.ReportExportFormat;
+import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.projection.PaymentSummaryView;
+import com.example.backend.service.ReportExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ReportExportServiceImpl implements ReportExportService {
+
+    private static final String CSV_HEADER = "id,tableNumber,orderTime,status,totalAmount,paymentMethod,paymentTime";
+    // Đẩy dữ liệu ra client sau mỗi lô dòng thay vì chờ đầy bộ đệm
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    private final PaymentRepository paymentRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOrders(LocalDateTime startDate, LocalDateTime endDate, ReportExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ReportExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        // Gửi byte đầu tiên ngay, trước khi cơ sở dữ liệu trả về dòng nào
+        writer.flush();
+
+        try (Stream<PaymentSummaryView> rows = paymentRepository.streamSummariesByPaymentTimeBetween(startDate, endDate)) {
+            Iterator<PaymentSummaryView> iterator = rows.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                PaymentSummaryView row = iterator.next();
+                if (format == ReportExportFormat.CSV) {
+                    writeCsvRow(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(toSummary(row)));
+                    writer.write('\n');
+                }
+                if (++count % FLUSH_EVERY_ROWS == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private OrderSummaryDTO toSummary(PaymentSummaryView row) {
+        return new OrderSummaryDTO(
+                row.getOrderId(),
+                row.getTableNumber() != null ? row.getTableNumber() : "N/A",
+                row.getOrderTime(),
+                row.getOrderStatus().toString(),
+                row.getAmount(),
+                row.getPaymentMethod().toString(),
+                row.getPaymentTime()
+        );
+    }
+
+    private void writeCsvRow(Writer writer, PaymentSummaryView row) throws IOException {
+        writer.write(String.valueOf(row.getOrderId()));
+        writer.write(',');
+        writer.write(csvField(row.getTableNumber() != null ? row.getTableNumber() : "N/A"));
+        writer.write(',');
+        writer.write(String.valueOf(row.getOrderTime()));
+        writer.write(',');
+        writer.write(row.getOrderStatus().toString());
+        writer.write(',');
+        writer.write(row.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(row.getPaymentMethod().toString());
+        writer.write(',');
+        writer.write(String.valueOf(row.getPaymentTime()));
+        writer.write('\n');
+    }
+
+    /**
+     * Đặt trong dấu nháy kép nếu giá trị chứa ký tự đặc biệt của CSV
+     */
+    private String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.ReportDTO;
+import com.example.backend.dto.ReportJobStatus;
+import com.example.backend.dto.ReportJobStatus.State;
+import com.example.backend.exception.Exceptions;
+import com.example.backend.service.ReportJobService;
+import com.example.backend.service.ReportService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tính báo cáo chạy nền cho các khoảng thời gian dài.
+ * Job chạy trên một executor riêng gồm một số luồng platform cố định và hàng đợi giới hạn,
+ * để job chờ các phân đoạn báo cáo không chiếm luồng mang của virtual thread;
+ * kết quả được giữ trong bộ nhớ trong một khoảng thời gian tính từ lúc job kết thúc.
+ */
+@Service
+public class ReportJobServiceImpl implements ReportJobService {
+
+    private final ReportService reportService;
+    private final ExecutorService jobExecutor;
+
+    private final Cache<String, ReportJob> jobs;
+    // Khoảng thời gian -> job đang chờ hoặc đang chạy, để gộp các yêu cầu giống nhau.
+    // Job đã xong được gỡ khỏi đây để yêu cầu sau tính lại với dữ liệu mới
+    private final Map<RangeKey, ReportJob> inFlightByRange = new ConcurrentHashMap<>();
+
+    public ReportJobServiceImpl(ReportService reportService,
+                                @Value("${reports.jobs.parallelism:2}") int parallelism,
+                                @Value("${reports.jobs.queue-capacity:20}") int queueCapacity,
+                                @Value("${reports.jobs.result-ttl-minutes:30}") long resultTtlMinutes) {
+        this.reportService = reportService;
+        this.jobExecutor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("report-job-", 0).daemon().factory());
+        this.jobs = Caffeine.newBuilder()
+                .expireAfter(new CompletionExpiry(Duration.ofMinutes(resultTtlMinutes).toNanos()))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    @Override
+    public ReportJobStatus submit(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw Exceptions.invalidDateRange();
+        }
+        RangeKey key = new RangeKey(startDate, endDate);
+        ReportJob job = inFlightByRange.compute(key, (range, existing) -> {
+            if (existing != null && existing.completedAt == null) {
+                return existing;
+            }
+            ReportJob created = new ReportJob(UUID.randomUUID().toString(), startDate, endDate);
+            jobs.put(created.id, created);
+            try {
+                jobExecutor.execute(() -> run(key, created));
+            } catch (RejectedExecutionException e) {
+                jobs.invalidate(created.id);
+                throw Exceptions.reportJobQueueFull();
+            }
+            return created;
+        });
+        return job.toStatus();
+    }
+
+    @Override
+    public ReportJobStatus getStatus(String jobId) {
+        return findJob(jobId).toStatus();
+    }
+
+    @Override
+    public ReportDTO getResult(String jobId) {
+        ReportJob job = findJob(jobId);
+        if (job.state != State.COMPLETED) {
+            throw Exceptions.reportJobNotReady();
+        }
+        return job.result;
+    }
+
+    private ReportJob findJob(String jobId) {
+        ReportJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw Exceptions.reportJobNotFound();
+        }
+        return job;
+    }
+
+    private void run(RangeKey key, ReportJob job) {
+        job.state = State.RUNNING;
+        try {
+            job.result = reportService.getReport(job.startDate, job.endDate,
+                    fraction -> job.progress = (int) Math.round(fraction * 100));
+            job.progress = 100;
+            job.state = State.COMPLETED;
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.state = State.FAILED;
+        } finally {
+            job.completedAt = LocalDateTime.now();
+            inFlightByRange.remove(key, job);
+            // Ghi lại để thời hạn giữ kết quả bắt đầu tính từ lúc job kết thúc
+            jobs.put(job.id, job);
+        }
+    }
+
+    /**
+     * Job chưa kết thúc không hết hạn; job đã kết thúc hết hạn sau một khoảng kể từ lúc kết thúc
+     */
+    private record CompletionExpiry(long resultTtlNanos) implements Expiry<String, ReportJob> {
+        @Override
+        public long expireAfterCreate(String key, ReportJob value, long currentTime) {
+            return value.completedAt == null ? Long.MAX_VALUE : resultTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, ReportJob value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, ReportJob value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private record RangeKey(LocalDateTime startDate, LocalDateTime endDate) {
+    }
+
+    private static class ReportJob {
+        final String id;
+        final LocalDateTime startDate;
+        final LocalDateTime endDate;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        volatile State state = State.QUEUED;
+        volatile int progress;
+        volatile ReportDTO result;
+        volatile String error;
+        volatile LocalDateTime completedAt;
+
+        ReportJob(String id, LocalDateTime startDate, LocalDateTime endDate) {
+            this.id = id;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        ReportJobStatus toStatus() {
+            return new ReportJobStatus(id, state, progress, startDate, endDate, submittedAt, completedAt, error);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.logging.AsyncLogPipeline;
+import com.example.backend.model.MenuItem;
+import com.example.backend.model.OrderItem;
+import com.example.backend.model.Payment;
+import com.example.backend.model.enums.OrderItemStatus;
+import com.example.backend.repository.ItemSalesRollupRepository;
+import com.example.backend.repository.OrderItemRepository;
+import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.RevenueRollupRepository;
+import com.example.backend.service.ReportRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Duy trì các bảng revenue_rollups và item_sales_rollups để báo cáo đọc O(số ngày) thay vì O(số đơn)
+ */
+@Service
+@RequiredArgsConstructor
+public class ReportRollupServiceImpl implements ReportRollupService {
+
+    private final RevenueRollupRepository revenueRollupRepository;
+    private final ItemSalesRollupRepository itemSalesRollupRepository;
+    private final PaymentRepository paymentRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final AsyncLogPipeline logs;
+
+    @Override
+    @Transactional
+    public void recordPayment(Payment payment) {
+        LocalDate salesDate = payment.getPaymentTime().toLocalDate();
+        revenueRollupRepository.addPayment(
+                salesDate,
+                payment.getPaymentTime().getHour(),
+                payment.getPaymentMethod().name(),
+                payment.getAmount());
+
+        // Một đơn có thể được trả bằng nhiều thanh toán: doanh số món chỉ được tính một lần,
+        // vào thanh toán đầu tiên của đơn
+        boolean firstPayment = paymentRepository.findFirstByOrderOrderByIdAsc(payment.getOrder())
+                .map(first -> first.getId().equals(payment.getId()))
+                .orElse(true);
+        if (!firstPayment) {
+            return;
+        }
+
+        // Gộp các dòng cùng món trước để mỗi món chỉ cần một câu upsert
+        Map<Long, ItemSales> salesByMenuItem = new HashMap<>();
+        for (OrderItem item : orderItemRepository.findByOrder(payment.getOrder())) {
+            if (item.getStatus() == OrderItemStatus.CANCELLED) {
+                continue;
+            }
+            MenuItem menuItem = item.getMenuItem();
+            ItemSales sales = salesByMenuItem.computeIfAbsent(menuItem.getId(), id -> new ItemSales(menuItem));
+            sales.quantity += item.getQuantity();
+            sales.amount = sales.amount.add(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        salesByMenuItem.values().forEach(sales -> itemSalesRollupRepository.addSales(
+                salesDate,
+                sales.menuItem.getId(),
+                sales.menuItem.getName(),
+                sales.menuItem.getCategory(),
+                sales.quantity,
+                sales.amount));
+    }
+
+    @Override
+    @Transactional
+    public void rebuild(LocalDate from, LocalDate to) {
+        revenueRollupRepository.deleteBySalesDateBetween(from, to);
+        itemSalesRollupRepository.deleteBySalesDateBetween(from, to);
+
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        revenueRollupRepository.rebuildFromPayments(start, end);
+        itemSalesRollupRepository.rebuildFromPayments(start, end);
+    }
+
+    /**
+     * Lần đầu chạy với dữ liệu cũ: dựng bảng tổng hợp từ toàn bộ lịch sử thanh toán.
+     * Chỉ dựng đến hết hôm qua, vì thanh toán hôm nay có thể đang được recordPayment cộng vào song song
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (revenueRollupRepository.count() > 0) {
+            return;
+        }
+        LocalDateTime earliest = paymentRepository.findEarliestPaymentTime();
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        if (earliest == null || earliest.toLocalDate().isAfter(yesterday)) {
+            return;
+        }
+        rebuild(earliest.toLocalDate(), yesterday);
+        logs.info("reports", "Backfilled report rollups", "from", earliest.toLocalDate(), "to", yesterday);
+    }
+
+    private static class ItemSales {
+        final MenuItem menuItem;
+        long quantity;
+        BigDecimal amount = BigDecimal.ZERO;
+
+        ItemSales(MenuItem menuItem) {
+            this.menuItem = menuItem;
+        }
+    }
+}
@@ -1,120 +1,361 @@
 package com.example.backend.service.impl;
 
+import com.example.backend.dto.ReportComparisonDTO;
+import com.example.backend.dto.ReportComparisonDTO.MetricComparisonDTO;
+import com.example.backend.dto.ReportComparisonDTO.MixComparisonDTO;
 import com.example.backend.dto.ReportDTO;
-import com.example.backend.dto.ReportDTO.OrderSummaryDTO;
-import com.example.backend.dto.ReportDTO.RevenuePeriodDTO;
 import com.example.backend.dto.ReportDTO.CategorySalesDTO;
-import com.example.backend.dto.ReportDTO.TopSellingItemDTO;
-import com.example.backend.dto.ReportDTO.TimeOfDayAnalysisDTO;
+import com.example.backend.dto.ReportDTO.OrderSummaryDTO;
 import com.example.backend.dto.ReportDTO.PaymentMethodAnalysisDTO;
-import com.example.backend.dto.ReportDTO.HourlyAnalysisDTO;
-import com.example.backend.model.Order;
-import com.example.backend.model.OrderItem;
-import com.example.backend.model.Payment;
+import com.example.backend.dto.ReportDTO.TopSellingItemDTO;
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.event.PaymentRecordedEvent;
+import com.example.backend.exception.Exceptions;
 import com.example.backend.model.MenuItem;
-import com.example.backend.model.enums.OrderStatus;
+import com.example.backend.model.enums.OrderItemStatus;
+import com.example.backend.repository.ItemSalesRollupRepository;
+import com.example.backend.repository.MenuItemRepository;
 import com.example.backend.repository.OrderItemRepository;
-import com.example.backend.repository.OrderRepository;
 import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.RevenueRollupRepository;
+import com.example.backend.repository.projection.CategorySalesView;
+import com.example.backend.repository.projection.DailyRevenueView;
+import com.example.backend.repository.projection.HourlyRevenueView;
+import com.example.backend.repository.projection.ItemSalesView;
+import com.example.backend.repository.projection.MenuItemSalesView;
+import com.example.backend.repository.projection.MethodRevenueView;
+import com.example.backend.repository.projection.PaymentSummaryView;
+import com.example.backend.service.PaymentFactStore;
 import com.example.backend.service.ReportService;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.Comparator;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
 
+/**
+ * Báo cáo doanh thu.
+ * Kết quả được lưu trong bộ nhớ theo (start, end): các kỳ đã khép lại trọn ngày không thể thay đổi
+ * nên được giữ đến khi bị đẩy ra theo dung lượng; các kỳ còn mở chỉ sống trong thời gian ngắn
+ * và bị xóa ngay khi có đơn hàng/thanh toán thay đổi.
+ * Cache lưu future nên việc tính báo cáo chạy ngoài khóa của cache; mỗi lần xóa tăng thế hệ của cache,
+ * kết quả kỳ còn mở được tính từ thế hệ cũ hơn sẽ không được giữ lại.
+ */
 @Service
-@RequiredArgsConstructor
 public class ReportServiceImpl implements ReportService {
 
-    private final OrderRepository orderRepository;
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
     private final OrderItemRepository orderItemRepository;
     private final PaymentRepository paymentRepository;
+    private final MenuItemRepository menuItemRepository;
+    private final RevenueRollupRepository revenueRollupRepository;
+    private final ItemSalesRollupRepository itemSalesRollupRepository;
+    private final PaymentFactStore paymentFactStore;
+
+    private final AsyncCache<ReportKey, CachedReport> reportCache;
+    private final AtomicLong cacheGeneration = new AtomicLong();
+    private final ExecutorService partitionExecutor;
+    // Chạy kỳ tham chiếu của compareReports song song với kỳ hiện tại; tách khỏi partitionExecutor
+    // để lần tải đang chờ các phân đoạn không chiếm chỗ của chính các phân đoạn đó
+    private final ExecutorService comparisonExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("report-compare-", 0).factory());
+    private final int maxOrders;
+
+    public ReportServiceImpl(OrderItemRepository orderItemRepository,
+                             PaymentRepository paymentRepository,
+                             MenuItemRepository menuItemRepository,
+                             RevenueRollupRepository revenueRollupRepository,
+                             ItemSalesRollupRepository itemSalesRollupRepository,
+                             PaymentFactStore paymentFactStore,
+                             MeterRegistry meterRegistry,
+                             @Value("${reports.cache.max-size:256}") long cacheSize,
+                             @Value("${reports.cache.open-period-ttl-seconds:60}") long openPeriodTtlSeconds,
+                             @Value("${reports.partition.parallelism:4}") int partitionParallelism,
+                             @Value("${reports.orders.max-size:500}") int maxOrders) {
+        this.orderItemRepository = orderItemRepository;
+        this.paymentRepository = paymentRepository;
+        this.menuItemRepository = menuItemRepository;
+        this.revenueRollupRepository = revenueRollupRepository;
+        this.itemSalesRollupRepository = itemSalesRollupRepository;
+        this.paymentFactStore = paymentFactStore;
+        this.maxOrders = maxOrders;
+        this.reportCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new PeriodExpiry(Duration.ofSeconds(openPeriodTtlSeconds).toNanos()))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, reportCache.synchronous(), "reports");
+        // Giới hạn số phân đoạn chạy cùng lúc để không chiếm hết kết nối cơ sở dữ liệu
+        this.partitionExecutor = Executors.newFixedThreadPool(partitionParallelism,
+                Thread.ofVirtual().name("report-partition-", 0).factory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        partitionExecutor.shutdownNow();
+        comparisonExecutor.shutdownNow();
+    }
 
     @Override
     public ReportDTO getReport(LocalDateTime startDate, LocalDateTime endDate) {
-        ReportDTO report = new ReportDTO();
-        
-        // Lấy danh sách đơn hàng đã thanh toán
-        List<Order> orders = orderRepository.findByOrderTimeBetween(startDate, endDate)
-                .stream()
-                .filter(order -> order.getStatus() == OrderStatus.PAID)
-                .collect(Collectors.toList());
+        return getReport(startDate, endDate, fraction -> { });
+    }
+
+    @Override
+    public ReportDTO getReport(LocalDateTime startDate, LocalDateTime endDate, DoubleConsumer progress) {
+        // Khoảng ngược sẽ làm số bucket theo ngày bị âm khi gom nhóm
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw Exceptions.invalidDateRange();
+        }
+        ReportKey key = new ReportKey(startDate, endDate);
+        long generation = cacheGeneration.get();
+        CompletableFuture<CachedReport> loading = new CompletableFuture<>();
+        CompletableFuture<CachedReport> cached = reportCache.get(key, (k, executor) -> loading);
+        if (cached == loading) {
+            // Luồng đầu tiên tự tính trên luồng của mình; các luồng khác cùng khóa chờ trên future
+            load(key, generation, loading, progress);
+        }
+        ReportDTO report = await(cached).report();
+        progress.accept(1.0);
+        return report;
+    }
+    
+    private void load(ReportKey key, long generation, CompletableFuture<CachedReport> loading, DoubleConsumer progress) {
+        try {
+            CachedReport result = loadReport(key.startDate(), key.endDate(), progress);
+            loading.complete(result);
+            // Có thay đổi dữ liệu trong lúc tính: vẫn trả kết quả cho các luồng đang chờ nhưng không lưu lại
+            if (!result.closed() && generation != cacheGeneration.get()) {
+                reportCache.asMap().remove(key, loading);
+            }
+        } catch (RuntimeException e) {
+            // Future lỗi tự bị xóa khỏi cache
+            loading.completeExceptionally(e);
+        }
+    }
+    
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public ReportComparisonDTO compareReports(LocalDateTime currentStart, LocalDateTime currentEnd,
+                                              LocalDateTime referenceStart, LocalDateTime referenceEnd) {
+        // Hai kỳ được tải cùng lúc: kỳ tham chiếu ở luồng riêng, kỳ hiện tại ở luồng đang gọi
+        CompletableFuture<ReportDTO> referenceLoad = CompletableFuture.supplyAsync(
+                () -> getReport(referenceStart, referenceEnd), comparisonExecutor);
+        ReportDTO current = getReport(currentStart, currentEnd);
+        ReportDTO reference = await(referenceLoad);
         
-        // Lấy các thanh toán
-        List<Payment> payments = paymentRepository.findByPaymentTimeBetween(startDate, endDate);
+        Map<String, BigDecimal> currentCategories = current.getCategorySales().stream()
+                .collect(Collectors.toMap(CategorySalesDTO::getCategory, CategorySalesDTO::getTotalSales));
+        Map<String, BigDecimal> referenceCategories = reference.getCategorySales().stream()
+                .collect(Collectors.toMap(CategorySalesDTO::getCategory, CategorySalesDTO::getTotalSales));
+        Map<String, BigDecimal> currentMethods = current.getPaymentMethodAnalysis().stream()
+                .collect(Collectors.toMap(PaymentMethodAnalysisDTO::getMethod, PaymentMethodAnalysisDTO::getAmount));
+        Map<String, BigDecimal> referenceMethods = reference.getPaymentMethodAnalysis().stream()
+                .collect(Collectors.toMap(PaymentMethodAnalysisDTO::getMethod, PaymentMethodAnalysisDTO::getAmount));
         
-        // Tính tổng doanh thu
-        BigDecimal totalRevenue = payments.stream()
-                .map(Payment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new ReportComparisonDTO(
+                currentStart, currentEnd, referenceStart, referenceEnd,
+                compareMetric(current.getTotalRevenue(), reference.getTotalRevenue()),
+                compareMetric(new BigDecimal(current.getTotalOrders()), new BigDecimal(reference.getTotalOrders())),
+                compareMetric(current.getAverageOrderValue(), reference.getAverageOrderValue()),
+                compareMix(currentCategories, referenceCategories),
+                compareMix(currentMethods, referenceMethods)
+        );
+    }
+    
+    private MetricComparisonDTO compareMetric(BigDecimal current, BigDecimal reference) {
+        return new MetricComparisonDTO(current, reference, current.subtract(reference), growthPercent(current, reference));
+    }
+    
+    /**
+     * Ghép theo khóa của cả hai kỳ, sắp xếp theo doanh thu kỳ hiện tại giảm dần
+     */
+    private List<MixComparisonDTO> compareMix(Map<String, BigDecimal> current, Map<String, BigDecimal> reference) {
+        BigDecimal currentTotal = current.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal referenceTotal = reference.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        Set<String> keys = new LinkedHashSet<>(current.keySet());
+        keys.addAll(reference.keySet());
         
-        // Tạo danh sách đơn hàng tóm tắt
-        List<OrderSummaryDTO> orderSummaries = payments.stream()
-                .map(payment -> {
-                    Order order = payment.getOrder();
-                    return new OrderSummaryDTO(
-                            order.getId(),
-                            order.getTable() != null ? order.getTable().getTableNumber() : "N/A",
-                            order.getOrderTime(),
-                            order.getStatus().toString(),
-                            payment.getAmount(),
-                            payment.getPaymentMethod().toString(),
-                            payment.getPaymentTime()
+        return keys.stream()
+                .map(key -> {
+                    BigDecimal currentAmount = current.getOrDefault(key, BigDecimal.ZERO);
+                    BigDecimal referenceAmount = reference.getOrDefault(key, BigDecimal.ZERO);
+                    return new MixComparisonDTO(
+                            key,
+                            currentAmount,
+                            referenceAmount,
+                            currentAmount.subtract(referenceAmount),
+                            growthPercent(currentAmount, referenceAmount),
+                            sharePercent(currentAmount, currentTotal),
+                            sharePercent(referenceAmount, referenceTotal)
                     );
                 })
+                .sorted(Comparator.comparing(MixComparisonDTO::getCurrentAmount).reversed())
                 .collect(Collectors.toList());
+    }
+    
+    private BigDecimal growthPercent(BigDecimal current, BigDecimal reference) {
+        if (reference.signum() == 0) {
+            return null;
+        }
+        return current.subtract(reference).multiply(ONE_HUNDRED).divide(reference, 2, RoundingMode.HALF_UP);
+    }
+    
+    private BigDecimal sharePercent(BigDecimal amount, BigDecimal total) {
+        if (total.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return amount.multiply(ONE_HUNDRED).divide(total, 2, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public void invalidateCache() {
+        cacheGeneration.incrementAndGet();
+        reportCache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Đơn hàng hoặc thanh toán thay đổi chỉ ảnh hưởng đến các kỳ còn mở
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        evictOpenPeriods();
+    }
+
+    /**
+     * Mọi cách tạo thanh toán (kể cả createPayment không đổi trạng thái đơn) đều phát sự kiện này
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaymentRecorded(PaymentRecordedEvent event) {
+        evictOpenPeriods();
+    }
+
+    /**
+     * Tăng thế hệ trước khi xóa để lần tính đang chạy dở không ghi đè kết quả cũ vào cache.
+     * Future chưa xong cũng bị xóa vì chưa biết kỳ đó đã khép lại hay chưa.
+     */
+    private void evictOpenPeriods() {
+        cacheGeneration.incrementAndGet();
+        reportCache.asMap().values().removeIf(cached ->
+                !cached.isDone() || cached.isCompletedExceptionally() || !cached.join().closed());
+    }
+
+    private ReportDTO computeReport(LocalDateTime startDate, LocalDateTime endDate, DoubleConsumer progress) {
+        List<LocalDateTime[]> partitions = monthPartitions(startDate, endDate);
+        if (partitions.size() == 1) {
+            return buildReport(computePartition(startDate, endDate, startDate, endDate), startDate, endDate);
+        }
         
-        // Tính doanh thu theo thời gian
-        List<RevenuePeriodDTO> revenueByPeriod = calculateRevenueByPeriod(startDate, endDate, payments);
-        
-        // Tính doanh số theo danh mục
-        List<CategorySalesDTO> categorySales = calculateCategorySales(orders);
-        
-        // Tính top món ăn bán chạy
-        List<TopSellingItemDTO> topSellingItems = calculateTopSellingItems(orders);
-        
-        // Tính phân tích theo thời gian trong ngày
-        List<TimeOfDayAnalysisDTO> timeOfDayAnalysis = calculateTimeOfDayAnalysis(payments);
-        
-        // Tính phân tích theo phương thức thanh toán
-        List<PaymentMethodAnalysisDTO> paymentMethodAnalysis = calculatePaymentMethodAnalysis(payments);
-        
-        // Tính phân tích theo từng giờ
-        List<HourlyAnalysisDTO> hourlyData = calculateHourlyAnalysis(payments);
-        
-        // Đặt giá trị vào báo cáo
-        report.setOrders(orderSummaries);
-        report.setRevenueByPeriod(revenueByPeriod);
-        report.setCategorySales(categorySales);
-        report.setTopSellingItems(topSellingItems);
-        report.setTimeOfDayAnalysis(timeOfDayAnalysis);
-        report.setPaymentMethodAnalysis(paymentMethodAnalysis);
-        report.setHourlyData(hourlyData);
-        report.setTotalRevenue(totalRevenue);
-        report.setTotalOrders(orders.size());
+        // Khoảng thời gian nhiều tháng: mỗi tháng được tính song song với truy vấn riêng rồi gộp lại
+        AtomicInteger completed = new AtomicInteger();
+        List<CompletableFuture<ReportAggregate>> futures = partitions.stream()
+                .map(range -> CompletableFuture.supplyAsync(
+                        () -> computePartition(range[0], range[1], startDate, endDate), partitionExecutor)
+                        .whenComplete((partial, error) ->
+                                progress.accept((double) completed.incrementAndGet() / partitions.size())))
+                .collect(Collectors.toList());
         
-        // Tính giá trị trung bình đơn hàng
-        if (!orders.isEmpty()) {
-            report.setAverageOrderValue(totalRevenue.divide(new BigDecimal(orders.size()), 2, RoundingMode.HALF_UP));
-        } else {
-            report.setAverageOrderValue(BigDecimal.ZERO);
+        ReportAggregate aggregate = new ReportAggregate(startDate.toLocalDate(), endDate.toLocalDate());
+        try {
+            for (CompletableFuture<ReportAggregate> future : futures) {
+                aggregate.merge(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
+        return buildReport(aggregate, startDate, endDate);
+    }
+    
+    /**
+     * Tính một phân đoạn; mảng theo ngày luôn trải trên toàn bộ khoảng báo cáo để có thể gộp trực tiếp.
+     * Các ngày trọn vẹn được đọc từ bảng tổng hợp, chỉ ngày lẻ giờ ở hai đầu mới đọc dữ liệu gốc.
+     */
+    private ReportAggregate computePartition(LocalDateTime from, LocalDateTime to,
+                                             LocalDateTime reportStart, LocalDateTime reportEnd) {
+        ReportAggregate aggregate = new ReportAggregate(reportStart.toLocalDate(), reportEnd.toLocalDate());
+        LocalDate firstWholeDay = from.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? from.toLocalDate() : from.toLocalDate().plusDays(1);
+        LocalDate lastWholeDay = isEndOfDay(to) ? to.toLocalDate() : to.toLocalDate().minusDays(1);
         
-        return report;
+        if (firstWholeDay.isAfter(lastWholeDay)) {
+            // Không có ngày trọn vẹn nào trong phân đoạn
+            aggregateFromRawRows(aggregate, from, to);
+            return aggregate;
+        }
+        if (from.isBefore(firstWholeDay.atStartOfDay())) {
+            aggregateFromRawRows(aggregate, from, from.toLocalDate().atTime(LocalTime.MAX));
+        }
+        aggregateFromRollups(aggregate, firstWholeDay, lastWholeDay);
+        if (to.toLocalDate().isAfter(lastWholeDay)) {
+            aggregateFromRawRows(aggregate, to.toLocalDate().atStartOfDay(), to);
+        }
+        return aggregate;
+    }
+    
+    /**
+     * Chia khoảng thời gian theo ranh giới tháng; phân đoạn đầu và cuối giữ nguyên mốc giờ của yêu cầu
+     */
+    private List<LocalDateTime[]> monthPartitions(LocalDateTime startDate, LocalDateTime endDate) {
+        List<LocalDateTime[]> partitions = new ArrayList<>();
+        LocalDateTime from = startDate;
+        while (true) {
+            LocalDateTime nextMonth = from.toLocalDate().with(TemporalAdjusters.firstDayOfNextMonth()).atStartOfDay();
+            if (!nextMonth.isAfter(endDate)) {
+                partitions.add(new LocalDateTime[]{from, nextMonth.minusNanos(1)});
+                from = nextMonth;
+            } else {
+                partitions.add(new LocalDateTime[]{from, endDate});
+                return partitions;
+            }
+        }
+    }
+
+    private CachedReport loadReport(LocalDateTime startDate, LocalDateTime endDate, DoubleConsumer progress) {
+        return new CachedReport(computeReport(startDate, endDate, progress), isClosedPeriod(startDate, endDate));
     }
 
     @Override
@@ -152,357 +393,172 @@ public class ReportServiceImpl implements ReportService {
         return getReport(startOfMonth, endOfMonth);
     }
     
-    private List<RevenuePeriodDTO> calculateRevenueByPeriod(LocalDateTime startDate, LocalDateTime endDate, List<Payment> payments) {
-        long days = ChronoUnit.DAYS.between(startDate.toLocalDate(), endDate.toLocalDate()) + 1;
-        
-        if (days <= 7) {
-            // Doanh thu theo ngày trong tuần
-            Map<String, BigDecimal> revenueByDay = new LinkedHashMap<>();
-            
-            // Tạo danh sách các ngày theo thứ tự
-            List<LocalDate> dateList = new ArrayList<>();
-            LocalDate date = startDate.toLocalDate();
-            while (!date.isAfter(endDate.toLocalDate())) {
-                dateList.add(date);
-                date = date.plusDays(1);
-            }
-            
-            // Sắp xếp các ngày
-            dateList.sort(Comparator.naturalOrder());
-            
-            // Khởi tạo tất cả các ngày trong khoảng thời gian
-            for (LocalDate d : dateList) {
-                String dayName = d.format(DateTimeFormatter.ofPattern("dd/MM"));
-                revenueByDay.put(dayName, BigDecimal.ZERO);
-            }
-            
-            // Tính doanh thu cho mỗi ngày
-            for (Payment payment : payments) {
-                LocalDate paymentDate = payment.getPaymentTime().toLocalDate();
-                String dayName = paymentDate.format(DateTimeFormatter.ofPattern("dd/MM"));
-                
-                if (revenueByDay.containsKey(dayName)) {
-                    revenueByDay.put(dayName, revenueByDay.get(dayName).add(payment.getAmount()));
-                }
-            }
-            
-            // Chuyển đổi sang danh sách RevenuePeriodDTO và đảm bảo thứ tự
-            List<RevenuePeriodDTO> result = new ArrayList<>();
-            for (LocalDate d : dateList) {
-                String dayName = d.format(DateTimeFormatter.ofPattern("dd/MM"));
-                result.add(new RevenuePeriodDTO(dayName, revenueByDay.get(dayName)));
-            }
-            return result;
-        } else if (days <= 31) {
-            // Doanh thu theo ngày trong tháng
-            Map<String, BigDecimal> revenueByDate = new LinkedHashMap<>();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM");
-            
-            // Tạo danh sách các ngày theo thứ tự
-            List<LocalDate> dateList = new ArrayList<>();
-            LocalDate date = startDate.toLocalDate();
-            while (!date.isAfter(endDate.toLocalDate())) {
-                dateList.add(date);
-                date = date.plusDays(1);
-            }
-            
-            // Sắp xếp các ngày
-            dateList.sort(Comparator.naturalOrder());
-            
-            // Khởi tạo tất cả các ngày trong khoảng thời gian
-            for (LocalDate d : dateList) {
-                String dateStr = d.format(formatter);
-                revenueByDate.put(dateStr, BigDecimal.ZERO);
-            }
-            
-            // Tính doanh thu cho mỗi ngày
-            for (Payment payment : payments) {
-                LocalDate paymentDate = payment.getPaymentTime().toLocalDate();
-                String dateStr = paymentDate.format(formatter);
-                
-                if (revenueByDate.containsKey(dateStr)) {
-                    revenueByDate.put(dateStr, revenueByDate.get(dateStr).add(payment.getAmount()));
-                }
-            }
-            
-            // Chuyển đổi sang danh sách RevenuePeriodDTO và đảm bảo thứ tự
-            List<RevenuePeriodDTO> result = new ArrayList<>();
-            for (LocalDate d : dateList) {
-                String dateStr = d.format(formatter);
-                result.add(new RevenuePeriodDTO(dateStr, revenueByDate.get(dateStr)));
-            }
-            return result;
-        } else {
-            // Doanh thu theo tháng
-            Map<String, BigDecimal> revenueByMonth = new LinkedHashMap<>();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/yyyy");
-            
-            // Tạo danh sách các tháng theo thứ tự
-            List<LocalDate> monthList = new ArrayList<>();
-            LocalDate date = startDate.toLocalDate().withDayOfMonth(1);
-            while (!date.isAfter(endDate.toLocalDate())) {
-                monthList.add(date);
-                date = date.plusMonths(1);
-            }
-            
-            // Sắp xếp các tháng
-            monthList.sort(Comparator.naturalOrder());
-            
-            // Khởi tạo tất cả các tháng trong khoảng thời gian
-            for (LocalDate d : monthList) {
-                String monthStr = d.format(formatter);
-                revenueByMonth.put(monthStr, BigDecimal.ZERO);
-            }
-            
-            // Tính doanh thu cho mỗi tháng
-            for (Payment payment : payments) {
-                LocalDate paymentDate = payment.getPaymentTime().toLocalDate();
-                String monthStr = paymentDate.format(formatter);
-                
-                if (revenueByMonth.containsKey(monthStr)) {
-                    revenueByMonth.put(monthStr, revenueByMonth.get(monthStr).add(payment.getAmount()));
-                }
-            }
-            
-            // Chuyển đổi sang danh sách RevenuePeriodDTO và đảm bảo thứ tự
-            List<RevenuePeriodDTO> result = new ArrayList<>();
-            for (LocalDate d : monthList) {
-                String monthStr = d.format(formatter);
-                result.add(new RevenuePeriodDTO(monthStr, revenueByMonth.get(monthStr)));
-            }
-            return result;
-        }
+    /**
+     * Kỳ trọn ngày đã kết thúc trước hôm nay được tính từ bảng tổng hợp theo thời điểm thanh toán,
+     * nên kết quả không còn thay đổi (trừ khi dựng lại bảng tổng hợp)
+     */
+    private boolean isClosedPeriod(LocalDateTime startDate, LocalDateTime endDate) {
+        return isWholeDays(startDate, endDate) && endDate.toLocalDate().isBefore(LocalDate.now());
     }
     
-    private List<CategorySalesDTO> calculateCategorySales(List<Order> orders) {
-        Map<String, CategorySalesData> categoryMap = new HashMap<>();
-        
-        // Tổng hợp dữ liệu bán hàng theo danh mục
-        for (Order order : orders) {
-            List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
-            
-            for (OrderItem item : orderItems) {
-                String category = item.getMenuItem().getCategory();
-                BigDecimal itemTotal = item.getPrice().multiply(new BigDecimal(item.getQuantity()));
-                
-                if (categoryMap.containsKey(category)) {
-                    CategorySalesData data = categoryMap.get(category);
-                    data.totalSales = data.totalSales.add(itemTotal);
-                    data.itemsSold += item.getQuantity();
-                } else {
-                    CategorySalesData data = new CategorySalesData();
-                    data.totalSales = itemTotal;
-                    data.itemsSold = item.getQuantity();
-                    categoryMap.put(category, data);
-                }
-            }
-        }
-        
-        // Chuyển đổi sang danh sách CategorySalesDTO
-        return categoryMap.entrySet().stream()
-                .map(entry -> new CategorySalesDTO(
-                        entry.getKey(),
-                        entry.getValue().totalSales,
-                        entry.getValue().itemsSold
-                ))
-                .collect(Collectors.toList());
+    /**
+     * Các báo cáo theo ngày/tháng/quý/năm bắt đầu lúc 00:00 và kết thúc lúc 23:59:59 trở đi
+     */
+    private boolean isWholeDays(LocalDateTime startDate, LocalDateTime endDate) {
+        return startDate.toLocalTime().equals(LocalTime.MIDNIGHT) && isEndOfDay(endDate);
     }
     
-    private List<TopSellingItemDTO> calculateTopSellingItems(List<Order> orders) {
-        // Sử dụng Map để thống kê theo menuItemId
-        Map<Long, TopSellingItemData> menuItemSalesMap = new HashMap<>();
-        
-        // Thu thập dữ liệu bán hàng cho từng món ăn
-        for (Order order : orders) {
-            List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
-            
-            for (OrderItem item : orderItems) {
-                MenuItem menuItem = item.getMenuItem();
-                Long menuItemId = menuItem.getId();
-                
-                // Tính tổng doanh thu cho món ăn này
-                BigDecimal itemTotal = item.getPrice().multiply(new BigDecimal(item.getQuantity()));
-                
-                if (menuItemSalesMap.containsKey(menuItemId)) {
-                    TopSellingItemData data = menuItemSalesMap.get(menuItemId);
-                    data.quantitySold += item.getQuantity();
-                    data.totalSales = data.totalSales.add(itemTotal);
-                } else {
-                    TopSellingItemData data = new TopSellingItemData();
-                    data.menuItemId = menuItemId;
-                    data.menuItemName = menuItem.getName();
-                    data.category = menuItem.getCategory();
-                    data.price = menuItem.getPrice();
-                    data.quantitySold = item.getQuantity();
-                    data.totalSales = itemTotal;
-                    menuItemSalesMap.put(menuItemId, data);
-                }
-            }
+    /**
+     * Kho dữ kiện lưu theo phút nên chỉ thay được truy vấn khi khoảng bắt đầu ở đầu phút
+     * và kết thúc ở thời điểm cuối cùng của một phút (ví dụ LocalTime.MAX), khớp với BETWEEN của SQL
+     */
+    private boolean isWholeMinutes(LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDateTime afterEnd = endDate.plusNanos(1);
+        return startDate.getSecond() == 0 && startDate.getNano() == 0
+                && afterEnd.getSecond() == 0 && afterEnd.getNano() == 0;
+    }
+    
+    private boolean isEndOfDay(LocalDateTime time) {
+        return !time.toLocalTime().isBefore(LocalTime.of(23, 59, 59));
+    }
+    
+    /**
+     * Đọc O(số ngày) dòng tổng hợp; doanh thu được tính theo thời điểm thanh toán
+     */
+    private void aggregateFromRollups(ReportAggregate aggregate, LocalDate from, LocalDate to) {
+        for (DailyRevenueView day : revenueRollupRepository.sumByDay(from, to)) {
+            aggregate.addDailyRevenue(day.getSalesDate(), day.getAmount());
+        }
+        for (HourlyRevenueView hour : revenueRollupRepository.sumByHour(from, to)) {
+            aggregate.addHourly(hour.getSalesHour(), hour.getPaymentCount().intValue(), hour.getAmount());
+        }
+        for (MethodRevenueView method : revenueRollupRepository.sumByMethod(from, to)) {
+            aggregate.addPaymentMethod(method.getPaymentMethod(), method.getPaymentCount().intValue(), method.getAmount());
+            aggregate.addPaidOrders(method.getPaymentCount().intValue());
+        }
+        for (ItemSalesView item : itemSalesRollupRepository.sumByMenuItem(from, to)) {
+            aggregate.addItemSales(item.getMenuItemId(), item.getMenuItemName(), item.getCategory(), null,
+                    item.getQuantity().intValue(), item.getAmount());
         }
-        
-        // Chuyển đổi thành danh sách và sắp xếp theo số lượng bán giảm dần
-        return menuItemSalesMap.values().stream()
-                .map(data -> new TopSellingItemDTO(
-                        data.menuItemId,
-                        data.menuItemName,
-                        data.category,
-                        data.price,
-                        data.quantitySold,
-                        data.totalSales
-                ))
-                .sorted(Comparator.comparing(TopSellingItemDTO::getQuantitySold).reversed())
-                .limit(10) // Giới hạn 10 món bán chạy nhất
-                .collect(Collectors.toList());
     }
     
-    private List<TimeOfDayAnalysisDTO> calculateTimeOfDayAnalysis(List<Payment> payments) {
-        Map<String, TimeOfDayData> timeSlots = new HashMap<>();
-        
-        // Khởi tạo các khung giờ
-        timeSlots.put("Sáng (6h-11h)", new TimeOfDayData());
-        timeSlots.put("Trưa (11h-14h)", new TimeOfDayData());
-        timeSlots.put("Chiều (14h-18h)", new TimeOfDayData());
-        timeSlots.put("Tối (18h-22h)", new TimeOfDayData());
-        timeSlots.put("Đêm (22h-6h)", new TimeOfDayData());
-        
-        // Phân loại thanh toán theo khung giờ
-        for (Payment payment : payments) {
-            LocalDateTime paymentTime = payment.getPaymentTime();
-            int hour = paymentTime.getHour();
-            
-            String timeSlot;
-            if (hour >= 6 && hour < 11) {
-                timeSlot = "Sáng (6h-11h)";
-            } else if (hour >= 11 && hour < 14) {
-                timeSlot = "Trưa (11h-14h)";
-            } else if (hour >= 14 && hour < 18) {
-                timeSlot = "Chiều (14h-18h)";
-            } else if (hour >= 18 && hour < 22) {
-                timeSlot = "Tối (18h-22h)";
-            } else {
-                timeSlot = "Đêm (22h-6h)";
+    /**
+     * Ngày lẻ giờ: doanh thu đọc từ kho dữ kiện dạng cột khi có thể, nếu không thì từ dữ liệu gốc của riêng khoảng đó.
+     * Doanh số món luôn được gom nhóm trong cơ sở dữ liệu.
+     */
+    private void aggregateFromRawRows(ReportAggregate aggregate, LocalDateTime startDate, LocalDateTime endDate) {
+        // Số đơn đã thanh toán được tính theo thời điểm thanh toán như revenue_rollups
+        if (paymentFactStore.isReady() && isWholeMinutes(startDate, endDate)) {
+            int[] payments = {0};
+            paymentFactStore.forEach(startDate, endDate, (epochMinute, cents, methodOrdinal, tableId, waiterId) -> {
+                aggregate.addPaymentFact(epochMinute, cents, methodOrdinal);
+                payments[0]++;
+            });
+            aggregate.addPaidOrders(payments[0]);
+        } else {
+            List<PaymentSummaryView> payments = paymentRepository.findSummariesByPaymentTimeBetween(startDate, endDate);
+            // Duyệt danh sách thanh toán đúng một lần cho mọi chiều phân tích
+            for (PaymentSummaryView payment : payments) {
+                aggregate.addPayment(payment.getPaymentTime(), payment.getPaymentMethod(), payment.getAmount());
             }
-            
-            TimeOfDayData data = timeSlots.get(timeSlot);
-            data.orderCount++;
-            data.totalAmount = data.totalAmount.add(payment.getAmount());
+            aggregate.addPaidOrders(payments.size());
         }
         
-        // Chuyển đổi sang danh sách TimeOfDayAnalysisDTO
-        List<TimeOfDayAnalysisDTO> result = new ArrayList<>();
-        for (Map.Entry<String, TimeOfDayData> entry : timeSlots.entrySet()) {
-            if (entry.getValue().orderCount > 0) {
-                result.add(new TimeOfDayAnalysisDTO(
-                        entry.getKey(),
-                        entry.getValue().orderCount,
-                        entry.getValue().totalAmount
-                ));
-            }
+        for (CategorySalesView category : orderItemRepository.sumSalesByCategory(startDate, endDate, OrderItemStatus.CANCELLED)) {
+            aggregate.addCategorySales(category.getCategory(), category.getQuantity().intValue(), category.getAmount());
+        }
+        for (MenuItemSalesView item : orderItemRepository.sumSalesByMenuItem(startDate, endDate, OrderItemStatus.CANCELLED)) {
+            aggregate.addTopSellingItem(item.getMenuItemId(), item.getMenuItemName(), item.getCategory(), item.getPrice(),
+                    item.getQuantity().intValue(), item.getAmount());
         }
-        
-        // Sắp xếp theo thứ tự thời gian trong ngày
-        result.sort((a, b) -> {
-            List<String> order = List.of(
-                    "Sáng (6h-11h)", "Trưa (11h-14h)", "Chiều (14h-18h)", 
-                    "Tối (18h-22h)", "Đêm (22h-6h)"
-            );
-            return Integer.compare(order.indexOf(a.getTimeSlot()), order.indexOf(b.getTimeSlot()));
-        });
-        
-        return result;
     }
     
-    private List<PaymentMethodAnalysisDTO> calculatePaymentMethodAnalysis(List<Payment> payments) {
-        Map<String, PaymentMethodData> methodMap = new HashMap<>();
-        
-        // Tổng hợp dữ liệu thanh toán theo phương thức
-        for (Payment payment : payments) {
-            String method = payment.getPaymentMethod().toString();
-            
-            if (!methodMap.containsKey(method)) {
-                methodMap.put(method, new PaymentMethodData());
-            }
-            
-            PaymentMethodData data = methodMap.get(method);
-            data.count++;
-            data.amount = data.amount.add(payment.getAmount());
-        }
+    private ReportDTO buildReport(ReportAggregate aggregate, LocalDateTime startDate, LocalDateTime endDate) {
+        ReportDTO report = new ReportDTO();
         
-        // Chuyển đổi sang danh sách PaymentMethodAnalysisDTO
-        return methodMap.entrySet().stream()
-                .map(entry -> new PaymentMethodAnalysisDTO(
-                        entry.getKey(),
-                        entry.getValue().count,
-                        entry.getValue().amount
+        // Danh sách đơn chỉ giữ các thanh toán mới nhất để số dòng đọc không tăng theo độ dài kỳ báo cáo;
+        // toàn bộ danh sách có thể lấy qua API xuất dữ liệu
+        List<PaymentSummaryView> payments = new ArrayList<>(paymentRepository.findLatestSummariesByPaymentTimeBetween(
+                startDate, endDate, PageRequest.of(0, maxOrders)));
+        Collections.reverse(payments);
+        List<OrderSummaryDTO> orderSummaries = payments.stream()
+                .map(payment -> new OrderSummaryDTO(
+                        payment.getOrderId(),
+                        payment.getTableNumber() != null ? payment.getTableNumber() : "N/A",
+                        payment.getOrderTime(),
+                        payment.getOrderStatus().toString(),
+                        payment.getAmount(),
+                        payment.getPaymentMethod().toString(),
+                        payment.getPaymentTime()
                 ))
-                .sorted(Comparator.comparing(PaymentMethodAnalysisDTO::getAmount).reversed())
                 .collect(Collectors.toList());
-    }
-    
-    /**
-     * Tính phân tích theo từng giờ trong ngày
-     * Chia thành 24 khung giờ, từ 0h đến 23h
-     */
-    private List<HourlyAnalysisDTO> calculateHourlyAnalysis(List<Payment> payments) {
-        Map<String, HourlyData> hourlyMap = new LinkedHashMap<>();
         
-        // Khởi tạo tất cả các giờ trong ngày (0-23)
-        for (int hour = 0; hour < 24; hour++) {
-            String hourKey = String.format("%02d:00", hour);
-            hourlyMap.put(hourKey, new HourlyData());
-        }
+        report.setOrders(orderSummaries);
+        report.setRevenueByPeriod(aggregate.revenueByPeriod());
+        report.setCategorySales(aggregate.categorySales());
+        report.setTopSellingItems(calculateTopSellingItems(aggregate));
+        report.setTimeOfDayAnalysis(aggregate.timeOfDayAnalysis());
+        report.setPaymentMethodAnalysis(aggregate.paymentMethodAnalysis());
+        report.setHourlyData(aggregate.hourlyAnalysis());
+        report.setTotalRevenue(aggregate.totalRevenue());
+        report.setTotalOrders(aggregate.getPaidOrders());
+        report.setAverageOrderValue(aggregate.averageOrderValue());
         
-        // Tổng hợp dữ liệu theo từng giờ
-        for (Payment payment : payments) {
-            int hour = payment.getPaymentTime().getHour();
-            String hourKey = String.format("%02d:00", hour);
-            
-            HourlyData data = hourlyMap.get(hourKey);
-            data.orderCount++;
-            data.totalAmount = data.totalAmount.add(payment.getAmount());
-        }
+        return report;
+    }
+    
+    private List<TopSellingItemDTO> calculateTopSellingItems(ReportAggregate aggregate) {
+        // Giới hạn 10 món bán chạy nhất
+        List<ReportAggregate.ItemTotals> top = aggregate.topSellingItems(10);
         
-        // Chuyển đổi sang danh sách HourlyAnalysisDTO
-        List<HourlyAnalysisDTO> result = new ArrayList<>();
-        for (int hour = 0; hour < 24; hour++) {
-            String hourKey = String.format("%02d:00", hour);
-            HourlyData data = hourlyMap.get(hourKey);
-            result.add(new HourlyAnalysisDTO(
-                    hourKey,
-                    data.orderCount,
-                    data.totalAmount
-            ));
+        // Bảng tổng hợp không lưu giá: lấy giá hiện tại của các món trong top
+        List<Long> missingPrices = top.stream()
+                .filter(totals -> totals.price == null)
+                .map(totals -> totals.menuItemId)
+                .collect(Collectors.toList());
+        if (!missingPrices.isEmpty()) {
+            Map<Long, MenuItem> menuItems = menuItemRepository.findAllById(missingPrices).stream()
+                    .collect(Collectors.toMap(MenuItem::getId, Function.identity()));
+            top.stream()
+                    .filter(totals -> totals.price == null && menuItems.containsKey(totals.menuItemId))
+                    .forEach(totals -> totals.price = menuItems.get(totals.menuItemId).getPrice());
         }
         
-        return result;
+        return top.stream()
+                .map(totals -> new TopSellingItemDTO(
+                        totals.menuItemId,
+                        totals.menuItemName,
+                        totals.category,
+                        totals.price,
+                        totals.quantity,
+                        ReportAggregate.fromCents(totals.cents)
+                ))
+                .collect(Collectors.toList());
     }
     
-    private static class CategorySalesData {
-        BigDecimal totalSales = BigDecimal.ZERO;
-        int itemsSold = 0;
-    }
-
-    private static class TopSellingItemData {
-        Long menuItemId;
-        String menuItemName;
-        String category;
-        BigDecimal price;
-        int quantitySold;
-        BigDecimal totalSales = BigDecimal.ZERO;
-    }
-
-    private static class TimeOfDayData {
-        int orderCount = 0;
-        BigDecimal totalAmount = BigDecimal.ZERO;
+    private record ReportKey(LocalDateTime startDate, LocalDateTime endDate) {
     }
     
-    private static class PaymentMethodData {
-        int count = 0;
-        BigDecimal amount = BigDecimal.ZERO;
+    private record CachedReport(ReportDTO report, boolean closed) {
     }
+    
+    /**
+     * Kỳ đã khép lại không hết hạn; kỳ còn mở hết hạn sau một khoảng ngắn kể từ lúc tính
+     */
+    private record PeriodExpiry(long openPeriodTtlNanos) implements Expiry<ReportKey, CachedReport> {
+        @Override
+        public long expireAfterCreate(ReportKey key, CachedReport value, long currentTime) {
+            return value.closed() ? Long.MAX_VALUE : openPeriodTtlNanos;
+        }
 
-    private static class HourlyData {
-        int orderCount = 0;
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        @Override
+        public long expireAfterUpdate(ReportKey key, CachedReport value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ReportKey key, CachedReport value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -1,4 +1,5 @@
 package com.example.backend.service.impl;
+import com.example.backend.event.TableChangedEvent;
 import com.example.backend.model.Table;
 import com.example.backend.model.enums.TableStatus;
 import com.example.backend.repository.OrderRepository;
@@ -7,6 +8,7 @@ import com.example.backend.repository.UserRepository;
 import com.example.backend.service.TableService;
 import com.example.backend.exception.Exceptions;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
@@ -22,6 +24,8 @@ public class TableServiceImpl implements TableService {
     
     private final UserRepository userRepository;
     
+    private final ApplicationEventPublisher eventPublisher;
+    
     @Override
     public List<Table> getAllTables() {
         return tableRepository.findByIsActiveTrue();
@@ -87,6 +91,7 @@ public class TableServiceImpl implements TableService {
         table.setStatus(TableStatus.CLOSED);
         table.setOccupiedAt(null);
         tableRepository.save(table);
+        eventPublisher.publishEvent(new TableChangedEvent(tableId));
     }
     
     @Override
@@ -127,7 +132,9 @@ public class TableServiceImpl implements TableService {
         // Mặc định các giá trị cần thiết
         table.setStatus(TableStatus.CLOSED);
         table.setIsActive(true); // Mặc định là hiển thị
-        return tableRepository.save(table);
+        Table savedTable = tableRepository.save(table);
+        eventPublisher.publishEvent(new TableChangedEvent(savedTable.getId()));
+        return savedTable;
     }
     
     @Override
@@ -147,7 +154,9 @@ public class TableServiceImpl implements TableService {
         existingTable.setCapacity(tableData.getCapacity());
         
         // Không thay đổi status và các thông tin khác
-        return tableRepository.save(existingTable);
+        Table savedTable = tableRepository.save(existingTable);
+        eventPublisher.publishEvent(new TableChangedEvent(id));
+        return savedTable;
     }
     
     @Override
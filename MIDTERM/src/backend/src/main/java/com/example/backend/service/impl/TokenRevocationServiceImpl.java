@@ -0,0 +1,157 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.model.TokenRevocation;
+import com.example.backend.model.enums.RevocationType;
+import com.example.backend.repository.TokenRevocationRepository;
+import com.example.backend.security.BloomFilter;
+import com.example.backend.security.JwtUtil;
+import com.example.backend.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Danh sách thu hồi token được lưu vào bảng token_revocations và nạp toàn bộ vào bộ nhớ khi khởi động,
+ * nên mỗi request chỉ kiểm tra trong bộ nhớ mà không truy vấn cơ sở dữ liệu.
+ * Các bản ghi mới được đồng bộ định kỳ từ bảng, để thu hồi thực hiện ở instance khác cũng có hiệu lực tại đây.
+ * Token thu hồi riêng lẻ được lọc qua Bloom filter trước rồi mới tra tập chính xác;
+ * thu hồi theo người dùng là một mốc thời gian: token cấp trước mốc đó đều bị từ chối.
+ */
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private final TokenRevocationRepository revocationRepository;
+    private final BloomFilter revokedTokenFilter;
+    private final Set<String> revokedTokenIds = ConcurrentHashMap.newKeySet();
+    // Email -> mốc thu hồi tính bằng mili giây epoch
+    private final Map<String, Long> issuedBeforeWatermarks = new ConcurrentHashMap<>();
+    private final Duration syncOverlap;
+    // Mốc đã đồng bộ tới; mỗi lần đồng bộ đọc lùi thêm syncOverlap để không bỏ sót bản ghi commit muộn
+    private volatile Instant syncedUntil = Instant.EPOCH;
+
+    public TokenRevocationServiceImpl(TokenRevocationRepository revocationRepository,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${auth.revocation.expected-tokens:100000}") long expectedTokens,
+                                      @Value("${auth.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                      @Value("${auth.revocation.sync-overlap-ms:60000}") long syncOverlapMs) {
+        this.revocationRepository = revocationRepository;
+        this.revokedTokenFilter = new BloomFilter(expectedTokens, falsePositiveRate);
+        this.syncOverlap = Duration.ofMillis(syncOverlapMs);
+
+        Gauge.builder("auth.revocation.tokens", revokedTokenIds, Set::size)
+                .description("Số token bị thu hồi riêng lẻ")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Nạp trước khi nhận request để token đã thu hồi không lọt qua trong lúc khởi động
+     */
+    @PostConstruct
+    void load() {
+        Instant started = Instant.now();
+        revocationRepository.findAll().forEach(this::apply);
+        syncedUntil = started;
+    }
+
+    /**
+     * Nạp các bản ghi thu hồi mới từ những instance khác. Việc áp dụng là idempotent
+     * nên đọc trùng trong khoảng chồng lấn không ảnh hưởng kết quả.
+     */
+    @Scheduled(fixedDelayString = "${auth.revocation.sync-interval-ms:5000}")
+    void syncFromDatabase() {
+        Instant started = Instant.now();
+        revocationRepository.findByRevokedAtGreaterThanEqual(syncedUntil.minus(syncOverlap)).forEach(this::apply);
+        syncedUntil = started;
+    }
+
+    @Override
+    @Transactional
+    public void revokeToken(String tokenId) {
+        if (tokenId == null || revokedTokenIds.contains(tokenId)) {
+            return;
+        }
+        TokenRevocation revocation = revocationRepository.save(
+                new TokenRevocation(null, RevocationType.TOKEN, tokenId, Instant.now()));
+        applyAfterCommit(revocation);
+    }
+
+    @Override
+    @Transactional
+    public void revokeAllForUser(String email) {
+        if (email == null) {
+            return;
+        }
+        TokenRevocation revocation = revocationRepository.save(
+                new TokenRevocation(null, RevocationType.USER, email, Instant.now()));
+        applyAfterCommit(revocation);
+    }
+
+    @Override
+    public boolean isRevoked(Claims claims) {
+        Long watermark = issuedBeforeWatermarks.get(claims.getSubject());
+        if (watermark != null) {
+            Long issuedAtMillis = issuedAtMillis(claims);
+            // Token không có thời điểm cấp được coi như cấp từ trước mọi mốc thu hồi.
+            // So sánh chặt ở mức mili giây để token đăng nhập lại ngay sau khi thu hồi vẫn hợp lệ.
+            if (issuedAtMillis == null || issuedAtMillis < watermark) {
+                return true;
+            }
+        }
+        String tokenId = claims.getId();
+        return tokenId != null && revokedTokenFilter.mightContain(tokenId) && revokedTokenIds.contains(tokenId);
+    }
+
+    /**
+     * Token cấp trước khi có claim iat_ms chỉ có iat chính xác đến giây
+     */
+    private static Long issuedAtMillis(Claims claims) {
+        Long millis = claims.get(JwtUtil.ISSUED_AT_MILLIS_CLAIM, Long.class);
+        if (millis != null) {
+            return millis;
+        }
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt == null ? null : issuedAt.getTime();
+    }
+
+    /**
+     * Chỉ cập nhật bộ nhớ khi transaction bao ngoài đã commit, để thay đổi bị rollback
+     * (ví dụ cập nhật người dùng thất bại) không để lại token bị thu hồi mà không có bản ghi tương ứng
+     */
+    private void applyAfterCommit(TokenRevocation revocation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(revocation);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(revocation);
+            }
+        });
+    }
+
+    private void apply(TokenRevocation revocation) {
+        switch (revocation.getType()) {
+            case TOKEN -> {
+                revokedTokenFilter.put(revocation.getSubject());
+                revokedTokenIds.add(revocation.getSubject());
+            }
+            case USER -> issuedBeforeWatermarks.merge(revocation.getSubject(),
+                    revocation.getRevokedAt().toEpochMilli(), Math::max);
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.example.backend.model.User;
 import com.example.backend.model.enums.UserRole;
 import com.example.backend.repository.UserRepository;
 import com.example.backend.security.JwtUtil;
+import com.example.backend.service.TokenRevocationService;
 import com.example.backend.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -28,9 +29,13 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
     @Override
     public Optional<LoginResponse> authenticate(LoginRequest request) {
         return userRepository.findByEmail(request.getEmail())
+                .filter(user -> !Boolean.FALSE.equals(user.getIsActive()))
                 .filter(user -> passwordEncoder.matches(request.getPassword(), user.getPassword()))
                 .map(user -> {
                     String token = jwtUtil.generateToken(user.getEmail(), user.getRole());
@@ -81,6 +86,9 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public User updateUser(Long id, User userData) {
         User existingUser = getUserById(id);
+        String previousEmail = existingUser.getEmail();
+        UserRole previousRole = existingUser.getRole();
+        boolean passwordChanged = userData.getPassword() != null && !userData.getPassword().isEmpty();
         
         // Cập nhật thông tin cơ bản
         existingUser.setName(userData.getName());
@@ -95,10 +103,16 @@ public class UserServiceImpl implements UserService {
         }
         
         // Nếu có thay đổi mật khẩu, mã hóa mật khẩu mới
-        if (userData.getPassword() != null && !userData.getPassword().isEmpty()) {
+        if (passwordChanged) {
             existingUser.setPassword(passwordEncoder.encode(userData.getPassword()));
         }
         
+        // Token cũ mang email và role cũ nên phải thu hồi khi các thông tin này hoặc mật khẩu thay đổi
+        if (passwordChanged || previousRole != existingUser.getRole()
+                || !previousEmail.equals(existingUser.getEmail())) {
+            tokenRevocationService.revokeAllForUser(previousEmail);
+        }
+        
         return userRepository.save(existingUser);
     }
     
@@ -108,6 +122,8 @@ public class UserServiceImpl implements UserService {
         User user = getUserById(id);
         user.setIsActive(false);
         userRepository.save(user);
+        // Có hiệu lực ngay: mọi token đã cấp cho người dùng bị từ chối từ request kế tiếp
+        tokenRevocationService.revokeAllForUser(user.getEmail());
     }
     
     @Override
@@ -116,6 +132,8 @@ public class UserServiceImpl implements UserService {
         User user = getUserById(id);
         user.setIsActive(true);
         userRepository.save(user);
+        // Giữ nguyên mốc thu hồi: token không hết hạn nên token cũ phải tiếp tục bị từ chối,
+        // người dùng đăng nhập lại để nhận token mới (cấp sau mốc)
     }
     
     @Override
@@ -0,0 +1,118 @@
+package com.example.backend.stream;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thuật toán Space-Saving để tìm các phần tử xuất hiện nhiều nhất trong một luồng dữ liệu
+ * với bộ nhớ cố định: chỉ giữ tối đa capacity bộ đếm. Khi đầy, phần tử mới thay thế bộ đếm nhỏ nhất
+ * và kế thừa giá trị của nó làm sai số, nên số đếm luôn là cận trên của số thực.
+ * Không an toàn luồng; lớp sử dụng tự đồng bộ.
+ */
+public class SpaceSavingSketch<K> {
+
+    private final int capacity;
+    private final Map<K, Counter<K>> counters;
+
+    public SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(K key, long weight) {
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new Counter<>(key, weight, 0));
+            return;
+        }
+        Counter<K> min = null;
+        for (Counter<K> candidate : counters.values()) {
+            if (min == null || candidate.count < min.count) {
+                min = candidate;
+            }
+        }
+        counters.remove(min.key);
+        counters.put(key, new Counter<>(key, min.count + weight, min.count));
+    }
+
+    public void clear() {
+        counters.clear();
+    }
+
+    public Collection<Counter<K>> counters() {
+        return counters.values();
+    }
+
+    /**
+     * Gộp nhiều sketch (ví dụ các ô của cửa sổ trượt) bằng cách cộng số đếm và sai số theo từng khóa.
+     * Khóa không có trong một sketch đã đầy vẫn có thể đã bị đẩy ra ở đó với số đếm tới mức nhỏ nhất của sketch,
+     * nên mức nhỏ nhất ấy được cộng vào cả số đếm và sai số để giữ số đếm là cận trên.
+     */
+    public static <K> List<Counter<K>> top(Collection<SpaceSavingSketch<K>> sketches, int limit) {
+        Map<K, Counter<K>> merged = new HashMap<>();
+        // Cộng mức nhỏ nhất của mọi sketch đầy cho mọi khóa, rồi trừ lại ở các sketch có chứa khóa
+        long minTotal = 0;
+        for (SpaceSavingSketch<K> sketch : sketches) {
+            long min = sketch.minCountIfFull();
+            minTotal += min;
+            for (Counter<K> counter : sketch.counters.values()) {
+                Counter<K> total = merged.computeIfAbsent(counter.key, key -> new Counter<>(key, 0, 0));
+                total.count += counter.count - min;
+                total.error += counter.error - min;
+            }
+        }
+        for (Counter<K> total : merged.values()) {
+            total.count += minTotal;
+            total.error += minTotal;
+        }
+        List<Counter<K>> result = new ArrayList<>(merged.values());
+        result.sort(Comparator.comparingLong((Counter<K> counter) -> counter.count).reversed());
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    /**
+     * Sketch chưa đầy chưa từng đẩy khóa nào ra, nên khóa vắng mặt ở đó có số đếm đúng bằng 0
+     */
+    private long minCountIfFull() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        long min = Long.MAX_VALUE;
+        for (Counter<K> counter : counters.values()) {
+            min = Math.min(min, counter.count);
+        }
+        return min;
+    }
+
+    public static class Counter<K> {
+        private final K key;
+        private long count;
+        private long error;
+
+        Counter(K key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.backend.stream;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Quản lý các kết nối Server-Sent Events theo từng chủ đề (ví dụ: số bàn, loại bếp).
+ * Mỗi chủ đề giữ lại một số sự kiện gần nhất để client kết nối lại bằng Last-Event-ID
+ * có thể nhận tiếp mà không bỏ sót; nếu đã quá xa thì client được gửi lại snapshot.
+ * Luồng phát sự kiện chỉ đưa sự kiện vào hàng đợi của từng client; việc ghi ra mạng chạy ở luồng riêng
+ * nên một client chậm không làm chậm các client khác hay transaction đang phát sự kiện.
+ */
+public class SseTopicRegistry<K> {
+
+    private final Map<K, Topic> topics = new ConcurrentHashMap<>();
+    // Khởi tạo theo thời gian để ID của lần chạy trước luôn nhỏ hơn ID mới sau khi khởi động lại
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+    private final int replayCapacity;
+    private final long emitterTimeoutMillis;
+    private final ExecutorService sendExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-send-", 0).factory());
+
+    public SseTopicRegistry(int replayCapacity, long emitterTimeoutMillis) {
+        this.replayCapacity = replayCapacity;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+    }
+
+    /**
+     * Đăng ký một client mới cho chủ đề.
+     * Client được đăng ký trước khi đọc snapshot; snapshot mang ID tại thời điểm đăng ký,
+     * nên mọi sự kiện phát sau đó đều được gửi tiếp sau snapshot (có thể trùng nhưng không bị sót).
+     *
+     * @param key Chủ đề cần theo dõi
+     * @param lastEventId Giá trị header Last-Event-ID của client (có thể null)
+     * @param snapshotLoader Đọc trạng thái đầy đủ khi không thể phát lại từ bộ đệm
+     * @return SseEmitter đã được đăng ký
+     */
+    public SseEmitter subscribe(K key, String lastEventId, Supplier<Snapshot> snapshotLoader) {
+        Topic topic = topicFor(key);
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(topic, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        long snapshotId;
+        synchronized (topic) {
+            Long resumeFrom = parseEventId(lastEventId);
+            List<BufferedEvent> replay = resumeFrom != null && resumeFrom <= sequence.get()
+                    ? topic.eventsAfter(resumeFrom)
+                    : null;
+            topic.subscribers.add(subscriber);
+            if (replay != null) {
+                replay.forEach(event -> subscriber.enqueue(event.toBuilder()));
+                subscriber.start(null);
+                return emitter;
+            }
+            snapshotId = sequence.get();
+        }
+
+        try {
+            Snapshot snapshot = snapshotLoader.get();
+            subscriber.start(SseEmitter.event().id(String.valueOf(snapshotId))
+                    .name(snapshot.eventName()).data(snapshot.data()));
+        } catch (RuntimeException e) {
+            subscriber.close();
+            throw e;
+        }
+        return emitter;
+    }
+
+    /**
+     * Phát một sự kiện tới tất cả client của chủ đề và lưu vào bộ đệm phát lại
+     */
+    public void publish(K key, String eventName, Object data) {
+        Topic topic = topicFor(key);
+        synchronized (topic) {
+            BufferedEvent event = new BufferedEvent(sequence.incrementAndGet(), eventName, data);
+            topic.buffer(event, replayCapacity);
+            for (Subscriber subscriber : topic.subscribers) {
+                subscriber.enqueue(event.toBuilder());
+            }
+        }
+    }
+
+    /**
+     * Bỏ qua sự kiện của một chủ đề không có client nào để khỏi phải đọc dữ liệu.
+     * Bộ đệm phát lại được xóa để client kết nối lại sau đó nhận snapshot thay vì bỏ sót thay đổi này.
+     *
+     * @return true nếu chủ đề không có client và sự kiện đã được bỏ qua
+     */
+    public boolean discardIfIdle(K key) {
+        Topic topic = topicFor(key);
+        synchronized (topic) {
+            if (!topic.subscribers.isEmpty()) {
+                return false;
+            }
+            topic.recent.clear();
+            topic.floorId = sequence.incrementAndGet();
+            return true;
+        }
+    }
+
+    /**
+     * Gửi comment giữ kết nối để proxy không đóng các kết nối đang rảnh
+     */
+    public void heartbeat() {
+        for (Topic topic : topics.values()) {
+            for (Subscriber subscriber : topic.subscribers) {
+                subscriber.enqueue(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return topics.values().stream().mapToInt(topic -> topic.subscribers.size()).sum();
+    }
+
+    private Topic topicFor(K key) {
+        return topics.computeIfAbsent(key, k -> new Topic(sequence.get()));
+    }
+
+    private Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private final class Topic {
+        private final Collection<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final ArrayDeque<BufferedEvent> recent = new ArrayDeque<>();
+        // Mọi sự kiện có ID lớn hơn mốc này đều còn trong bộ đệm
+        private long floorId;
+
+        Topic(long floorId) {
+            this.floorId = floorId;
+        }
+
+        void buffer(BufferedEvent event, int capacity) {
+            recent.addLast(event);
+            while (recent.size() > capacity) {
+                floorId = recent.removeFirst().id();
+            }
+        }
+
+        /**
+         * @return Các sự kiện sau lastEventId, hoặc null nếu cần gửi lại snapshot
+         */
+        List<BufferedEvent> eventsAfter(long lastEventId) {
+            if (lastEventId < floorId) {
+                return null;
+            }
+            List<BufferedEvent> result = new ArrayList<>();
+            for (BufferedEvent event : recent) {
+                if (event.id() > lastEventId) {
+                    result.add(event);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Một client với hàng đợi riêng, được ghi ra tuần tự bởi tối đa một luồng tại một thời điểm.
+     * Client tụt lại quá số sự kiện trong bộ đệm phát lại bị ngắt; khi kết nối lại sẽ nhận snapshot.
+     */
+    private final class Subscriber {
+        private final Topic topic;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Snapshot phải được gửi trước mọi sự kiện đã xếp hàng trong lúc đọc snapshot
+        private volatile SseEmitter.SseEventBuilder first;
+        private volatile boolean started;
+        private volatile boolean closed;
+
+        Subscriber(Topic topic, SseEmitter emitter) {
+            this.topic = topic;
+            this.emitter = emitter;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > replayCapacity) {
+                close();
+                emitter.complete();
+                return;
+            }
+            pending.add(event);
+            schedule();
+        }
+
+        void start(SseEmitter.SseEventBuilder snapshot) {
+            first = snapshot;
+            started = true;
+            schedule();
+        }
+
+        void close() {
+            closed = true;
+            topic.subscribers.remove(this);
+        }
+
+        private void schedule() {
+            if (started && !closed && draining.compareAndSet(false, true)) {
+                sendExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder snapshot = first;
+                if (snapshot != null) {
+                    first = null;
+                    emitter.send(snapshot);
+                }
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // Sự kiện đến sau lần poll cuối nhưng trước khi trả cờ draining
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    public record Snapshot(String eventName, Object data) {
+    }
+
+    private record BufferedEvent(long id, String name, Object data) {
+        SseEmitter.SseEventBuilder toBuilder() {
+            return SseEmitter.event().id(String.valueOf(id)).name(name).data(data);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.MenuSnapshot;
+import com.example.backend.dto.MenuSnapshot.Representation;
+import com.example.backend.service.MenuService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class MenuControllerTest {
+
+    private static final String ETAG = "0123456789abcdef0123456789abcdef";
+    private static final String BODY = "[{\"id\":1,\"name\":\"Phở bò\"}]";
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MenuService menuService = mock(MenuService.class);
+        Representation json = new Representation(ETAG, BODY.getBytes(StandardCharsets.UTF_8));
+        when(menuService.getSnapshot()).thenReturn(
+                new MenuSnapshot(1, List.of(), List.of(), Set.of(), json, json, json));
+        mockMvc = MockMvcBuilders.standaloneSetup(new MenuController(menuService)).build();
+    }
+
+    @Test
+    void returnsTheBodyWithAStrongEtag() throws Exception {
+        mockMvc.perform(get("/api/menu/visible"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + ETAG + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(content().bytes(BODY.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void returnsNotModifiedWhenTheEtagMatches() throws Exception {
+        mockMvc.perform(get("/api/menu/visible").header(HttpHeaders.IF_NONE_MATCH, "\"" + ETAG + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void returnsTheBodyWhenTheEtagIsStale() throws Exception {
+        mockMvc.perform(get("/api/menu").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + ETAG + "\""));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.backend.controller;
+
+import com.example.backend.exception.GlobalExceptionHandler;
+import com.example.backend.model.OrderItem;
+import com.example.backend.model.enums.OrderItemStatus;
+import com.example.backend.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OrderItemControllerTest {
+
+    private OrderService orderService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new OrderItemController(orderService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void updatesTheStatusIgnoringCase() throws Exception {
+        when(orderService.updateOrderItemStatus(1L, OrderItemStatus.READY)).thenReturn(new OrderItem());
+
+        mockMvc.perform(put("/api/orderItems/1/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"ready\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void rejectsAnUnknownStatusWithBadRequest() throws Exception {
+        mockMvc.perform(put("/api/orderItems/1/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"EATEN\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderService, never()).updateOrderItemStatus(anyLong(), any());
+    }
+
+    @Test
+    void rejectsAMissingBulkStatusWithBadRequest() throws Exception {
+        mockMvc.perform(put("/api/orderItems/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"orderItemIds\":[1,2]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderService, never()).updateOrderItemStatuses(any(), any());
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.backend.security;
+
+import com.example.backend.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginRateLimiterTest {
+
+    // 3 token cho mỗi email, 100 cho mỗi IP, gần như không nạp lại trong thời gian chạy test
+    private final LoginRateLimiter limiter = new LoginRateLimiter(3, 0.001, 100, 0.001, 1000);
+
+    @Test
+    void attemptsWithoutFailuresDoNotChargeTheEmail() {
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire("staff@example.com", "10.0.0." + i);
+        }
+
+        assertThatCode(() -> limiter.acquire("staff@example.com", "10.0.0.99")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void failedLoginsLockTheEmailFromEveryAddress() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("Staff@Example.com", "10.0.0.1");
+            limiter.recordFailure("Staff@Example.com");
+        }
+
+        assertThatThrownBy(() -> limiter.acquire("staff@example.com", "10.0.0.2"))
+                .isInstanceOf(TooManyRequestsException.class);
+        assertThatCode(() -> limiter.acquire("other@example.com", "10.0.0.2")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void everyAttemptChargesTheAddress() {
+        LoginRateLimiter strict = new LoginRateLimiter(3, 0.001, 2, 0.001, 1000);
+        strict.acquire("a@example.com", "10.0.0.1");
+        strict.acquire("b@example.com", "10.0.0.1");
+
+        assertThatThrownBy(() -> strict.acquire("c@example.com", "10.0.0.1"))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.OrderResponse;
+import com.example.backend.logging.AsyncLogPipeline;
+import com.example.backend.model.Order;
+import com.example.backend.model.Table;
+import com.example.backend.model.enums.OrderStatus;
+import com.example.backend.repository.OrderItemRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.TableRepository;
+import com.example.backend.service.ActiveOrderIndex;
+import com.example.backend.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ActiveOrderIndexImplTest {
+
+    private OrderRepository orderRepository;
+    private OrderItemRepository orderItemRepository;
+    private PlatformTransactionManager transactionManager;
+    private ActiveOrderIndexImpl index;
+
+    // Trạng thái "đã commit" mà mỗi lần đọc nhìn thấy, theo id đơn
+    private final Map<Long, BigDecimal> committedTotals = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        orderItemRepository = mock(OrderItemRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+
+        OrderService orderService = mock(OrderService.class);
+        when(orderService.convertOrderToResponse(any(), any())).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            OrderResponse response = new OrderResponse();
+            response.setId(order.getId());
+            response.setTotalAmount(order.getTotalAmount());
+            return response;
+        });
+        when(orderRepository.findById(any())).thenAnswer(invocation -> {
+            Long orderId = invocation.getArgument(0);
+            BigDecimal total = committedTotals.get(orderId);
+            return total == null ? Optional.empty() : Optional.of(order(orderId, total));
+        });
+        when(orderItemRepository.findByOrder(any())).thenReturn(List.of());
+
+        index = new ActiveOrderIndexImpl(mock(TableRepository.class), orderRepository, orderItemRepository,
+                orderService, mock(AsyncLogPipeline.class), transactionManager);
+    }
+
+    @Test
+    void readsCommittedStateInANewReadOnlyTransaction() {
+        committedTotals.put(1L, new BigDecimal("10"));
+
+        index.refreshOrder(1L);
+
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, atLeastOnce()).getTransaction(definitions.capture());
+        assertThat(definitions.getAllValues()).allSatisfy(definition -> {
+            assertThat(definition.getPropagationBehavior()).isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            assertThat(definition.isReadOnly()).isTrue();
+        });
+        assertThat(index.find(tableNumber(1L)).snapshot().getTotalAmount()).isEqualTo(new BigDecimal("10"));
+    }
+
+    @Test
+    void laterRefreshOfTheSameTableWinsEvenWhenAnEarlierReadIsSlow() throws Exception {
+        committedTotals.put(1L, new BigDecimal("10"));
+        CountDownLatch firstReadStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstRead = new CountDownLatch(1);
+        AtomicBoolean first = new AtomicBoolean(true);
+        when(orderItemRepository.findByOrder(any())).thenAnswer(invocation -> {
+            if (first.compareAndSet(true, false)) {
+                firstReadStarted.countDown();
+                releaseFirstRead.await(5, TimeUnit.SECONDS);
+            }
+            return List.of();
+        });
+
+        // Lần nạp đầu đọc tổng 10 rồi bị chậm trước khi ghi vào chỉ mục
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> index.refreshOrder(1L));
+        assertThat(firstReadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Một commit mới hơn đổi tổng thành 20 và kích hoạt lần nạp thứ hai cho cùng bàn
+        committedTotals.put(1L, new BigDecimal("20"));
+        CompletableFuture<Void> fast = CompletableFuture.runAsync(() -> index.refreshOrder(1L));
+        Thread.sleep(100);
+        assertThat(fast).isNotDone();
+
+        releaseFirstRead.countDown();
+        CompletableFuture.allOf(slow, fast).get(5, TimeUnit.SECONDS);
+
+        assertThat(index.find(tableNumber(1L)).snapshot().getTotalAmount()).isEqualTo(new BigDecimal("20"));
+    }
+
+    @Test
+    void refreshesOfDifferentTablesDoNotWaitForEachOther() throws Exception {
+        committedTotals.put(1L, new BigDecimal("10"));
+        committedTotals.put(2L, new BigDecimal("30"));
+        CountDownLatch firstReadStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstRead = new CountDownLatch(1);
+        when(orderItemRepository.findByOrder(any())).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            if (order.getId() == 1L) {
+                firstReadStarted.countDown();
+                releaseFirstRead.await(5, TimeUnit.SECONDS);
+            }
+            return List.of();
+        });
+
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> index.refreshOrder(1L));
+        assertThat(firstReadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        index.refreshOrder(2L);
+        ActiveOrderIndex.Entry other = index.find(tableNumber(2L));
+
+        releaseFirstRead.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+        assertThat(other.snapshot().getTotalAmount()).isEqualTo(new BigDecimal("30"));
+    }
+
+    @Test
+    void clearsTheTableWhenTheOrderIsNoLongerActive() {
+        committedTotals.put(1L, new BigDecimal("10"));
+        index.refreshOrder(1L);
+
+        when(orderRepository.findById(1L)).thenAnswer(invocation -> {
+            Order paid = order(1L, new BigDecimal("10"));
+            paid.setStatus(OrderStatus.PAID);
+            return Optional.of(paid);
+        });
+        index.refreshOrder(1L);
+
+        ActiveOrderIndex.Entry entry = index.find(tableNumber(1L));
+        assertThat(entry.orderId()).isNull();
+        assertThat(entry.snapshot()).isNull();
+    }
+
+    // Mỗi đơn trong bài kiểm tra nằm ở một bàn riêng có cùng id
+    private static Order order(Long orderId, BigDecimal total) {
+        Table table = new Table();
+        table.setId(orderId);
+        table.setTableNumber(tableNumber(orderId));
+        Order order = new Order();
+        order.setId(orderId);
+        order.setTable(table);
+        order.setStatus(OrderStatus.PENDING);
+        order.setTotalAmount(total);
+        return order;
+    }
+
+    private static String tableNumber(Long tableId) {
+        return "A_0" + tableId;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.logging.AsyncLogPipeline;
+import com.example.backend.model.KitchenTransition;
+import com.example.backend.model.enums.OrderItemStatus;
+import com.example.backend.model.enums.OrderStatus;
+import com.example.backend.repository.KitchenTransitionRepository;
+import com.example.backend.repository.OrderItemRepository;
+import com.example.backend.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KitchenTimerServiceImplTest {
+
+    private static final long TICK_MILLIS = 10;
+
+    private KitchenTransitionRepository transitionRepository;
+    private OrderRepository orderRepository;
+    private OrderItemRepository orderItemRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    @BeforeEach
+    void setUp() {
+        transitionRepository = mock(KitchenTransitionRepository.class);
+        orderRepository = mock(OrderRepository.class);
+        orderItemRepository = mock(OrderItemRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        when(transitionRepository.save(any())).thenAnswer(invocation -> {
+            KitchenTransition transition = invocation.getArgument(0);
+            transition.setId(nextId.getAndIncrement());
+            return transition;
+        });
+        when(orderItemRepository.findDueItems(anyCollection(), any(), any())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void firesTheTransitionOnceItIsDue() throws InterruptedException {
+        KitchenTimerServiceImpl timer = timer(0);
+        timer.schedule(7L);
+        assertThat(timer.getQueueDepth()).isEqualTo(1);
+
+        Thread.sleep(3 * TICK_MILLIS);
+        timer.tick();
+
+        verify(orderRepository).updateDueOrderStatus(eq(Set.of(7L)), any(), eq(OrderStatus.PENDING), eq(OrderStatus.SERVING));
+        verify(orderItemRepository).findDueItems(eq(Set.of(7L)), any(), eq(OrderItemStatus.PENDING));
+        verify(transitionRepository).deleteAllByIdInBatch(List.of(1L));
+        verify(eventPublisher).publishEvent(argThat((Object event) ->
+                event instanceof OrderChangedEvent changed && changed.getOrderId().equals(7L)));
+        assertThat(timer.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void doesNotFireBeforeTheDelay() {
+        KitchenTimerServiceImpl timer = timer(60);
+        timer.schedule(7L);
+
+        timer.tick();
+
+        verify(orderRepository, never()).updateDueOrderStatus(anyCollection(), any(), any(), any());
+        assertThat(timer.getQueueDepth()).isEqualTo(1);
+    }
+
+    @Test
+    void registersOnlyAfterTheTransactionCommits() {
+        KitchenTimerServiceImpl timer = timer(0);
+        TransactionSynchronizationManager.initSynchronization();
+
+        timer.schedule(7L);
+        assertThat(timer.getQueueDepth()).isZero();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(timer.getQueueDepth()).isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackScheduleLeavesNoTimer() {
+        KitchenTimerServiceImpl timer = timer(0);
+        TransactionSynchronizationManager.initSynchronization();
+
+        timer.schedule(7L);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(timer.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void recoveryRegistersPendingRowsWithoutDuplicatingLiveTimers() throws InterruptedException {
+        KitchenTimerServiceImpl timer = timer(0);
+        timer.schedule(7L);
+        KitchenTransition live = new KitchenTransition(1L, 7L, LocalDateTime.now());
+        KitchenTransition overdue = new KitchenTransition(42L, 8L, LocalDateTime.now().minusMinutes(5));
+        when(transitionRepository.findAll()).thenReturn(List.of(live, overdue));
+
+        timer.recoverPendingTransitions();
+        assertThat(timer.getQueueDepth()).isEqualTo(2);
+
+        Thread.sleep(3 * TICK_MILLIS);
+        timer.tick();
+
+        verify(orderRepository, times(1)).updateDueOrderStatus(eq(Set.of(7L, 8L)), any(), any(), any());
+        verify(transitionRepository).deleteAllByIdInBatch(argThat(
+                (List<Long> ids) -> ids.size() == 2 && ids.containsAll(List.of(1L, 42L))));
+        assertThat(timer.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void requeuesWhenTheUpdateFails() throws InterruptedException {
+        KitchenTimerServiceImpl timer = timer(0);
+        timer.schedule(7L);
+        when(orderRepository.updateDueOrderStatus(anyCollection(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(1);
+
+        Thread.sleep(3 * TICK_MILLIS);
+        timer.tick();
+        assertThat(timer.getQueueDepth()).isEqualTo(1);
+
+        Thread.sleep(3 * TICK_MILLIS);
+        timer.tick();
+        verify(transitionRepository).deleteAllByIdInBatch(List.of(1L));
+        assertThat(timer.getQueueDepth()).isZero();
+    }
+
+    // Không gọi start() để bài kiểm tra tự điều khiển từng tick
+    private KitchenTimerServiceImpl timer(long delaySeconds) {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        return new KitchenTimerServiceImpl(transitionRepository, orderRepository, orderItemRepository,
+                transactionManager, eventPublisher, new SimpleMeterRegistry(), mock(AsyncLogPipeline.class),
+                delaySeconds, TICK_MILLIS);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.MenuItemResponse;
+import com.example.backend.dto.MenuSnapshot;
+import com.example.backend.event.MenuChangedEvent;
+import com.example.backend.model.MenuItem;
+import com.example.backend.model.enums.KitchenType;
+import com.example.backend.repository.MenuItemRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MenuServiceImplTest {
+
+    private MenuItemRepository menuItemRepository;
+    private MenuServiceImpl menuService;
+    private List<MenuItem> items;
+
+    @BeforeEach
+    void setUp() {
+        menuItemRepository = mock(MenuItemRepository.class);
+        items = new ArrayList<>(List.of(
+                item(1L, "Phở bò", "Món chính", false),
+                item(2L, "Trà đá", "Đồ uống", false),
+                item(3L, "Món thử nghiệm", "Món chính", true)));
+        when(menuItemRepository.findAll()).thenAnswer(invocation -> new ArrayList<>(items));
+        menuService = new MenuServiceImpl(menuItemRepository, new ObjectMapper(), mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void buildsTheSnapshotOnceUntilTheMenuChanges() {
+        MenuSnapshot first = menuService.getSnapshot();
+        MenuSnapshot second = menuService.getSnapshot();
+
+        assertThat(second).isSameAs(first);
+        verify(menuItemRepository, times(1)).findAll();
+    }
+
+    @Test
+    void keepsTheEtagWhenTheContentIsUnchanged() {
+        MenuSnapshot before = menuService.getSnapshot();
+        menuService.onMenuChanged(new MenuChangedEvent(1L));
+        MenuSnapshot after = menuService.getSnapshot();
+
+        assertThat(after.version()).isGreaterThan(before.version());
+        assertThat(after.allItemsJson().etag()).isEqualTo(before.allItemsJson().etag());
+        assertThat(after.visibleItemsJson().etag()).isEqualTo(before.visibleItemsJson().etag());
+    }
+
+    @Test
+    void changesTheEtagWhenAnItemChanges() {
+        MenuSnapshot before = menuService.getSnapshot();
+        items.get(0).setPrice(new BigDecimal("55000"));
+        menuService.onMenuChanged(new MenuChangedEvent(1L));
+        MenuSnapshot after = menuService.getSnapshot();
+
+        assertThat(after.allItemsJson().etag()).isNotEqualTo(before.allItemsJson().etag());
+        assertThat(after.categoriesJson().etag()).isEqualTo(before.categoriesJson().etag());
+    }
+
+    @Test
+    void servesImmutableCopiesOfTheItems() {
+        List<MenuItemResponse> visible = menuService.getVisibleMenuItems();
+
+        assertThat(visible).extracting(MenuItemResponse::id).containsExactly(1L, 2L);
+        assertThat(menuService.getAllCategories()).containsExactly("Món chính", "Đồ uống");
+        assertThatThrownBy(() -> visible.remove(0)).isInstanceOf(UnsupportedOperationException.class);
+
+        // Sửa entity sau khi dựng ảnh chụp không làm thay đổi dữ liệu đang phục vụ
+        items.get(0).setName("Đã đổi tên");
+        assertThat(menuService.getAllMenuItems().get(0).name()).isEqualTo("Phở bò");
+    }
+
+    private static MenuItem item(Long id, String name, String category, boolean hidden) {
+        return new MenuItem(id, name, null, new BigDecimal("45000"), category, true,
+                "image.jpg", false, hidden, KitchenType.HOT_KITCHEN);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.OrderResponse;
+import com.example.backend.repository.OrderItemRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.repository.projection.OrderItemView;
+import com.example.backend.repository.projection.OrderSummaryView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceImplTest {
+
+    private OrderRepository orderRepository;
+    private OrderItemRepository orderItemRepository;
+    private OrderServiceImpl orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        orderItemRepository = mock(OrderItemRepository.class);
+        orderService = new OrderServiceImpl();
+        ReflectionTestUtils.setField(orderService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(orderService, "orderItemRepository", orderItemRepository);
+        ReflectionTestUtils.setField(orderService, "itemLookupChunkSize", 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadsItemsInBoundedChunksAndKeepsThemWithTheirOrder() {
+        List<OrderSummaryView> summaries = LongStream.rangeClosed(1, 5).mapToObj(this::summary).toList();
+        when(orderRepository.findAllSummaries()).thenReturn(summaries);
+        List<OrderItemView> firstChunk = List.of(item(10L, 1L), item(11L, 2L));
+        List<OrderItemView> lastChunk = List.of(item(12L, 5L));
+        when(orderItemRepository.findViewsByOrderIdIn(List.of(1L, 2L))).thenReturn(firstChunk);
+        when(orderItemRepository.findViewsByOrderIdIn(List.of(3L, 4L))).thenReturn(List.of());
+        when(orderItemRepository.findViewsByOrderIdIn(List.of(5L))).thenReturn(lastChunk);
+
+        List<OrderResponse> responses = orderService.getAllOrders();
+
+        ArgumentCaptor<Collection<Long>> chunks = ArgumentCaptor.forClass(Collection.class);
+        verify(orderItemRepository, times(3)).findViewsByOrderIdIn(chunks.capture());
+        assertThat(chunks.getAllValues()).allSatisfy(chunk -> assertThat(chunk).hasSizeLessThanOrEqualTo(2));
+        // Ghi lại nội dung vì subList chỉ là một khung nhìn
+        assertThat(chunks.getAllValues().stream().<List<Long>>map(List::copyOf).toList())
+                .containsExactly(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+
+        assertThat(responses).extracting(OrderResponse::getId).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(responses.get(0).getItems()).extracting("id").containsExactly(10L);
+        assertThat(responses.get(1).getItems()).extracting("id").containsExactly(11L);
+        assertThat(responses.get(2).getItems()).isEmpty();
+        assertThat(responses.get(4).getItems()).extracting("id").containsExactly(12L);
+    }
+
+    private OrderSummaryView summary(long orderId) {
+        OrderSummaryView summary = mock(OrderSummaryView.class);
+        when(summary.getId()).thenReturn(orderId);
+        return summary;
+    }
+
+    private OrderItemView item(Long itemId, Long orderId) {
+        OrderItemView item = mock(OrderItemView.class);
+        when(item.getId()).thenReturn(itemId);
+        when(item.getOrderId()).thenReturn(orderId);
+        return item;
+    }
+}
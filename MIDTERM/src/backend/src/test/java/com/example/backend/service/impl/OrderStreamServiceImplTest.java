@@ -0,0 +1,51 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.event.OrderChangedEvent;
+import com.example.backend.logging.AsyncLogPipeline;
+import com.example.backend.repository.OrderItemRepository;
+import com.example.backend.repository.OrderRepository;
+import com.example.backend.service.OrderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderStreamServiceImplTest {
+
+    private OrderService orderService;
+    private OrderRepository orderRepository;
+    private OrderStreamServiceImpl streamService;
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        orderRepository = mock(OrderRepository.class);
+        streamService = new OrderStreamServiceImpl(orderService, orderRepository, mock(OrderItemRepository.class),
+                mock(AsyncLogPipeline.class), 32, 60_000);
+    }
+
+    @Test
+    void skipsLoadingTheOrderWhenNobodyWatchesTheTable() {
+        when(orderRepository.findTableNumberById(1L)).thenReturn(Optional.of("A_01"));
+
+        streamService.onOrderChanged(new OrderChangedEvent(1L));
+
+        verify(orderRepository, never()).findById(any());
+        verify(orderService, never()).convertOrderToResponse(any(), any());
+    }
+
+    @Test
+    void ignoresOrdersWithoutATable() {
+        when(orderRepository.findTableNumberById(1L)).thenReturn(Optional.empty());
+
+        streamService.onOrderChanged(new OrderChangedEvent(1L));
+
+        verify(orderRepository, never()).findById(any());
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.OrderItemRequest;
+import com.example.backend.dto.OrderRequest;
+import com.example.backend.dto.OrderResponse;
+import com.example.backend.exception.UnprocessableRequestException;
+import com.example.backend.model.OrderSubmission;
+import com.example.backend.repository.OrderSubmissionRepository;
+import com.example.backend.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderSubmissionServiceImplTest {
+
+    private static final String TABLE = "A_01";
+    private static final String KEY = "5b0c1f7e-key";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private OrderService orderService;
+    private OrderSubmissionRepository submissionRepository;
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        orderService = mock(OrderService.class);
+        submissionRepository = mock(OrderSubmissionRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(submissionRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+        when(submissionRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(orderService.createCustomerOrder(eq(TABLE), any())).thenReturn(response(42L));
+    }
+
+    @Test
+    void replaysTheFirstResponseForTheSameKeyAndItems() {
+        OrderSubmissionServiceImpl service = service();
+
+        OrderResponse first = service.submitCustomerOrder(TABLE, request(item(1L, 2, "ít cay")), KEY);
+        // Khoảng trắng thừa trong ghi chú không làm đổi dấu vân tay
+        OrderResponse replay = service.submitCustomerOrder(TABLE, request(item(1L, 2, " ít cay ")), KEY);
+
+        assertThat(replay).isSameAs(first);
+        verify(orderService, times(1)).createCustomerOrder(eq(TABLE), any());
+    }
+
+    @Test
+    void replaysFromTheStoredSubmissionWhenTheCacheIsEmpty() throws Exception {
+        OrderRequest request = request(item(1L, 2, null), item(3L, 1, null));
+        OrderSubmissionServiceImpl firstInstance = service();
+        firstInstance.submitCustomerOrder(TABLE, request, KEY);
+        String storedHash = capturedSubmission().getRequestHash();
+
+        // Một instance khác (bộ nhớ trống) nhận lại cùng key, với các món theo thứ tự khác
+        when(submissionRepository.findByIdempotencyKey(KEY)).thenReturn(Optional.of(new OrderSubmission(
+                1L, KEY, TABLE, storedHash, 42L, objectMapper.writeValueAsString(response(42L)), null)));
+        OrderResponse replay = service().submitCustomerOrder(TABLE,
+                request(item(3L, 1, null), item(1L, 2, null)), KEY);
+
+        assertThat(replay.getId()).isEqualTo(42L);
+        verify(orderService, times(1)).createCustomerOrder(eq(TABLE), any());
+    }
+
+    @Test
+    void rejectsTheSameKeyWithDifferentItems() {
+        OrderSubmissionServiceImpl service = service();
+        service.submitCustomerOrder(TABLE, request(item(1L, 2, null)), KEY);
+
+        assertThatThrownBy(() -> service.submitCustomerOrder(TABLE, request(item(1L, 3, null)), KEY))
+                .isInstanceOf(UnprocessableRequestException.class);
+        verify(orderService, times(1)).createCustomerOrder(eq(TABLE), any());
+    }
+
+    @Test
+    void rejectsTheSameKeyFromAnotherTable() {
+        OrderSubmissionServiceImpl service = service();
+        OrderRequest request = request(item(1L, 2, null));
+        service.submitCustomerOrder(TABLE, request, KEY);
+
+        assertThatThrownBy(() -> service.submitCustomerOrder("B_02", request, KEY))
+                .isInstanceOf(UnprocessableRequestException.class);
+        verify(orderService, never()).createCustomerOrder(eq("B_02"), any());
+    }
+
+    @Test
+    void rejectsAStoredKeyWithDifferentItemsAfterALostRace() throws Exception {
+        // Lượt khác vừa chèn cùng key với danh sách món khác: ràng buộc unique báo lỗi, đọc lại bản ghi đã lưu
+        when(submissionRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(submissionRepository.findByIdempotencyKey(KEY)).thenReturn(
+                Optional.empty(),
+                Optional.of(new OrderSubmission(1L, KEY, TABLE, "other-hash", 42L,
+                        objectMapper.writeValueAsString(response(42L)), null)));
+
+        assertThatThrownBy(() -> service().submitCustomerOrder(TABLE, request(item(1L, 2, null)), KEY))
+                .isInstanceOf(UnprocessableRequestException.class);
+        verify(orderService, never()).createCustomerOrder(any(), any());
+    }
+
+    @Test
+    void submitsEveryRequestWithoutAKey() {
+        OrderSubmissionServiceImpl service = service();
+        OrderRequest request = request(item(1L, 2, null));
+
+        service.submitCustomerOrder(TABLE, request, null);
+        service.submitCustomerOrder(TABLE, request, " ");
+
+        verify(orderService, times(2)).createCustomerOrder(TABLE, request);
+        verify(submissionRepository, never()).saveAndFlush(any());
+    }
+
+    private OrderSubmission capturedSubmission() {
+        ArgumentCaptor<OrderSubmission> captor = ArgumentCaptor.forClass(OrderSubmission.class);
+        verify(submissionRepository).saveAndFlush(captor.capture());
+        return captor.getValue();
+    }
+
+    private OrderSubmissionServiceImpl service() {
+        return new OrderSubmissionServiceImpl(orderService, submissionRepository, objectMapper, transactionManager,
+                100, 30, 24);
+    }
+
+    private static OrderRequest request(OrderItemRequest... items) {
+        OrderRequest request = new OrderRequest();
+        request.setItems(List.of(items));
+        return request;
+    }
+
+    private static OrderItemRequest item(Long menuItemId, int quantity, String note) {
+        OrderItemRequest item = new OrderItemRequest();
+        item.setMenuItemId(menuItemId);
+        item.setQuantity(quantity);
+        item.setNote(note);
+        return item;
+    }
+
+    private static OrderResponse response(Long orderId) {
+        OrderResponse response = new OrderResponse();
+        response.setId(orderId);
+        response.setTableNumber(TABLE);
+        return response;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.ReportSliceDTO;
+import com.example.backend.dto.ReportSliceDimension;
+import com.example.backend.logging.AsyncLogPipeline;
+import com.example.backend.model.enums.PaymentMethod;
+import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.projection.PaymentFactView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentFactStoreImplTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 10, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private PaymentRepository paymentRepository;
+    private PlatformTransactionManager transactionManager;
+    private Path snapshot;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository = mock(PaymentRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        snapshot = directory.resolve("payment-facts.bin");
+    }
+
+    @Test
+    void loadsEverythingFromTheDatabaseWithoutASnapshot() throws Exception {
+        List<PaymentFactView> facts = List.of(
+                fact(1L, DAY.plusHours(9), "10.00"),
+                fact(2L, DAY.plusHours(12), "20.00"));
+        when(paymentRepository.streamFactsForCatchUp(eq(0L), any())).thenReturn(facts.stream());
+
+        PaymentFactStoreImpl store = loadedStore();
+
+        assertThat(store.getSize()).isEqualTo(2);
+        assertThat(store.slice(DAY, DAY.plusDays(1).minusNanos(1), ReportSliceDimension.DAY))
+                .extracting(ReportSliceDTO::getPaymentCount, ReportSliceDTO::getAmount)
+                .containsExactly(tuple(2, new BigDecimal("30.00")));
+    }
+
+    @Test
+    void catchUpRereadsAnOverlapWindowBeforeTheSnapshotsLastPayment() throws Exception {
+        List<PaymentFactView> initial = List.of(
+                fact(1L, DAY.plusHours(9), "10.00"),
+                fact(3L, DAY.plusHours(12), "30.00"));
+        when(paymentRepository.streamFactsForCatchUp(eq(0L), any())).thenReturn(initial.stream());
+        PaymentFactStoreImpl first = loadedStore();
+        first.shutdown();
+
+        // Thanh toán id 2 commit sau khi snapshot đã chứa id 3; id 3 được đọc lại trong khoảng chồng lấn
+        List<PaymentFactView> catchUp = List.of(
+                fact(2L, DAY.plusHours(11).plusMinutes(59), "20.00"),
+                fact(3L, DAY.plusHours(12), "30.00"),
+                fact(4L, DAY.plusHours(13), "40.00"));
+        when(paymentRepository.streamFactsForCatchUp(eq(3L), any())).thenReturn(catchUp.stream());
+        PaymentFactStoreImpl restarted = loadedStore();
+
+        verify(paymentRepository).streamFactsForCatchUp(3L, DAY.plusHours(11));
+        assertThat(restarted.getSize()).isEqualTo(4);
+        assertThat(restarted.slice(DAY, DAY.plusDays(1).minusNanos(1), ReportSliceDimension.HOUR))
+                .extracting(ReportSliceDTO::getKey, ReportSliceDTO::getAmount)
+                .containsExactly(
+                        tuple("09:00", new BigDecimal("10.00")),
+                        tuple("11:00", new BigDecimal("20.00")),
+                        tuple("12:00", new BigDecimal("30.00")),
+                        tuple("13:00", new BigDecimal("40.00")));
+    }
+
+    @Test
+    void ignoresACorruptSnapshot() throws Exception {
+        Files.write(snapshot, new byte[]{1, 2, 3});
+        PaymentFactView fact = fact(1L, DAY.plusHours(9), "10.00");
+        when(paymentRepository.streamFactsForCatchUp(anyLong(), any())).thenReturn(Stream.of(fact));
+
+        PaymentFactStoreImpl store = loadedStore();
+
+        verify(paymentRepository).streamFactsForCatchUp(eq(0L), any());
+        assertThat(store.getSize()).isEqualTo(1);
+    }
+
+    private PaymentFactStoreImpl loadedStore() throws InterruptedException {
+        PaymentFactStoreImpl store = new PaymentFactStoreImpl(paymentRepository, transactionManager,
+                new SimpleMeterRegistry(), mock(AsyncLogPipeline.class), snapshot.toString(), 60);
+        store.load();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!store.isReady()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+        return store;
+    }
+
+    private static PaymentFactView fact(Long id, LocalDateTime paidAt, String amount) {
+        PaymentFactView view = mock(PaymentFactView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getPaymentTime()).thenReturn(paidAt);
+        when(view.getAmount()).thenReturn(new BigDecimal(amount));
+        when(view.getPaymentMethod()).thenReturn(PaymentMethod.CASH);
+        when(view.getTableId()).thenReturn(1L);
+        when(view.getWaiterId()).thenReturn(null);
+        return view;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.ReportDTO.CategorySalesDTO;
+import com.example.backend.dto.ReportDTO.PaymentMethodAnalysisDTO;
+import com.example.backend.dto.ReportDTO.RevenuePeriodDTO;
+import com.example.backend.model.enums.PaymentMethod;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ReportAggregateTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void roundsAmountsToCentsHalfUp() {
+        assertThat(ReportAggregate.toCents(new BigDecimal("10.005"))).isEqualTo(1001);
+        assertThat(ReportAggregate.toCents(new BigDecimal("10.004"))).isEqualTo(1000);
+        assertThat(ReportAggregate.toCents(new BigDecimal("25000"))).isEqualTo(2_500_000);
+        assertThat(ReportAggregate.fromCents(1001)).isEqualTo(new BigDecimal("10.01"));
+    }
+
+    @Test
+    void sumsPaymentsWithoutDrift() {
+        ReportAggregate aggregate = new ReportAggregate(DAY, DAY);
+        for (int i = 0; i < 10; i++) {
+            aggregate.addPayment(DAY.atTime(12, i), PaymentMethod.CASH, new BigDecimal("0.10"));
+        }
+        aggregate.addPayment(DAY.atTime(19, 0), PaymentMethod.MOMO, new BigDecimal("0.005"));
+        aggregate.addPaidOrders(11);
+
+        assertThat(aggregate.totalRevenue()).isEqualTo(new BigDecimal("1.01"));
+        assertThat(aggregate.averageOrderValue()).isEqualTo(new BigDecimal("0.09"));
+        assertThat(aggregate.hourlyAnalysis().get(12).getOrderCount()).isEqualTo(10);
+        assertThat(aggregate.hourlyAnalysis().get(12).getTotalAmount()).isEqualTo(new BigDecimal("1.00"));
+    }
+
+    @Test
+    void averageOrderValueIsZeroWithoutOrders() {
+        assertThat(new ReportAggregate(DAY, DAY).averageOrderValue()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void ignoresPaymentsOutsideTheDailyRangeForRevenue() {
+        ReportAggregate aggregate = new ReportAggregate(DAY, DAY);
+        aggregate.addPayment(DAY.minusDays(1).atTime(23, 0), PaymentMethod.CASH, new BigDecimal("5.00"));
+
+        assertThat(aggregate.totalRevenue()).isEqualTo(new BigDecimal("0.00"));
+    }
+
+    @Test
+    void mergeAddsEveryDimension() {
+        LocalDate lastDay = DAY.plusDays(1);
+        ReportAggregate first = new ReportAggregate(DAY, lastDay);
+        first.addPayment(DAY.atTime(9, 30), PaymentMethod.CASH, new BigDecimal("12.50"));
+        first.addPaidOrders(1);
+        first.addItemSales(1L, "Phở bò", "Món chính", new BigDecimal("12.50"), 1, new BigDecimal("12.50"));
+
+        ReportAggregate second = new ReportAggregate(DAY, lastDay);
+        second.addPayment(lastDay.atTime(9, 45), PaymentMethod.CASH, new BigDecimal("7.25"));
+        second.addPayment(lastDay.atTime(20, 0), PaymentMethod.VNPAY, new BigDecimal("30.00"));
+        second.addPaidOrders(2);
+        second.addItemSales(1L, "Phở bò", "Món chính", new BigDecimal("12.50"), 2, new BigDecimal("25.00"));
+        second.addItemSales(2L, "Trà đá", "Đồ uống", new BigDecimal("5.00"), 1, new BigDecimal("5.00"));
+
+        first.merge(second);
+
+        assertThat(first.getPaidOrders()).isEqualTo(3);
+        assertThat(first.totalRevenue()).isEqualTo(new BigDecimal("49.75"));
+        assertThat(first.revenueByPeriod())
+                .extracting(RevenuePeriodDTO::getAmount)
+                .containsExactly(new BigDecimal("12.50"), new BigDecimal("37.25"));
+        assertThat(first.hourlyAnalysis().get(9).getOrderCount()).isEqualTo(2);
+        assertThat(first.paymentMethodAnalysis())
+                .extracting(PaymentMethodAnalysisDTO::getMethod, PaymentMethodAnalysisDTO::getCount)
+                .containsExactly(tuple("VNPAY", 1), tuple("CASH", 2));
+        assertThat(first.categorySales())
+                .extracting(CategorySalesDTO::getCategory, CategorySalesDTO::getItemsSold)
+                .containsExactlyInAnyOrder(tuple("Món chính", 3), tuple("Đồ uống", 1));
+
+        List<ReportAggregate.ItemTotals> top = first.topSellingItems(1);
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).menuItemId).isEqualTo(1L);
+        assertThat(top.get(0).quantity).isEqualTo(3);
+        assertThat(ReportAggregate.fromCents(top.get(0).cents)).isEqualTo(new BigDecimal("37.50"));
+    }
+
+    @Test
+    void reportsDailyBucketsUpToThirtyOneDays() {
+        LocalDate firstDay = LocalDate.of(2025, 1, 1);
+        ReportAggregate aggregate = new ReportAggregate(firstDay, firstDay.plusDays(30));
+        aggregate.addPayment(LocalDateTime.of(2025, 1, 31, 10, 0), PaymentMethod.CASH, new BigDecimal("3.00"));
+
+        List<RevenuePeriodDTO> periods = aggregate.revenueByPeriod();
+
+        assertThat(periods).hasSize(31);
+        assertThat(periods.get(0).getPeriod()).isEqualTo("01/01");
+        assertThat(periods.get(30).getPeriod()).isEqualTo("31/01");
+        assertThat(periods.get(30).getAmount()).isEqualTo(new BigDecimal("3.00"));
+    }
+
+    @Test
+    void switchesToMonthlyBucketsAfterThirtyOneDays() {
+        LocalDate firstDay = LocalDate.of(2025, 1, 1);
+        ReportAggregate aggregate = new ReportAggregate(firstDay, firstDay.plusDays(31));
+        aggregate.addPayment(LocalDateTime.of(2025, 1, 1, 8, 0), PaymentMethod.CASH, new BigDecimal("1.00"));
+        aggregate.addPayment(LocalDateTime.of(2025, 1, 31, 8, 0), PaymentMethod.CASH, new BigDecimal("2.00"));
+        aggregate.addDailyRevenue(LocalDate.of(2025, 2, 1), new BigDecimal("4.00"));
+
+        List<RevenuePeriodDTO> periods = aggregate.revenueByPeriod();
+
+        assertThat(periods)
+                .extracting(RevenuePeriodDTO::getPeriod, RevenuePeriodDTO::getAmount)
+                .containsExactly(
+                        tuple("01/2025", new BigDecimal("3.00")),
+                        tuple("02/2025", new BigDecimal("4.00")));
+    }
+}
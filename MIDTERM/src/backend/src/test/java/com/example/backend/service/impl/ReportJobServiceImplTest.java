@@ -0,0 +1,84 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.ReportDTO;
+import com.example.backend.dto.ReportJobStatus;
+import com.example.backend.dto.ReportJobStatus.State;
+import com.example.backend.exception.TooManyRequestsException;
+import com.example.backend.service.ReportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReportJobServiceImplTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2025, 12, 31, 23, 59, 59);
+
+    private final CountDownLatch releaseReport = new CountDownLatch(1);
+    private ReportService reportService;
+    private ReportJobServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        reportService = mock(ReportService.class);
+        when(reportService.getReport(any(), any(), any())).thenAnswer(invocation -> {
+            releaseReport.await(5, TimeUnit.SECONDS);
+            return new ReportDTO();
+        });
+        service = new ReportJobServiceImpl(reportService, 1, 1, 30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseReport.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void sameRangeWhileInFlightReturnsTheSameJob() {
+        ReportJobStatus first = service.submit(START, END);
+        ReportJobStatus second = service.submit(START, END);
+
+        assertThat(second.getJobId()).isEqualTo(first.getJobId());
+    }
+
+    @Test
+    void completedJobIsNotReusedForANewSubmission() throws Exception {
+        ReportJobStatus first = service.submit(START, END);
+        releaseReport.countDown();
+        awaitState(first.getJobId(), State.COMPLETED);
+
+        ReportJobStatus second = service.submit(START, END);
+
+        assertThat(second.getJobId()).isNotEqualTo(first.getJobId());
+        // Kết quả của job cũ vẫn lấy được cho đến khi hết hạn
+        assertThat(service.getResult(first.getJobId())).isNotNull();
+    }
+
+    @Test
+    void rejectsSubmissionsWhenTheQueueIsFull() {
+        service.submit(START, END);
+        service.submit(START.plusDays(1), END);
+
+        assertThatThrownBy(() -> service.submit(START.plusDays(2), END))
+                .isInstanceOf(TooManyRequestsException.class);
+    }
+
+    private void awaitState(String jobId, State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.getStatus(jobId).getState() != state) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.logging.AsyncLogPipeline;
+import com.example.backend.model.MenuItem;
+import com.example.backend.model.Order;
+import com.example.backend.model.OrderItem;
+import com.example.backend.model.Payment;
+import com.example.backend.model.enums.OrderItemStatus;
+import com.example.backend.model.enums.PaymentMethod;
+import com.example.backend.repository.ItemSalesRollupRepository;
+import com.example.backend.repository.OrderItemRepository;
+import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.RevenueRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReportRollupServiceImplTest {
+
+    private static final LocalDateTime PAID_AT = LocalDateTime.of(2025, 3, 10, 12, 30);
+
+    private RevenueRollupRepository revenueRollupRepository;
+    private ItemSalesRollupRepository itemSalesRollupRepository;
+    private PaymentRepository paymentRepository;
+    private ReportRollupServiceImpl service;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        revenueRollupRepository = mock(RevenueRollupRepository.class);
+        itemSalesRollupRepository = mock(ItemSalesRollupRepository.class);
+        paymentRepository = mock(PaymentRepository.class);
+        OrderItemRepository orderItemRepository = mock(OrderItemRepository.class);
+
+        order = new Order();
+        order.setId(7L);
+        MenuItem pho = new MenuItem();
+        pho.setId(1L);
+        pho.setName("Phở bò");
+        pho.setCategory("Món chính");
+        when(orderItemRepository.findByOrder(order)).thenReturn(List.of(
+                item(pho, 2, OrderItemStatus.SERVED),
+                item(pho, 1, OrderItemStatus.CANCELLED)));
+
+        service = new ReportRollupServiceImpl(revenueRollupRepository, itemSalesRollupRepository,
+                paymentRepository, orderItemRepository, mock(AsyncLogPipeline.class));
+    }
+
+    @Test
+    void countsItemSalesOnceWhenAnOrderIsPaidInSeveralPayments() {
+        Payment first = payment(1L, "30000");
+        Payment second = payment(2L, "20000");
+        when(paymentRepository.findFirstByOrderOrderByIdAsc(order)).thenReturn(Optional.of(first));
+
+        service.recordPayment(first);
+        service.recordPayment(second);
+
+        // Doanh thu cộng theo từng thanh toán
+        verify(revenueRollupRepository).addPayment(LocalDate.of(2025, 3, 10), 12, "CASH", new BigDecimal("30000"));
+        verify(revenueRollupRepository).addPayment(LocalDate.of(2025, 3, 10), 12, "CASH", new BigDecimal("20000"));
+        // Món chỉ được cộng một lần cho cả đơn, bỏ qua dòng đã hủy
+        verify(itemSalesRollupRepository, times(1)).addSales(
+                eq(LocalDate.of(2025, 3, 10)), eq(1L), eq("Phở bò"), eq("Món chính"), eq(2L), eq(new BigDecimal("50000")));
+    }
+
+    @Test
+    void skipsItemSalesForALaterPayment() {
+        Payment first = payment(1L, "30000");
+        Payment later = payment(2L, "20000");
+        when(paymentRepository.findFirstByOrderOrderByIdAsc(order)).thenReturn(Optional.of(first));
+
+        service.recordPayment(later);
+
+        verify(revenueRollupRepository).addPayment(any(), anyInt(), anyString(), any());
+        verify(itemSalesRollupRepository, never()).addSales(any(), anyLong(), any(), any(), anyLong(), any());
+    }
+
+    private Payment payment(Long id, String amount) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setOrder(order);
+        payment.setAmount(new BigDecimal(amount));
+        payment.setPaymentMethod(PaymentMethod.CASH);
+        payment.setPaymentTime(PAID_AT);
+        return payment;
+    }
+
+    private OrderItem item(MenuItem menuItem, int quantity, OrderItemStatus status) {
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setMenuItem(menuItem);
+        item.setQuantity(quantity);
+        item.setPrice(new BigDecimal("25000"));
+        item.setStatus(status);
+        return item;
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.dto.ReportDTO;
+import com.example.backend.model.enums.OrderStatus;
+import com.example.backend.model.enums.PaymentMethod;
+import com.example.backend.repository.ItemSalesRollupRepository;
+import com.example.backend.repository.MenuItemRepository;
+import com.example.backend.repository.OrderItemRepository;
+import com.example.backend.repository.PaymentRepository;
+import com.example.backend.repository.RevenueRollupRepository;
+import com.example.backend.repository.projection.DailyRevenueView;
+import com.example.backend.repository.projection.PaymentSummaryView;
+import com.example.backend.service.PaymentFactStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReportServiceImplTest {
+
+    private PaymentRepository paymentRepository;
+    private RevenueRollupRepository revenueRollupRepository;
+    private PaymentFactStore paymentFactStore;
+    private ReportServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository = mock(PaymentRepository.class);
+        revenueRollupRepository = mock(RevenueRollupRepository.class);
+        paymentFactStore = mock(PaymentFactStore.class);
+        service = new ReportServiceImpl(mock(OrderItemRepository.class), paymentRepository,
+                mock(MenuItemRepository.class), revenueRollupRepository, mock(ItemSalesRollupRepository.class),
+                paymentFactStore, new SimpleMeterRegistry(), 16, 60, 2, 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void readsRawPaymentsOnlyForThePartialEdgeDays() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 10, 18, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 3, 13, 9, 0);
+        LocalDateTime firstDayEnd = LocalDate.of(2025, 3, 10).atTime(LocalTime.MAX);
+        LocalDateTime lastDayStart = LocalDate.of(2025, 3, 13).atStartOfDay();
+        List<PaymentSummaryView> firstDay = List.of(payment(start.plusHours(1), "10.00"));
+        List<PaymentSummaryView> lastDay = List.of(payment(end.minusHours(1), "5.00"));
+        List<DailyRevenueView> wholeDays = List.of(
+                day(LocalDate.of(2025, 3, 11), "20.00"), day(LocalDate.of(2025, 3, 12), "30.00"));
+        when(paymentRepository.findSummariesByPaymentTimeBetween(start, firstDayEnd)).thenReturn(firstDay);
+        when(paymentRepository.findSummariesByPaymentTimeBetween(lastDayStart, end)).thenReturn(lastDay);
+        when(revenueRollupRepository.sumByDay(LocalDate.of(2025, 3, 11), LocalDate.of(2025, 3, 12))).thenReturn(wholeDays);
+
+        ReportDTO report = service.getReport(start, end);
+
+        verify(paymentRepository).findSummariesByPaymentTimeBetween(start, firstDayEnd);
+        verify(paymentRepository).findSummariesByPaymentTimeBetween(lastDayStart, end);
+        verify(revenueRollupRepository).sumByDay(LocalDate.of(2025, 3, 11), LocalDate.of(2025, 3, 12));
+        assertThat(report.getTotalRevenue()).isEqualTo(new BigDecimal("65.00"));
+    }
+
+    @Test
+    void wholeDayRangesReadOnlyRollups() {
+        LocalDateTime start = LocalDate.of(2025, 1, 1).atStartOfDay();
+        LocalDateTime end = LocalDate.of(2025, 12, 31).atTime(LocalTime.MAX);
+
+        service.getReport(start, end);
+
+        verify(paymentRepository, never()).findSummariesByPaymentTimeBetween(any(), any());
+    }
+
+    @Test
+    void partialRangeWithinOneDayIsReadRaw() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 10, 8, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 3, 10, 20, 0);
+
+        service.getReport(start, end);
+
+        verify(paymentRepository).findSummariesByPaymentTimeBetween(start, end);
+        verify(revenueRollupRepository, never()).sumByDay(any(), any());
+    }
+
+    @Test
+    void readsPaymentsOfMinuteAlignedEdgesFromTheFactStore() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 10, 18, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 3, 12, 9, 30, 59);
+        LocalDateTime firstDayEnd = LocalDate.of(2025, 3, 10).atTime(LocalTime.MAX);
+        when(paymentFactStore.isReady()).thenReturn(true);
+        doAnswer(invocation -> {
+            PaymentFactStore.FactVisitor visitor = invocation.getArgument(2);
+            visitor.visit(PaymentFactStore.toEpochMinute(start.plusHours(1)), 1_000, PaymentMethod.CASH.ordinal(), 1, 1);
+            return null;
+        }).when(paymentFactStore).forEach(eq(start), eq(firstDayEnd), any());
+
+        ReportDTO report = service.getReport(start, end);
+
+        // Ngày đầu kết thúc ở cuối phút nên đọc từ kho; mốc 09:30:59 có thể bỏ sót phần lẻ giây nên đọc từ cơ sở dữ liệu
+        verify(paymentRepository, never()).findSummariesByPaymentTimeBetween(start, firstDayEnd);
+        verify(paymentRepository).findSummariesByPaymentTimeBetween(LocalDate.of(2025, 3, 12).atStartOfDay(), end);
+        assertThat(report.getTotalRevenue()).isEqualTo(new BigDecimal("10.00"));
+        assertThat(report.getTotalOrders()).isEqualTo(1);
+    }
+
+    @Test
+    void evictionDuringALoadDoesNotWaitAndDropsTheStaleResult() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 10, 8, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 3, 10, 20, 0);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        when(paymentRepository.findSummariesByPaymentTimeBetween(start, end)).thenAnswer(invocation -> {
+            if (loads.incrementAndGet() == 1) {
+                loadStarted.countDown();
+                releaseLoad.await(5, TimeUnit.SECONDS);
+            }
+            return List.of();
+        });
+
+        CompletableFuture<ReportDTO> slow = CompletableFuture.supplyAsync(() -> service.getReport(start, end));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Xóa cache không phải chờ lần tính đang chạy
+        CompletableFuture.runAsync(() -> service.onPaymentRecorded(null)).get(1, TimeUnit.SECONDS);
+        releaseLoad.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+
+        // Kết quả tính trước lần xóa không được giữ lại
+        service.getReport(start, end);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 10, 8, 0);
+        LocalDateTime end = LocalDateTime.of(2025, 3, 10, 20, 0);
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+        when(paymentRepository.findSummariesByPaymentTimeBetween(start, end)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        CompletableFuture<ReportDTO> first = CompletableFuture.supplyAsync(() -> service.getReport(start, end));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<ReportDTO> second = CompletableFuture.supplyAsync(() -> service.getReport(start, end));
+        releaseLoad.countDown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        verify(paymentRepository, times(1)).findSummariesByPaymentTimeBetween(start, end);
+    }
+
+    @Test
+    void comparisonLoadsBothPeriodsAtTheSameTime() throws Exception {
+        LocalDateTime currentStart = LocalDateTime.of(2025, 3, 10, 8, 0);
+        LocalDateTime currentEnd = LocalDateTime.of(2025, 3, 10, 20, 0);
+        LocalDateTime referenceStart = currentStart.minusWeeks(1);
+        LocalDateTime referenceEnd = currentEnd.minusWeeks(1);
+        // Mỗi lần tải chỉ trả về khi lần tải của kỳ kia cũng đã bắt đầu
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(paymentRepository.findSummariesByPaymentTimeBetween(any(), any())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertThat(bothStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            return List.of();
+        });
+
+        CompletableFuture.runAsync(() -> service.compareReports(currentStart, currentEnd, referenceStart, referenceEnd))
+                .get(10, TimeUnit.SECONDS);
+
+        verify(paymentRepository).findSummariesByPaymentTimeBetween(currentStart, currentEnd);
+        verify(paymentRepository).findSummariesByPaymentTimeBetween(referenceStart, referenceEnd);
+    }
+
+    private static PaymentSummaryView payment(LocalDateTime paidAt, String amount) {
+        PaymentSummaryView view = mock(PaymentSummaryView.class);
+        when(view.getOrderId()).thenReturn(1L);
+        when(view.getOrderStatus()).thenReturn(OrderStatus.PAID);
+        when(view.getPaymentMethod()).thenReturn(PaymentMethod.CASH);
+        when(view.getPaymentTime()).thenReturn(paidAt);
+        when(view.getAmount()).thenReturn(new BigDecimal(amount));
+        return view;
+    }
+
+    private static DailyRevenueView day(LocalDate date, String amount) {
+        DailyRevenueView view = mock(DailyRevenueView.class);
+        when(view.getSalesDate()).thenReturn(date);
+        when(view.getPaymentCount()).thenReturn(1L);
+        when(view.getAmount()).thenReturn(new BigDecimal(amount));
+        return view;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.backend.service.impl;
+
+import com.example.backend.model.TokenRevocation;
+import com.example.backend.model.enums.RevocationType;
+import com.example.backend.repository.TokenRevocationRepository;
+import com.example.backend.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceImplTest {
+
+    private static final String EMAIL = "staff@example.com";
+    private static final Instant REVOKED_AT = Instant.parse("2025-03-10T08:00:00.500Z");
+
+    private TokenRevocationRepository repository;
+    private TokenRevocationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TokenRevocationRepository.class);
+        when(repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.findAll()).thenReturn(List.of(
+                new TokenRevocation(1L, RevocationType.USER, EMAIL, REVOKED_AT)));
+        service = new TokenRevocationServiceImpl(repository, new SimpleMeterRegistry(), 1000, 0.01, 60_000);
+        service.load();
+    }
+
+    @Test
+    void rejectsTokensIssuedBeforeTheWatermarkOnly() {
+        assertThat(service.isRevoked(claims(EMAIL, REVOKED_AT.toEpochMilli() - 1))).isTrue();
+        // Đăng nhập lại trong cùng giây với lần thu hồi vẫn phải hợp lệ
+        assertThat(service.isRevoked(claims(EMAIL, REVOKED_AT.toEpochMilli()))).isFalse();
+        assertThat(service.isRevoked(claims(EMAIL, REVOKED_AT.toEpochMilli() + 1))).isFalse();
+        assertThat(service.isRevoked(claims("other@example.com", REVOKED_AT.toEpochMilli() - 1))).isFalse();
+    }
+
+    @Test
+    void fallsBackToSecondPrecisionIssuedAtForOlderTokens() {
+        Claims legacy = Jwts.claims().setSubject(EMAIL);
+        legacy.setIssuedAt(Date.from(REVOKED_AT.minusSeconds(1)));
+        assertThat(service.isRevoked(legacy)).isTrue();
+
+        assertThat(service.isRevoked(Jwts.claims().setSubject(EMAIL))).isTrue();
+    }
+
+    @Test
+    void revokesIndividualTokensById() {
+        Claims token = claims("other@example.com", REVOKED_AT.toEpochMilli());
+        token.setId("token-1");
+        assertThat(service.isRevoked(token)).isFalse();
+
+        service.revokeToken("token-1");
+
+        assertThat(service.isRevoked(token)).isTrue();
+    }
+
+    @Test
+    void picksUpRevocationsWrittenByOtherInstances() {
+        Instant otherNode = Instant.now();
+        when(repository.findByRevokedAtGreaterThanEqual(any())).thenReturn(List.of(
+                new TokenRevocation(2L, RevocationType.USER, "other@example.com", otherNode),
+                new TokenRevocation(3L, RevocationType.TOKEN, "token-2", otherNode)));
+        Claims token = claims("other@example.com", otherNode.toEpochMilli() - 1);
+        Claims revokedById = claims("third@example.com", otherNode.toEpochMilli());
+        revokedById.setId("token-2");
+
+        service.syncFromDatabase();
+
+        assertThat(service.isRevoked(token)).isTrue();
+        assertThat(service.isRevoked(revokedById)).isTrue();
+    }
+
+    private static Claims claims(String subject, long issuedAtMillis) {
+        Claims claims = Jwts.claims().setSubject(subject);
+        claims.setIssuedAt(new Date(issuedAtMillis / 1000 * 1000));
+        claims.put(JwtUtil.ISSUED_AT_MILLIS_CLAIM, issuedAtMillis);
+        return claims;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.backend.stream;
+
+import com.example.backend.stream.SpaceSavingSketch.Counter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void evictsTheSmallestCounterAndInheritsItsCount() {
+        SpaceSavingSketch<String> sketch = new SpaceSavingSketch<>(2);
+        sketch.offer("pho", 5);
+        sketch.offer("tra-da", 3);
+        sketch.offer("com-tam", 1);
+
+        assertThat(sketch.counters())
+                .extracting(Counter::getKey, Counter::getCount, Counter::getError)
+                .containsExactlyInAnyOrder(tuple("pho", 5L, 0L), tuple("com-tam", 4L, 3L));
+    }
+
+    @Test
+    void countsStayWithinErrorBounds() {
+        int capacity = 20;
+        SpaceSavingSketch<Integer> sketch = new SpaceSavingSketch<>(capacity);
+        Map<Integer, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        long total = 0;
+        for (int i = 0; i < 20_000; i++) {
+            // Phân bố lệch: vài món rất phổ biến, phần còn lại rải đều trên 500 món
+            int key = random.nextInt(10) < 6 ? random.nextInt(5) : 5 + random.nextInt(500);
+            long weight = 1 + random.nextInt(3);
+            sketch.offer(key, weight);
+            exact.merge(key, weight, Long::sum);
+            total += weight;
+        }
+
+        long maxError = total / capacity;
+        for (Counter<Integer> counter : sketch.counters()) {
+            long actual = exact.get(counter.getKey());
+            assertThat(counter.getCount()).isGreaterThanOrEqualTo(actual);
+            assertThat(counter.getCount() - counter.getError()).isLessThanOrEqualTo(actual);
+            assertThat(counter.getError()).isLessThanOrEqualTo(maxError);
+        }
+        // Mọi phần tử có tần suất vượt total / capacity đều phải còn trong sketch
+        exact.forEach((key, count) -> {
+            if (count > maxError) {
+                assertThat(sketch.counters()).extracting(Counter::getKey).contains(key);
+            }
+        });
+    }
+
+    @Test
+    void topMergesSketchesAndSortsByCount() {
+        SpaceSavingSketch<String> morning = new SpaceSavingSketch<>(4);
+        morning.offer("pho", 4);
+        morning.offer("tra-da", 6);
+        SpaceSavingSketch<String> evening = new SpaceSavingSketch<>(4);
+        evening.offer("pho", 5);
+        evening.offer("bia", 2);
+
+        List<Counter<String>> top = SpaceSavingSketch.top(List.of(morning, evening), 2);
+
+        assertThat(top)
+                .extracting(Counter::getKey, Counter::getCount)
+                .containsExactly(tuple("pho", 9L), tuple("tra-da", 6L));
+    }
+
+    @Test
+    void topChargesTheMinimumOfFullSketchesThatMissTheKey() {
+        // Ô sáng đã đầy: "bia" có thể đã bị đẩy ra với tối đa 3 lượt
+        SpaceSavingSketch<String> morning = new SpaceSavingSketch<>(2);
+        morning.offer("pho", 5);
+        morning.offer("tra-da", 3);
+        // Ô tối chưa đầy: "tra-da" vắng mặt nghĩa là đúng 0 lượt
+        SpaceSavingSketch<String> evening = new SpaceSavingSketch<>(4);
+        evening.offer("bia", 4);
+        evening.offer("pho", 1);
+
+        List<Counter<String>> top = SpaceSavingSketch.top(List.of(morning, evening), 3);
+
+        assertThat(top)
+                .extracting(Counter::getKey, Counter::getCount, Counter::getError)
+                .containsExactly(tuple("bia", 7L, 3L), tuple("pho", 6L, 0L), tuple("tra-da", 3L, 0L));
+    }
+
+    @Test
+    void mergedCountsStayUpperBoundsAcrossWindows() {
+        Random random = new Random(7);
+        Map<Integer, Long> exact = new HashMap<>();
+        List<SpaceSavingSketch<Integer>> windows = new ArrayList<>();
+        for (int w = 0; w < 6; w++) {
+            SpaceSavingSketch<Integer> window = new SpaceSavingSketch<>(10);
+            // Mỗi ô có một nhóm món phổ biến riêng để khóa bị đẩy ra ở ô này nhưng còn ở ô khác
+            for (int i = 0; i < 2_000; i++) {
+                int key = random.nextInt(10) < 5 ? w * 3 + random.nextInt(3) : random.nextInt(60);
+                window.offer(key, 1);
+                exact.merge(key, 1L, Long::sum);
+            }
+            windows.add(window);
+        }
+
+        for (Counter<Integer> counter : SpaceSavingSketch.top(windows, Integer.MAX_VALUE)) {
+            long actual = exact.get(counter.getKey());
+            assertThat(counter.getCount()).isGreaterThanOrEqualTo(actual);
+            assertThat(counter.getCount() - counter.getError()).isLessThanOrEqualTo(actual);
+        }
+    }
+}
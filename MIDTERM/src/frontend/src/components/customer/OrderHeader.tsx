@@ -29,10 +29,10 @@ export const OrderHeader = () => {
   const [showLogoutDialog, setShowLogoutDialog] = useState(false);
   const [assistanceRequested, setAssistanceRequested] = useState(false);
 
-  // Khởi động polling API khi component mount để cập nhật trạng thái theo thời gian thực
+  // Mở luồng theo dõi đơn hàng khi component mount để cập nhật trạng thái theo thời gian thực
   useEffect(() => {
     if (tableNumber) {
-      // Bắt đầu polling mỗi 3 giây
+      // Theo dõi qua SSE, chỉ poll mỗi 3 giây khi không mở được luồng
       startPolling(tableNumber, 3);
       
       // Cleanup khi component unmount
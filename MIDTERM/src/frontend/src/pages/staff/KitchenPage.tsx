@@ -6,6 +6,7 @@ import { Separator } from '@/components/ui/separator';
 import { RefreshCw, Clock, CheckCircle2, ChefHat, Coffee, Wine, AlignLeft } from 'lucide-react';
 import { toast } from 'sonner';
 import axios from 'axios';
+import { subscribeSse } from '@/utils/sse';
 
 // Định nghĩa kiểu dữ liệu
 interface MenuItem {
@@ -32,20 +33,33 @@ interface OrderItem {
   };
 }
 
-interface Order {
+// Phiếu bếp trả về từ /api/kitchen/{kitchenType}/tickets và luồng SSE tương ứng
+interface KitchenTicket {
   id: number;
-  tableNumber?: string;
-  orderTime: string;
+  orderId: number;
+  tableNumber: string | null;
+  menuItemId: number;
+  menuItemName: string;
+  kitchenType: MenuItem['kitchenType'];
+  isSpicy: boolean;
+  quantity: number;
+  note: string;
   status: string;
-  totalAmount: number;
-  items: OrderItem[];
-  isPaid: boolean;
-  table?: {
-    id: number;
-    tableNumber: string;
-  };
+  orderAt: string;
 }
 
+const KITCHEN_TYPES: MenuItem['kitchenType'][] = ['HOT_KITCHEN', 'COLD_KITCHEN', 'BAR'];
+
+// Trạng thái có trong snapshot của từng khu bếp; các món khác chỉ biết được qua sự kiện thay đổi
+const SNAPSHOT_STATUSES = ['PENDING', 'COOKING'];
+
+// Trạng thái được hiển thị trên trang
+const VISIBLE_STATUSES = ['COOKING', 'READY', 'SERVED'];
+
+const authHeaders = (): Record<string, string> => ({
+  'Authorization': `Bearer ${localStorage.getItem('token')}`
+});
+
 // Interface cho thống kê OrderItem theo bàn
 interface TableSummary {
   tableNumber: string;
@@ -61,81 +75,92 @@ export const KitchenPage = () => {
   const [loading, setLoading] = useState(true);
   const [processingItemId, setProcessingItemId] = useState<number | null>(null);
   const [tableSummaries, setTableSummaries] = useState<TableSummary[]>([]);
-  const pollingIntervalRef = useRef<number | null>(null);
+  // Tất cả phiếu đã biết theo id, được cập nhật dần từ luồng sự kiện của các khu bếp
+  const ticketsRef = useRef(new Map<number, OrderItem>());
 
-  // Hàm để lấy dữ liệu đơn hàng từ API
-  const fetchOrders = async (showLoading = true) => {
-    try {
-      if (showLoading) {
-        setLoading(true);
+  const toOrderItem = (ticket: KitchenTicket): OrderItem => ({
+    id: ticket.id,
+    menuItem: {
+      id: ticket.menuItemId,
+      name: ticket.menuItemName,
+      category: '',
+      price: 0,
+      description: '',
+      isSpicy: ticket.isSpicy,
+      kitchenType: ticket.kitchenType
+    },
+    quantity: ticket.quantity,
+    note: ticket.note,
+    status: ticket.status,
+    orderAt: ticket.orderAt,
+    order: {
+      id: ticket.orderId,
+      tableNumber: ticket.tableNumber || 'Unknown',
+      orderTime: ticket.orderAt
+    }
+  });
+
+  // Dựng lại danh sách hiển thị từ các phiếu đã biết
+  const publishItems = () => {
+    const items = Array.from(ticketsRef.current.values())
+      .filter(item => VISIBLE_STATUSES.includes(item.status));
+
+    // Sắp xếp theo thời gian đặt hàng (cũ nhất lên đầu)
+    items.sort((a: OrderItem, b: OrderItem) => {
+      const aTime = a.orderAt ? new Date(a.orderAt).getTime() : new Date(a.order.orderTime).getTime();
+      const bTime = b.orderAt ? new Date(b.orderAt).getTime() : new Date(b.order.orderTime).getTime();
+      return aTime - bTime;
+    });
+
+    setOrderItems(items);
+
+    // Tạo thống kê OrderItem theo bàn
+    generateTableSummaries(items);
+  };
+
+  // Snapshot chỉ thay các món đang chờ/đang nấu của khu bếp đó; món đã xong vẫn được giữ lại
+  const applySnapshot = (kitchenType: MenuItem['kitchenType'], tickets: KitchenTicket[]) => {
+    const known = ticketsRef.current;
+    known.forEach((item, id) => {
+      if (item.menuItem.kitchenType === kitchenType && SNAPSHOT_STATUSES.includes(item.status)) {
+        known.delete(id);
       }
-      
-      const response = await axios.get('http://localhost:8080/api/orders/active', {
-        headers: {
-          'Authorization': `Bearer ${localStorage.getItem('token')}`
-        }
-      });
+    });
+    tickets.forEach(ticket => known.set(ticket.id, toOrderItem(ticket)));
+    publishItems();
+  };
 
-      console.log('API Response:', response.data);
-      
-      // Lọc chỉ lấy các đơn hàng có trạng thái SERVING
-      const filteredOrders = response.data.filter(
-        (order: Order) => order.status === 'SERVING'
-      );
+  const applyTickets = (tickets: KitchenTicket[]) => {
+    tickets.forEach(ticket => {
+      if (ticket.status === 'CANCELLED') {
+        ticketsRef.current.delete(ticket.id);
+      } else {
+        ticketsRef.current.set(ticket.id, toOrderItem(ticket));
+      }
+    });
+    publishItems();
+  };
 
-      console.log('Filtered Orders:', filteredOrders);
-      
-      // Trích xuất tất cả OrderItem từ các đơn hàng và thêm thông tin bàn vào mỗi item
-      const items = filteredOrders.flatMap((order: Order) => {
-        // Xác định tableNumber từ nhiều nguồn khác nhau
-        let tableNumber: string = 'Unknown';
-        if (order.tableNumber) {
-          tableNumber = order.tableNumber;
-        } else if (order.table && order.table.tableNumber) {
-          tableNumber = order.table.tableNumber;
-        }
-        
-        if (!tableNumber || tableNumber === 'Unknown') {
-          console.warn('Order without tableNumber:', order);
-        }
-        
-        return order.items
-          .filter(item => ['COOKING', 'READY', 'SERVED'].includes(item.status))
-          .map(item => {
-            console.log(`Processing item ${item.id} for table ${tableNumber}`);
-            return {
-              ...item,
-              order: {
-                id: order.id,
-                tableNumber: tableNumber,
-                orderTime: order.orderTime
-              }
-            };
-          });
-      });
-      
-      console.log('Processed items:', items);
-      
-      // Sắp xếp theo thời gian đặt hàng (cũ nhất lên đầu)
-      items.sort((a: OrderItem, b: OrderItem) => {
-        const aTime = a.orderAt ? new Date(a.orderAt).getTime() : new Date(a.order.orderTime).getTime();
-        const bTime = b.orderAt ? new Date(b.orderAt).getTime() : new Date(b.order.orderTime).getTime();
-        return aTime - bTime;
-      });
-      
-      setOrderItems(items);
-      
-      // Tạo thống kê OrderItem theo bàn
-      generateTableSummaries(items);
+  const removeTickets = (ids: number[]) => {
+    ids.forEach(id => ticketsRef.current.delete(id));
+    publishItems();
+  };
+
+  // Tải lại danh sách món đang chờ của tất cả khu bếp (nút làm mới)
+  const fetchTickets = async () => {
+    try {
+      setLoading(true);
+      const responses = await Promise.all(KITCHEN_TYPES.map(kitchenType =>
+        axios.get<KitchenTicket[]>(`http://localhost:8080/api/kitchen/${kitchenType}/tickets`, {
+          headers: authHeaders()
+        })
+      ));
+      responses.forEach((response, index) => applySnapshot(KITCHEN_TYPES[index], response.data));
     } catch (error) {
-      console.error('Error fetching orders:', error);
-      if (showLoading) {
-        toast.error('Không thể tải danh sách đơn hàng');
-      }
+      console.error('Error fetching kitchen tickets:', error);
+      toast.error('Không thể tải danh sách món');
     } finally {
-      if (showLoading) {
-        setLoading(false);
-      }
+      setLoading(false);
     }
   };
 
@@ -180,51 +205,45 @@ export const KitchenPage = () => {
     setTableSummaries(summaries);
   };
 
-  // Thiết lập polling tự động cập nhật dữ liệu
+  // Theo dõi luồng phiếu của từng khu bếp; máy chủ gửi snapshot khi kết nối rồi chỉ gửi các món thay đổi
   useEffect(() => {
-    // Tải dữ liệu ban đầu
-    fetchOrders();
-    
-    // Thiết lập polling mỗi 15 giây
-    pollingIntervalRef.current = window.setInterval(() => {
-      fetchOrders(false);
-    }, 15000);
-    
+    const unsubscribes = KITCHEN_TYPES.map(kitchenType =>
+      subscribeSse(`http://localhost:8080/api/kitchen/${kitchenType}/tickets/stream`, authHeaders, message => {
+        const data = JSON.parse(message.data);
+        if (message.event === 'snapshot') {
+          applySnapshot(kitchenType, data);
+          setLoading(false);
+        } else if (message.event === 'tickets') {
+          applyTickets(data);
+        } else if (message.event === 'tickets-removed') {
+          removeTickets(data);
+        }
+      })
+    );
+
     // Dọn dẹp khi component unmount
     return () => {
-      if (pollingIntervalRef.current) {
-        clearInterval(pollingIntervalRef.current);
-      }
+      unsubscribes.forEach(unsubscribe => unsubscribe());
     };
   }, []);
 
-  // Cập nhật trạng thái của OrderItem
-  const updateOrderItemStatus = async (orderItemId: number, newStatus: string) => {
+  // Báo món đã xong cho khu bếp của món
+  const bumpItem = async (item: OrderItem) => {
     try {
-      setProcessingItemId(orderItemId);
+      setProcessingItemId(item.id);
       
-      await axios.put(`http://localhost:8080/api/orderItems/${orderItemId}/status`, 
-        { status: newStatus },
+      const response = await axios.post<KitchenTicket>(
+        `http://localhost:8080/api/kitchen/${item.menuItem.kitchenType}/tickets/${item.id}/bump`,
+        null,
         {
-          headers: {
-            'Authorization': `Bearer ${localStorage.getItem('token')}`
-          }
+          headers: authHeaders()
         }
       );
       
-      // Cập nhật state cục bộ
-      setOrderItems(prev => prev.map(item => 
-        item.id === orderItemId ? { ...item, status: newStatus } : item
-      ));
+      // Cập nhật ngay, không chờ sự kiện từ luồng
+      applyTickets([response.data]);
       
       toast.success('Đã cập nhật trạng thái món ăn');
-      
-      // Cập nhật lại thống kê
-      generateTableSummaries(
-        orderItems.map(item => 
-          item.id === orderItemId ? { ...item, status: newStatus } : item
-        )
-      );
     } catch (error) {
       console.error('Error updating order item status:', error);
       toast.error('Không thể cập nhật trạng thái món ăn');
@@ -290,7 +309,7 @@ export const KitchenPage = () => {
     <div className="flex flex-col h-screen">
       <div className="flex justify-between items-center mb-3 py-2 border-b">
         <h1 className="text-2xl font-bold">Quản lý nhà bếp</h1>
-        <Button onClick={() => fetchOrders(true)} variant="outline" size="icon">
+        <Button onClick={() => fetchTickets()} variant="outline" size="icon">
           <RefreshCw className="h-4 w-4" />
         </Button>
       </div>
@@ -424,7 +443,7 @@ export const KitchenPage = () => {
                           size="sm" 
                           className="w-full mt-1"
                           disabled={processingItemId === item.id}
-                          onClick={() => updateOrderItemStatus(item.id, 'READY')}
+                          onClick={() => bumpItem(item)}
                         >
                           <CheckCircle2 className="h-3.5 w-3.5 mr-1" /> Hoàn thành
                         </Button>
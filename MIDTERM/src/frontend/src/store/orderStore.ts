@@ -1,4 +1,5 @@
 import { create } from 'zustand';
+import { useCartStore } from './cartStore';
 
 // Định nghĩa các kiểu dữ liệu
 export interface OrderItem {
@@ -32,6 +33,7 @@ interface OrderState {
   isSubmitting: boolean;
   submitError: string | null;
   pollingInterval: number | null;
+  orderStream: EventSource | null;
 
   // Actions
   fetchCurrentOrder: (tableNumber: string) => Promise<void>;
@@ -43,12 +45,24 @@ interface OrderState {
   resetOrderSuccess: () => void;
   resetSubmitError: () => void;
   
-  // Polling API
+  // Theo dõi đơn hàng qua SSE; chỉ quay về polling khi không mở được luồng
   startPolling: (tableNumber: string, intervalSeconds?: number) => void;
   stopPolling: () => void;
   resetPolling: (tableNumber: string, intervalSeconds?: number) => void;
 }
 
+// Idempotency-Key của lượt đặt món đang chờ kết quả và nội dung đã gửi kèm key đó
+let pendingIdempotencyKey: string | null = null;
+let pendingRequestBody: string | null = null;
+
+// Giỏ hàng thay đổi thì lần gửi sau là một đơn khác, không được dùng lại key cũ
+useCartStore.subscribe((state, previous) => {
+  if (state.items !== previous.items) {
+    pendingIdempotencyKey = null;
+    pendingRequestBody = null;
+  }
+});
+
 export const useOrderStore = create<OrderState>((set, get) => ({
   // Dữ liệu ban đầu
   currentOrder: null,
@@ -59,6 +73,7 @@ export const useOrderStore = create<OrderState>((set, get) => ({
   isSubmitting: false,
   submitError: null,
   pollingInterval: null,
+  orderStream: null,
 
   // Fetch đơn hàng hiện tại
   fetchCurrentOrder: async (tableNumber: string) => {
@@ -112,17 +127,30 @@ export const useOrderStore = create<OrderState>((set, get) => ({
     try {
       // Chuẩn bị dữ liệu đơn hàng
       const orderData = { items };
+      const body = JSON.stringify(orderData);
+      
+      // Giữ nguyên key cho đến khi đặt thành công để lần bấm lại/gửi lại không tạo đơn trùng,
+      // nhưng chỉ khi nội dung gửi lại giống hệt lần trước
+      if (!pendingIdempotencyKey || pendingRequestBody !== body) {
+        pendingIdempotencyKey = crypto.randomUUID();
+        pendingRequestBody = body;
+      }
       
       // Gọi API đặt món
       const response = await fetch(`http://localhost:8080/api/orders/customer/${tableNumber}`, {
         method: 'POST',
         headers: {
           'Content-Type': 'application/json',
+          'Idempotency-Key': pendingIdempotencyKey,
         },
-        body: JSON.stringify(orderData),
+        body,
       });
       
       if (!response.ok) {
+        // Máy chủ đã trả lời nên lần gửi sau là một yêu cầu mới
+        pendingIdempotencyKey = null;
+        pendingRequestBody = null;
+        
         // Lấy clone của response để đọc nội dung
         const responseClone = response.clone();
         
@@ -146,6 +174,8 @@ export const useOrderStore = create<OrderState>((set, get) => ({
       }
       
       // Đặt hàng thành công
+      pendingIdempotencyKey = null;
+      pendingRequestBody = null;
       set({ orderSuccess: true, isSubmitting: false });
       return true;
     } catch (error) {
@@ -254,37 +284,51 @@ export const useOrderStore = create<OrderState>((set, get) => ({
     }
   },
   
-  // Bắt đầu polling API để cập nhật trạng thái real-time
+  // Theo dõi đơn hàng của bàn qua SSE để cập nhật trạng thái real-time
   startPolling: (tableNumber: string, intervalSeconds = 5) => {
-    // Trước tiên dừng polling hiện tại nếu có
-    const currentInterval = get().pollingInterval;
-    if (currentInterval) {
-      clearInterval(currentInterval);
-    }
+    // Trước tiên dừng luồng/polling hiện tại nếu có
+    get().stopPolling();
 
-    // Gọi API lần đầu ngay lập tức
-    get().fetchCurrentOrder(tableNumber);
+    if (typeof EventSource === 'undefined') {
+      startIntervalPolling(tableNumber, intervalSeconds);
+      return;
+    }
 
-    // Thiết lập interval mới
-    const interval = window.setInterval(() => {
-      // Gọi API để cập nhật dữ liệu
-      get().fetchCurrentOrder(tableNumber);
-    }, intervalSeconds * 1000);
+    // Máy chủ gửi snapshot ngay khi kết nối, sau đó chỉ gửi khi đơn thay đổi.
+    // Trình duyệt tự kết nối lại kèm Last-Event-ID nên không bỏ sót cập nhật.
+    const stream = new EventSource(`http://localhost:8080/api/orders/customer/${tableNumber}/stream`);
+    stream.addEventListener('order', (event) => {
+      set({ currentOrder: JSON.parse((event as MessageEvent).data), error: null });
+    });
+    stream.addEventListener('no-active-order', () => {
+      set({ currentOrder: null, error: null });
+    });
+    stream.onerror = () => {
+      // Luồng bị đóng hẳn (ví dụ bàn không tồn tại): quay về polling để vẫn hiển thị lỗi/đơn hàng
+      if (stream.readyState === EventSource.CLOSED && get().orderStream === stream) {
+        set({ orderStream: null });
+        startIntervalPolling(tableNumber, intervalSeconds);
+      }
+    };
 
-    // Lưu ID của interval
-    set({ pollingInterval: interval });
+    set({ orderStream: stream });
   },
 
-  // Dừng polling API
+  // Dừng theo dõi đơn hàng
   stopPolling: () => {
-    const interval = get().pollingInterval;
-    if (interval) {
-      clearInterval(interval);
-      set({ pollingInterval: null });
+    const { pollingInterval, orderStream } = get();
+    if (orderStream) {
+      orderStream.close();
+    }
+    if (pollingInterval) {
+      clearInterval(pollingInterval);
+    }
+    if (orderStream || pollingInterval) {
+      set({ orderStream: null, pollingInterval: null });
     }
   },
 
-  // Thiết lập lại polling API
+  // Thiết lập lại luồng theo dõi đơn hàng
   resetPolling: (tableNumber: string, intervalSeconds = 5) => {
     get().stopPolling();
     get().startPolling(tableNumber, intervalSeconds);
@@ -313,4 +357,19 @@ export const useOrderStore = create<OrderState>((set, get) => ({
       return false;
     }
   }
-}));
\ No newline at end of file
+}));
+
+// Polling định kỳ, chỉ dùng khi không mở được luồng SSE
+function startIntervalPolling(tableNumber: string, intervalSeconds: number) {
+  const { fetchCurrentOrder } = useOrderStore.getState();
+
+  // Gọi API lần đầu ngay lập tức
+  fetchCurrentOrder(tableNumber);
+
+  const interval = window.setInterval(() => {
+    useOrderStore.getState().fetchCurrentOrder(tableNumber);
+  }, intervalSeconds * 1000);
+
+  // Lưu ID của interval
+  useOrderStore.setState({ pollingInterval: interval });
+}
@@ -0,0 +1,99 @@
+/**
+ * Một sự kiện nhận được từ luồng Server-Sent Events
+ */
+export interface SseMessage {
+  id?: string;
+  event: string;
+  data: string;
+}
+
+/**
+ * Theo dõi một luồng SSE cần header Authorization (EventSource không gửi được header tùy ý).
+ * Tự kết nối lại khi mất kết nối và gửi kèm Last-Event-ID để máy chủ phát lại các sự kiện bị lỡ.
+ * @param url Địa chỉ luồng sự kiện
+ * @param getHeaders Header gửi kèm mỗi lần kết nối (đọc lại để luôn dùng token mới nhất)
+ * @param onMessage Hàm xử lý từng sự kiện
+ * @param retryMs Thời gian chờ trước khi kết nối lại
+ * @returns Hàm đóng luồng
+ */
+export const subscribeSse = (
+  url: string,
+  getHeaders: () => Record<string, string>,
+  onMessage: (message: SseMessage) => void,
+  retryMs = 3000
+): (() => void) => {
+  const controller = new AbortController();
+  let lastEventId: string | undefined;
+  let stopped = false;
+
+  const connect = async () => {
+    while (!stopped) {
+      try {
+        const headers: Record<string, string> = { Accept: 'text/event-stream', ...getHeaders() };
+        if (lastEventId) {
+          headers['Last-Event-ID'] = lastEventId;
+        }
+
+        const response = await fetch(url, { headers, signal: controller.signal });
+        if (!response.ok || !response.body) {
+          throw new Error(`Lỗi ${response.status}: ${response.statusText}`);
+        }
+
+        const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+        let buffer = '';
+        for (;;) {
+          const { value, done } = await reader.read();
+          if (done) break;
+          buffer += value;
+
+          // Mỗi sự kiện kết thúc bằng một dòng trống
+          let boundary = buffer.search(/\r?\n\r?\n/);
+          while (boundary >= 0) {
+            const block = buffer.slice(0, boundary);
+            buffer = buffer.slice(boundary).replace(/^\r?\n\r?\n/, '');
+            const message = parseBlock(block);
+            if (message) {
+              if (message.id) lastEventId = message.id;
+              onMessage(message);
+            }
+            boundary = buffer.search(/\r?\n\r?\n/);
+          }
+        }
+      } catch (error) {
+        if (stopped) return;
+        console.error('Mất kết nối luồng sự kiện:', error);
+      }
+
+      if (!stopped) {
+        await new Promise(resolve => setTimeout(resolve, retryMs));
+      }
+    }
+  };
+
+  connect();
+
+  return () => {
+    stopped = true;
+    controller.abort();
+  };
+};
+
+// Đọc các trường id/event/data của một sự kiện; bỏ qua comment (heartbeat)
+const parseBlock = (block: string): SseMessage | null => {
+  let id: string | undefined;
+  let event = 'message';
+  const data: string[] = [];
+
+  for (const line of block.split(/\r?\n/)) {
+    if (!line || line.startsWith(':')) continue;
+    const colon = line.indexOf(':');
+    const field = colon < 0 ? line : line.slice(0, colon);
+    const value = colon < 0 ? '' : line.slice(colon + 1).replace(/^ /, '');
+
+    if (field === 'id') id = value;
+    else if (field === 'event') event = value;
+    else if (field === 'data') data.push(value);
+  }
+
+  return data.length > 0 ? { id, event, data: data.join('\n') } : null;
+};